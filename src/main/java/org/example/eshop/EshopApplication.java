@@ -4,9 +4,11 @@ import org.example.eshop.service.ShopProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableConfigurationProperties(ShopProperties.class)
+@EnableScheduling
 public class EshopApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,83 @@
+package org.example.eshop.config;
+
+import org.example.eshop.service.ShippingCalculatorService;
+import org.example.eshop.service.VatCalculatorService;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Optional;
+
+/**
+ * Flyway V8: derives every cart's VAT, shipping cost and total from the subtotal and shipping weight that
+ * V3 backfilled. Those depend on the configured VAT rate and shipping brackets, so this runs in Java with
+ * the same calculators {@code CartService} uses rather than in SQL. Spring Boot hands {@link JavaMigration}
+ * beans to Flyway.
+ */
+@Component
+public class CartDerivedTotalsMigration implements JavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final VatCalculatorService vatCalculatorService;
+    private final ShippingCalculatorService shippingCalculatorService;
+
+    public CartDerivedTotalsMigration(VatCalculatorService vatCalculatorService,
+                                      ShippingCalculatorService shippingCalculatorService) {
+        this.vatCalculatorService = vatCalculatorService;
+        this.shippingCalculatorService = shippingCalculatorService;
+    }
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("8");
+    }
+
+    @Override
+    public String getDescription() {
+        return "Cart derived totals";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement select = context.getConnection().createStatement();
+             ResultSet carts = select.executeQuery("SELECT id, subtotal, shipping_weight_grams FROM carts");
+             PreparedStatement update = context.getConnection().prepareStatement(
+                     "UPDATE carts SET vat_amount = ?, shipping_cost = ?, total = ? WHERE id = ?")) {
+            int pending = 0;
+            while (carts.next()) {
+                BigDecimal subtotal = carts.getBigDecimal("subtotal");
+                BigDecimal shipping = Optional.ofNullable(
+                                shippingCalculatorService.calculateShippingCost("domestic", carts.getInt("shipping_weight_grams")))
+                        .orElse(BigDecimal.ZERO);
+                update.setBigDecimal(1, vatCalculatorService.extractVatAmount(subtotal));
+                update.setBigDecimal(2, shipping);
+                update.setBigDecimal(3, subtotal.add(shipping));
+                update.setLong(4, carts.getLong("id"));
+                update.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+}
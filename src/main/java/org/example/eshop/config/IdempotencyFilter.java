@@ -0,0 +1,274 @@
+package org.example.eshop.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.example.eshop.service.CookieCartService;
+import org.example.eshop.service.IdempotencyProperties;
+import org.example.eshop.service.IdempotencyStore;
+import org.example.eshop.service.ShopProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Honours an {@code Idempotency-Key} header on cart mutations and checkout submission. The first request
+ * with a key runs and its response (status, body, content type and location) is recorded; a retry with the
+ * same key and request gets that response replayed without reaching the controller, so it neither adds to
+ * a cart twice nor reserves stock for a second order. A retry that arrives while the first is still running
+ * gets 409, and a key reused for a different request gets 422. Server errors are not recorded, so they can
+ * be retried.
+ * <p>
+ * Keys are scoped to the caller: the cart named in the path, else the visitor's {@code cartId} cookie or
+ * session; for checking out a cookie cart, the signed cookie itself. A request with none of these (creating
+ * a first cart) is not recorded, so one visitor can never be handed another's response. Cookies are never
+ * replayed. Other cookie-cart requests are left alone: their result is worked out from the cookie the client
+ * sends, so a retry already gives the same answer. Keys are held
+ * in this process only, which is why the filter is opt-in and meant for a single instance.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final Pattern CHECKOUT_SUBMIT = Pattern.compile("/api/checkout/[^/]+/submit");
+    private static final Pattern CART_IN_PATH = Pattern.compile("/api/(?:cart|checkout)/(\\d+)(?:/.*)?");
+    private static final String CART_ID_COOKIE = "cartId";
+    private static final String COOKIE_CART_COOKIE = "cart";
+    private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION);
+
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotencyProperties properties;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ShopProperties shopProperties) {
+        this.idempotencyStore = idempotencyStore;
+        this.properties = shopProperties.getIdempotency();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled() || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !MUTATING_METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        if (!(path.equals("/api/cart") || path.startsWith("/api/cart/") || CHECKOUT_SUBMIT.matcher(path).matches())) {
+            return true;
+        }
+        return isCookieCart(path) || caller(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        int maxRequestBytes = properties.getMaxRequestBytes();
+        if (request.getContentLengthLong() > maxRequestBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Request body exceeds " + maxRequestBytes + " bytes");
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body.length > maxRequestBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Request body exceeds " + maxRequestBytes + " bytes");
+            return;
+        }
+        // Keys are scoped to the endpoint and the caller, so clients picking the same key never share a response
+        String storeKey = request.getMethod() + ' ' + request.getRequestURI() + ' ' + caller(request) + ' ' + key;
+
+        IdempotencyStore.Claim claim = idempotencyStore.claim(storeKey, fingerprint(request, body));
+        switch (claim.getOutcome()) {
+            case REPLAY -> {
+                replay(claim.getResponse(), response);
+                return;
+            }
+            case IN_PROGRESS -> {
+                response.sendError(HttpServletResponse.SC_CONFLICT, "A request with this Idempotency-Key is still in progress");
+                return;
+            }
+            case MISMATCH -> {
+                response.sendError(422, "Idempotency-Key was already used for a different request");
+                return;
+            }
+            case CLAIMED -> {
+            }
+        }
+
+        ContentCachingResponseWrapper recording = new ContentCachingResponseWrapper(response);
+        boolean recorded = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), recording);
+            int status = recording.getStatus();
+            if (status < 500 && recording.getContentSize() <= properties.getMaxResponseBytes()) {
+                idempotencyStore.complete(storeKey, new IdempotencyStore.RecordedResponse(
+                        status, headers(recording), recording.getContentAsByteArray()));
+                recorded = true;
+            }
+        } finally {
+            if (!recorded) {
+                idempotencyStore.release(storeKey);
+            }
+            recording.copyBodyToResponse();
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static boolean isCookieCart(String path) {
+        Matcher cart = CART_IN_PATH.matcher(path);
+        return path.startsWith("/api/cart/") && cart.matches() && isCookieCartId(cart.group(1));
+    }
+
+    private static boolean isCookieCartId(String cartId) {
+        // Longer runs of digits are not a valid id at all, and would overflow
+        return cartId.length() <= 18 && Long.parseLong(cartId) == CookieCartService.COOKIE_CART_ID;
+    }
+
+    /**
+     * Who the request acts for: the cart in the path (the signed cookie for a cookie cart), else the
+     * {@code cartId} cookie, else the session; null when there is nothing to tell this caller from any other.
+     */
+    private static String caller(HttpServletRequest request) {
+        Matcher cart = CART_IN_PATH.matcher(path(request));
+        if (cart.matches()) {
+            if (!isCookieCartId(cart.group(1))) {
+                return "cart:" + cart.group(1);
+            }
+            String lines = cookie(request, COOKIE_CART_COOKIE);
+            return lines != null ? "cookie-cart:" + lines : null;
+        }
+        String cartId = cookie(request, CART_ID_COOKIE);
+        if (cartId != null) {
+            return "cookie:" + cartId;
+        }
+        HttpSession session = request.getSession(false);
+        return session != null ? "session:" + session.getId() : null;
+    }
+
+    private static String cookie(HttpServletRequest request, String name) {
+        if (request.getCookies() == null) return null;
+        for (Cookie cookie : request.getCookies()) {
+            if (name.equals(cookie.getName()) && !cookie.getValue().isBlank()) return cookie.getValue();
+        }
+        return null;
+    }
+
+    private static void replay(IdempotencyStore.RecordedResponse recorded, HttpServletResponse response) throws IOException {
+        response.setStatus(recorded.getStatus());
+        recorded.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(recorded.getBody().length);
+        response.getOutputStream().write(recorded.getBody());
+    }
+
+    private static Map<String, List<String>> headers(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : REPLAYED_HEADERS) {
+            List<String> values = List.copyOf(response.getHeaders(name));
+            if (!values.isEmpty()) headers.put(name, values);
+        }
+        return headers;
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString() + '\n')
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * The request with its body already read, so the body can be both fingerprinted and handed on.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory, so it is available at once
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
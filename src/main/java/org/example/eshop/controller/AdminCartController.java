@@ -0,0 +1,24 @@
+package org.example.eshop.controller;
+
+import org.example.eshop.dto.CartPurgeStatsResponse;
+import org.example.eshop.service.CartPurgeService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminCartController {
+
+    private final CartPurgeService cartPurgeService;
+
+    public AdminCartController(CartPurgeService cartPurgeService) {
+        this.cartPurgeService = cartPurgeService;
+    }
+
+    @GetMapping("/carts/purge")
+    public ResponseEntity<CartPurgeStatsResponse> cartPurgeStats() {
+        return ResponseEntity.ok(cartPurgeService.stats());
+    }
+}
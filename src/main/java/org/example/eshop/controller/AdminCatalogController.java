@@ -1,6 +1,7 @@
 package org.example.eshop.controller;
 
 import jakarta.validation.Valid;
+import org.example.eshop.dto.CacheStatsResponse;
 import org.example.eshop.dto.CreateLotRequest;
 import org.example.eshop.dto.CreateProductRequest;
 import org.example.eshop.dto.CreateVariantRequest;
@@ -9,6 +10,7 @@ import org.example.eshop.dto.UpdateProductRequest;
 import org.example.eshop.dto.UpdateVariantRequest;
 import org.example.eshop.service.AdminCatalogService;
 import org.example.eshop.service.AuditLogService;
+import org.example.eshop.service.ProductDetailCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,10 +21,19 @@ public class AdminCatalogController {
 
     private final AdminCatalogService adminCatalogService;
     private final AuditLogService auditLogService;
+    private final ProductDetailCache productDetailCache;
 
-    public AdminCatalogController(AdminCatalogService adminCatalogService, AuditLogService auditLogService) {
+    public AdminCatalogController(AdminCatalogService adminCatalogService,
+                                  AuditLogService auditLogService,
+                                  ProductDetailCache productDetailCache) {
         this.adminCatalogService = adminCatalogService;
         this.auditLogService = auditLogService;
+        this.productDetailCache = productDetailCache;
+    }
+
+    @GetMapping("/cache/product-detail")
+    public ResponseEntity<CacheStatsResponse> productDetailCacheStats() {
+        return ResponseEntity.ok(productDetailCache.stats());
     }
 
     @GetMapping("/products")
@@ -3,6 +3,7 @@ package org.example.eshop.controller;
 import jakarta.validation.Valid;
 import org.example.eshop.dto.DashboardStatsResponse;
 import org.example.eshop.dto.MarkOrderPaidRequest;
+import org.example.eshop.dto.ReservationExpiryStatsResponse;
 import org.example.eshop.dto.ShipOrderRequest;
 import org.example.eshop.entity.OrderStatus;
 import org.example.eshop.repository.OrderRepository;
@@ -10,6 +11,7 @@ import org.example.eshop.repository.ProductRepository;
 import org.example.eshop.repository.VariantRepository;
 import org.example.eshop.service.AdminOrderService;
 import org.example.eshop.service.AuditLogService;
+import org.example.eshop.service.ReservationExpiryService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,15 +25,17 @@ public class AdminOrderController {
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final VariantRepository variantRepository;
+    private final ReservationExpiryService reservationExpiryService;
 
     public AdminOrderController(AdminOrderService adminOrderService, AuditLogService auditLogService,
                                 ProductRepository productRepository, OrderRepository orderRepository,
-                                VariantRepository variantRepository) {
+                                VariantRepository variantRepository, ReservationExpiryService reservationExpiryService) {
         this.adminOrderService = adminOrderService;
         this.auditLogService = auditLogService;
         this.productRepository = productRepository;
         this.orderRepository = orderRepository;
         this.variantRepository = variantRepository;
+        this.reservationExpiryService = reservationExpiryService;
     }
 
     @GetMapping("/dashboard/stats")
@@ -70,6 +74,11 @@ public class AdminOrderController {
         }
     }
 
+    @GetMapping("/orders/expiry")
+    public ResponseEntity<ReservationExpiryStatsResponse> reservationExpiryStats() {
+        return ResponseEntity.ok(reservationExpiryService.stats());
+    }
+
     @GetMapping("/orders/{id}")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
         try {
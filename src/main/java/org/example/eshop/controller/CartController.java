@@ -4,25 +4,22 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.example.eshop.dto.AddToCartRequest;
-import org.example.eshop.dto.CartDto;
+import org.example.eshop.dto.BatchAddToCartRequest;
 import org.example.eshop.dto.CartOperationResponse;
+import org.example.eshop.dto.CartSummaryDto;
+import org.example.eshop.dto.ShippingQuotesDto;
 import org.example.eshop.dto.UpdateCartItemRequest;
-import org.example.eshop.dto.CartItemDto;
-import org.example.eshop.dto.VariantSummaryDto;
 import org.example.eshop.entity.Cart;
-import org.example.eshop.entity.CartItem;
-import org.example.eshop.entity.Product;
-import org.example.eshop.entity.Variant;
-import org.example.eshop.repository.ProductRepository;
-import org.example.eshop.repository.VariantRepository;
 import org.example.eshop.service.CartService;
+import org.example.eshop.service.CookieCartService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -30,15 +27,11 @@ import java.util.stream.Collectors;
 public class CartController {
 
     private final CartService cartService;
-    private final VariantRepository variantRepository;
-    private final ProductRepository productRepository;
+    private final CookieCartService cookieCartService;
 
-    public CartController(CartService cartService,
-                          VariantRepository variantRepository,
-                          ProductRepository productRepository) {
+    public CartController(CartService cartService, CookieCartService cookieCartService) {
         this.cartService = Objects.requireNonNull(cartService);
-        this.variantRepository = Objects.requireNonNull(variantRepository);
-        this.productRepository = Objects.requireNonNull(productRepository);
+        this.cookieCartService = Objects.requireNonNull(cookieCartService);
     }
 
     @PostMapping
@@ -50,11 +43,22 @@ public class CartController {
                 Cart existingCart = cartService.getCartWithItems(existingCartId);
                 if (existingCart != null) {
                     return ResponseEntity.ok(
-                            new CartOperationResponse(true, "Cart already exists", mapCartToDto(existingCart), null)
+                            new CartOperationResponse(true, "Cart already exists", cartService.toCartDto(existingCart), null)
                     );
                 }
             }
 
+            if (cookieCartService.isEnabled()) {
+                // Anonymous carts start in a signed cookie; no row until checkout or the line limit
+                String existing = CartCookies.value(request, CartCookies.COOKIE_CART);
+                Map<Long, Integer> lines = cookieCartService.decode(existing);
+                CartCookies.set(response, CartCookies.COOKIE_CART, cookieCartService.encode(lines));
+                return existing != null && !lines.isEmpty()
+                        ? ResponseEntity.ok(new CartOperationResponse(true, "Cart already exists", cookieCartService.toCartDto(lines), null))
+                        : ResponseEntity.status(HttpStatus.CREATED)
+                                .body(new CartOperationResponse(true, "Cart created successfully", cookieCartService.toCartDto(lines), null));
+            }
+
             Cart cart = cartService.createCart();
 
             Cookie cookie = new Cookie("cartId", String.valueOf(cart.getId()));
@@ -64,7 +68,7 @@ public class CartController {
             response.addCookie(cookie);
 
             return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(new CartOperationResponse(true, "Cart created successfully", mapCartToDto(cart), null));
+                    .body(new CartOperationResponse(true, "Cart created successfully", cartService.toCartDto(cart), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new CartOperationResponse(false, "Failed to create cart", null, List.of(e.getMessage() != null ? e.getMessage() : "Unknown error")));
@@ -76,7 +80,7 @@ public class CartController {
         try {
             Cart cart = cartService.getCartWithItems(cartId);
             if (cart != null) {
-                return ResponseEntity.ok(new CartOperationResponse(true, null, mapCartToDto(cart), null));
+                return ResponseEntity.ok(new CartOperationResponse(true, null, cartService.toCartDto(cart), null));
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(new CartOperationResponse(false, "Cart not found", null, List.of("Cart with id " + cartId + " not found")));
@@ -87,28 +91,42 @@ public class CartController {
         }
     }
 
+    /**
+     * Item count and totals for the header badge, read without the cart's lines.
+     */
+    @GetMapping("/{cartId}/summary")
+    public ResponseEntity<CartSummaryDto> getCartSummary(@PathVariable long cartId) {
+        try {
+            CartSummaryDto summary = cartService.getCartSummary(cartId);
+            return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Shipping cost of the cart to every zone, so the cart page can show estimates without a zone switch.
+     */
+    @GetMapping("/{cartId}/shipping-quotes")
+    public ResponseEntity<ShippingQuotesDto> getShippingQuotes(@PathVariable long cartId) {
+        try {
+            ShippingQuotesDto quotes = cartService.getShippingQuotes(cartId);
+            return quotes != null ? ResponseEntity.ok(quotes) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PatchMapping("/{cartId}")
     public ResponseEntity<CartOperationResponse> updateCart(@PathVariable long cartId,
                                                             @RequestBody UpdateCartItemRequest request) {
         try {
-            Cart cart;
-            if (request.getQuantity() == 0) {
-                cart = cartService.removeItemFromCart(cartId, request.getVariantId());
-            } else if (request.getQuantity() > 0) {
-                Cart existingCart = cartService.getCartWithItems(cartId);
-                boolean itemExists = existingCart != null && existingCart.getItems() != null &&
-                        existingCart.getItems().stream().anyMatch(i -> Objects.equals(i.getVariantId(), request.getVariantId()));
-                if (itemExists) {
-                    cart = cartService.updateItemQuantity(cartId, request.getVariantId(), request.getQuantity());
-                } else {
-                    cart = cartService.addItemToCart(cartId, request.getVariantId(), request.getQuantity());
-                }
-            } else {
+            if (request.getQuantity() < 0) {
                 return ResponseEntity.badRequest()
                         .body(new CartOperationResponse(false, "Invalid quantity", null, List.of("Quantity cannot be negative")));
             }
-
-            return ResponseEntity.ok(new CartOperationResponse(true, "Cart updated successfully", mapCartToDto(cart), null));
+            Cart cart = cartService.upsertItem(cartId, request.getVariantId(), request.getQuantity());
+            return ResponseEntity.ok(new CartOperationResponse(true, "Cart updated successfully", cartService.toCartDto(cart), null));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(new CartOperationResponse(false, "Invalid request", null, List.of(e.getMessage() != null ? e.getMessage() : "Invalid request")));
@@ -123,7 +141,7 @@ public class CartController {
                                                                 @RequestBody AddToCartRequest request) {
         try {
             Cart cart = cartService.addItemToCart(cartId, request.getVariantId(), request.getQuantity());
-            return ResponseEntity.ok(new CartOperationResponse(true, "Item added to cart successfully", mapCartToDto(cart), null));
+            return ResponseEntity.ok(new CartOperationResponse(true, "Item added to cart successfully", cartService.toCartDto(cart), null));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(new CartOperationResponse(false, "Invalid request", null, List.of(e.getMessage() != null ? e.getMessage() : "Invalid request")));
@@ -133,12 +151,28 @@ public class CartController {
         }
     }
 
+    @PostMapping("/{cartId}/items:batch")
+    public ResponseEntity<CartOperationResponse> addItemsToCart(@PathVariable long cartId,
+                                                                 @RequestBody BatchAddToCartRequest request) {
+        try {
+            Cart cart = cartService.addItemsToCart(cartId, request.getItems().stream()
+                    .collect(Collectors.toMap(AddToCartRequest::getVariantId, AddToCartRequest::getQuantity, Integer::sum, LinkedHashMap::new)));
+            return ResponseEntity.ok(new CartOperationResponse(true, "Items added to cart successfully", cartService.toCartDto(cart), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new CartOperationResponse(false, "Invalid request", null, List.of(e.getMessage() != null ? e.getMessage() : "Invalid request")));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new CartOperationResponse(false, "Failed to add items to cart", null, List.of(e.getMessage() != null ? e.getMessage() : "Unknown error")));
+        }
+    }
+
     @DeleteMapping("/{cartId}/items/{variantId}")
     public ResponseEntity<CartOperationResponse> removeItemFromCart(@PathVariable long cartId,
                                                                      @PathVariable long variantId) {
         try {
             Cart cart = cartService.removeItemFromCart(cartId, variantId);
-            return ResponseEntity.ok(new CartOperationResponse(true, "Item removed from cart successfully", mapCartToDto(cart), null));
+            return ResponseEntity.ok(new CartOperationResponse(true, "Item removed from cart successfully", cartService.toCartDto(cart), null));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(new CartOperationResponse(false, "Invalid request", null, List.of(e.getMessage() != null ? e.getMessage() : "Invalid request")));
@@ -152,7 +186,7 @@ public class CartController {
     public ResponseEntity<CartOperationResponse> clearCart(@PathVariable long cartId) {
         try {
             Cart cart = cartService.clearCart(cartId);
-            return ResponseEntity.ok(new CartOperationResponse(true, "Cart cleared successfully", mapCartToDto(cart), null));
+            return ResponseEntity.ok(new CartOperationResponse(true, "Cart cleared successfully", cartService.toCartDto(cart), null));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(new CartOperationResponse(false, "Invalid request", null, List.of(e.getMessage() != null ? e.getMessage() : "Invalid request")));
@@ -175,50 +209,4 @@ public class CartController {
         }
         return null;
     }
-
-    private CartDto mapCartToDto(Cart cart) {
-        List<CartItemDto> itemDtos = cart.getItems().stream()
-                .map(this::mapCartItemToDto)
-                .collect(Collectors.toList());
-
-        return new CartDto(
-                cart.getId(),
-                cart.getSubtotal(),
-                cart.getVatAmount(),
-                cart.getShippingCost(),
-                cart.getTotal(),
-                cart.getCreatedAt(),
-                cart.getUpdatedAt(),
-                itemDtos
-        );
-    }
-
-    private CartItemDto mapCartItemToDto(CartItem cartItem) {
-        VariantSummaryDto variantSummary = null;
-        Optional<Variant> variantOpt = variantRepository.findById(cartItem.getVariantId());
-        if (variantOpt.isPresent()) {
-            Variant v = variantOpt.get();
-            String productTitle = productRepository.findById(v.getProductId())
-                    .map(Product::getTitle)
-                    .orElse("Unknown Product");
-            variantSummary = new VariantSummaryDto(
-                    v.getId(),
-                    v.getSku(),
-                    v.getTitle(),
-                    v.getPrice(),
-                    v.getStockQty(),
-                    v.getReservedQty(),
-                    productTitle
-            );
-        }
-
-        return new CartItemDto(
-                cartItem.getId(),
-                cartItem.getVariantId(),
-                cartItem.getQty(),
-                cartItem.getPriceSnapshot(),
-                cartItem.getLineTotal(),
-                variantSummary
-        );
-    }
 }
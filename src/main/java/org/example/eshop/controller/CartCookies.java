@@ -0,0 +1,44 @@
+package org.example.eshop.controller;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * The cookies that tie a visitor to a cart: {@code cartId} for a saved cart, {@code cart} for the
+ * signed lines of a cookie cart (see {@code CookieCartService}).
+ */
+final class CartCookies {
+
+    static final String CART_ID = "cartId";
+    static final String COOKIE_CART = "cart";
+
+    private static final int MAX_AGE_SECONDS = 7 * 24 * 60 * 60; // 7 days
+
+    private CartCookies() {
+    }
+
+    static String value(HttpServletRequest request, String name) {
+        if (request.getCookies() == null) return null;
+        for (Cookie c : request.getCookies()) {
+            if (name.equals(c.getName())) return c.getValue();
+        }
+        return null;
+    }
+
+    static void set(HttpServletResponse response, String name, String value) {
+        Cookie cookie = new Cookie(name, value);
+        cookie.setMaxAge(MAX_AGE_SECONDS);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+
+    static void clear(HttpServletResponse response, String name) {
+        Cookie cookie = new Cookie(name, "");
+        cookie.setMaxAge(0);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+}
@@ -3,30 +3,26 @@ package org.example.eshop.controller;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.example.eshop.dto.CartDto;
-import org.example.eshop.dto.CartItemDto;
-import org.example.eshop.dto.VariantSummaryDto;
 import org.example.eshop.entity.Cart;
-import org.example.eshop.entity.CartItem;
-import org.example.eshop.repository.ProductRepository;
-import org.example.eshop.repository.VariantRepository;
 import org.example.eshop.service.CartService;
+import org.example.eshop.service.CookieCartService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Map;
+
 @Controller
 public class CartViewController {
 
     private final CartService cartService;
-    private final VariantRepository variantRepository;
-    private final ProductRepository productRepository;
+    private final CookieCartService cookieCartService;
 
-    public CartViewController(CartService cartService, VariantRepository variantRepository, ProductRepository productRepository) {
+    public CartViewController(CartService cartService, CookieCartService cookieCartService) {
         this.cartService = cartService;
-        this.variantRepository = variantRepository;
-        this.productRepository = productRepository;
+        this.cookieCartService = cookieCartService;
     }
 
     @GetMapping("/cart")
@@ -36,10 +32,13 @@ public class CartViewController {
             if (cartId != null) {
                 Cart cart = cartService.getCartWithItemsOrNull(cartId);
                 if (cart != null) {
-                    model.addAttribute("cart", mapCartToDto(cart));
+                    model.addAttribute("cart", cartService.toCartDto(cart));
                 } else {
                     model.addAttribute("cart", null);
                 }
+            } else if (cookieCartService.isEnabled()) {
+                Map<Long, Integer> lines = cookieCartService.decode(CartCookies.value(request, CartCookies.COOKIE_CART));
+                model.addAttribute("cart", lines.isEmpty() ? null : cookieCartService.toCartDto(lines));
             } else {
                 model.addAttribute("cart", null);
             }
@@ -59,7 +58,7 @@ public class CartViewController {
         try {
             Cart cart = cartService.getCartWithItemsOrNull(cartId);
             if (cart != null) {
-                model.addAttribute("cart", mapCartToDto(cart));
+                model.addAttribute("cart", cartService.toCartDto(cart));
             } else {
                 model.addAttribute("error", "Cart not found");
                 model.addAttribute("cart", null);
@@ -89,39 +88,4 @@ public class CartViewController {
         }
         return null;
     }
-
-    private CartDto mapCartToDto(Cart cart) {
-        return new CartDto(
-                cart.getId(),
-                cart.getSubtotal(),
-                cart.getVatAmount(),
-                cart.getShippingCost(),
-                cart.getTotal(),
-                cart.getCreatedAt(),
-                cart.getUpdatedAt(),
-                cart.getItems().stream().map(this::mapCartItemToDto).toList()
-        );
-    }
-
-    private CartItemDto mapCartItemToDto(CartItem cartItem) {
-        var variant = variantRepository.findById(cartItem.getVariantId()).orElse(null);
-        var product = variant != null ? productRepository.findById(variant.getProductId()).orElse(null) : null;
-
-        return new CartItemDto(
-                cartItem.getId(),
-                cartItem.getVariantId(),
-                cartItem.getQty(),
-                cartItem.getPriceSnapshot(),
-                cartItem.getLineTotal(),
-                variant == null ? null : new VariantSummaryDto(
-                        variant.getId(),
-                        variant.getSku(),
-                        variant.getTitle(),
-                        variant.getPrice(),
-                        variant.getStockQty(),
-                        variant.getReservedQty(),
-                        product != null ? product.getTitle() : "Unknown Product"
-                )
-        );
-    }
 }
@@ -1,14 +1,25 @@
 package org.example.eshop.controller;
 
+import org.example.eshop.dto.FacetDto;
+import org.example.eshop.service.CatalogFilter;
+import org.example.eshop.service.CatalogPage;
+import org.example.eshop.service.CatalogSort;
 import org.example.eshop.service.ProductService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponents;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Controller
 public class CatalogController {
@@ -26,42 +37,70 @@ public class CatalogController {
 
     @GetMapping("/catalog")
     public String catalog(
+            @RequestParam(required = false) String q,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String region,
             @RequestParam(required = false) Integer harvestYear,
+            @RequestParam(required = false) String season,
+            @RequestParam(required = false) String storageType,
+            @RequestParam(required = false) String priceBucket,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String pageToken,
+            ServletWebRequest webRequest,
             Model model
     ) {
+        if (ConditionalRequests.notModified(webRequest, productService.catalogVersion())) {
+            return null;
+        }
         try {
-            var products = productService.findProducts(
+            CatalogPage page = productService.browse(new CatalogFilter(
+                    q,
                     type,
                     region,
                     harvestYear,
+                    season,
+                    storageType,
+                    priceBucket,
                     minPrice,
                     maxPrice,
                     inStock
-            );
+            ), CatalogSort.fromParam(sort), pageToken, ProductService.DEFAULT_PAGE_SIZE);
 
             // Add filter values to model for form state
-            model.addAttribute("products", products);
+            model.addAttribute("products", page.getProducts());
+            model.addAttribute("selectedQuery", q);
             model.addAttribute("selectedType", type);
             model.addAttribute("selectedRegion", region);
             model.addAttribute("selectedHarvestYear", harvestYear);
+            model.addAttribute("selectedSeason", season);
+            model.addAttribute("selectedStorageType", storageType);
+            model.addAttribute("selectedPriceBucket", priceBucket);
             model.addAttribute("selectedMinPrice", minPrice);
             model.addAttribute("selectedMaxPrice", maxPrice);
             model.addAttribute("selectedInStock", inStock);
+            model.addAttribute("selectedSort", page.getSort().getParamName());
+
+            // Keyset page links keep every filter and only swap the continuation token
+            if (page.hasNextPage()) {
+                model.addAttribute("nextPageUrl", pageLink(List.of(page.getNextPageToken())));
+            }
+            if (pageToken != null && !pageToken.isBlank()) {
+                model.addAttribute("firstPageUrl", pageLink(List.of()));
+            }
 
-            // Add available filter options
-            model.addAttribute("availableTypes", getAvailableTypes());
-            model.addAttribute("availableHarvestYears", getAvailableHarvestYears());
+            // Filter options with per-value counts, keyed by request parameter
+            model.addAttribute("facets", page.getFacets().stream()
+                    .collect(Collectors.toMap(FacetDto::getName, Function.identity(), (a, b) -> a, LinkedHashMap::new)));
 
             return "catalog";
         } catch (IllegalArgumentException e) {
             // Handle invalid filter parameters gracefully
             model.addAttribute("error", "Invalid filter parameters: " + e.getMessage());
             model.addAttribute("products", List.of());
+            model.addAttribute("facets", Map.of());
             return "catalog";
         }
     }
@@ -77,14 +116,10 @@ public class CatalogController {
         }
     }
 
-    private List<String> getAvailableTypes() {
-        return List.of("Green Tea", "Black Tea", "Pu-erh Tea", "White Tea", "Teaware");
-    }
-
-    private List<Integer> getAvailableHarvestYears() {
-        return java.util.stream.IntStream.rangeClosed(2018, 2024)
-                .boxed()
-                .sorted((a, b) -> b - a)
-                .toList();
+    private String pageLink(List<String> pageToken) {
+        UriComponents uri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("pageToken", pageToken)
+                .build();
+        return uri.getQuery() != null ? uri.getPath() + "?" + uri.getQuery() : uri.getPath();
     }
 }
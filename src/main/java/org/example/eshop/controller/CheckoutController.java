@@ -1,29 +1,54 @@
 package org.example.eshop.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.example.eshop.dto.CheckoutRequest;
 import org.example.eshop.dto.OrderDto;
 import org.example.eshop.service.CheckoutService;
+import org.example.eshop.service.CookieCartService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api")
 public class CheckoutController {
 
     private final CheckoutService checkoutService;
+    private final CookieCartService cookieCartService;
 
-    public CheckoutController(CheckoutService checkoutService) {
+    public CheckoutController(CheckoutService checkoutService, CookieCartService cookieCartService) {
         this.checkoutService = checkoutService;
+        this.cookieCartService = cookieCartService;
     }
 
+    /**
+     * Places an order for a saved cart, or for the visitor's cookie cart when {@code cartId} is
+     * {@link CookieCartService#COOKIE_CART_ID}; that cart is saved first and its cookie swapped for the
+     * saved cart's id.
+     */
     @PostMapping("/checkout/{cartId}/submit")
     public ResponseEntity<OrderDto> submitCheckout(
             @PathVariable Long cartId,
-            @Valid @RequestBody CheckoutRequest request
+            @Valid @RequestBody CheckoutRequest request,
+            HttpServletRequest httpRequest,
+            HttpServletResponse response
     ) {
         try {
+            if (cartId == CookieCartService.COOKIE_CART_ID) {
+                Map<Long, Integer> lines = cookieCartService.isEnabled()
+                        ? cookieCartService.decode(CartCookies.value(httpRequest, CartCookies.COOKIE_CART))
+                        : Map.of();
+                if (lines.isEmpty()) {
+                    return ResponseEntity.badRequest().build();
+                }
+                cartId = cookieCartService.persist(lines).getId();
+                CartCookies.set(response, CartCookies.CART_ID, String.valueOf(cartId));
+                CartCookies.clear(response, CartCookies.COOKIE_CART);
+            }
             var order = checkoutService.submitCheckout(cartId, request);
             var orderDto = OrderDto.fromEntity(order);
             return ResponseEntity.ok(orderDto);
@@ -2,28 +2,43 @@ package org.example.eshop.controller;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.eshop.service.CartService;
 import org.example.eshop.service.CheckoutService;
+import org.example.eshop.service.CookieCartService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Map;
+
 @Controller
 public class CheckoutViewController {
 
     private final CartService cartService;
     private final CheckoutService checkoutService;
+    private final CookieCartService cookieCartService;
 
-    public CheckoutViewController(CartService cartService, CheckoutService checkoutService) {
+    public CheckoutViewController(CartService cartService, CheckoutService checkoutService, CookieCartService cookieCartService) {
         this.cartService = cartService;
         this.checkoutService = checkoutService;
+        this.cookieCartService = cookieCartService;
     }
 
     @GetMapping("/checkout")
-    public String checkoutPage(HttpServletRequest request, Model model) {
+    public String checkoutPage(HttpServletRequest request, HttpServletResponse response, Model model) {
         Long cartId = getCartIdFromCookies(request);
         var cart = cartId != null ? cartService.getCartWithItemsOrNull(cartId) : null;
+        if (cart == null && cookieCartService.isEnabled()) {
+            // Checkout works on saved carts, so a cookie cart is saved on the way in
+            Map<Long, Integer> lines = cookieCartService.decode(CartCookies.value(request, CartCookies.COOKIE_CART));
+            if (!lines.isEmpty()) {
+                cart = cookieCartService.persist(lines);
+                CartCookies.set(response, CartCookies.CART_ID, String.valueOf(cart.getId()));
+                CartCookies.clear(response, CartCookies.COOKIE_CART);
+            }
+        }
         model.addAttribute("cart", cart);
         return "checkout";
     }
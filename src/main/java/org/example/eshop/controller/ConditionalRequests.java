@@ -0,0 +1,33 @@
+package org.example.eshop.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.eshop.service.CatalogVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Conditional GET support for catalog-derived responses. The validator comes from the in-memory catalog
+ * version, so a 304 is decided before any listing or database work is done. Only an ETag is sent: a
+ * Last-Modified taken from the local build time would differ between instances serving the same catalog.
+ */
+final class ConditionalRequests {
+
+    // Storable by browsers and shared caches, but always revalidated
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Adds ETag and Cache-Control to the response. Returns true when the client's copy
+     * is current, in which case the response has been turned into a 304 and the handler should return null.
+     */
+    static boolean notModified(ServletWebRequest request, CatalogVersion version) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+        }
+        return request.checkNotModified(version.getEtag());
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.eshop.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.eshop.dto.AddToCartRequest;
+import org.example.eshop.dto.BatchAddToCartRequest;
+import org.example.eshop.dto.CartOperationResponse;
+import org.example.eshop.dto.CartSummaryDto;
+import org.example.eshop.dto.ShippingQuotesDto;
+import org.example.eshop.dto.UpdateCartItemRequest;
+import org.example.eshop.entity.Cart;
+import org.example.eshop.service.CartService;
+import org.example.eshop.service.CookieCartService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * The cart API for cookie carts, addressed as cart {@value CookieCartService#COOKIE_CART_ID}. Each change
+ * re-issues the signed {@code cart} cookie; once the cart outgrows it, the cart is saved and the response
+ * carries the saved cart's id (and a {@code cartId} cookie) from then on.
+ */
+@RestController
+@RequestMapping("/api/cart/" + CookieCartService.COOKIE_CART_ID)
+@ConditionalOnProperty(prefix = "shop.cart", name = "cookie-carts", havingValue = "true")
+public class CookieCartController {
+
+    private final CookieCartService cookieCartService;
+    private final CartService cartService;
+
+    public CookieCartController(CookieCartService cookieCartService, CartService cartService) {
+        this.cookieCartService = Objects.requireNonNull(cookieCartService);
+        this.cartService = Objects.requireNonNull(cartService);
+    }
+
+    @GetMapping
+    public ResponseEntity<CartOperationResponse> getCart(HttpServletRequest request) {
+        return ResponseEntity.ok(new CartOperationResponse(true, null, cookieCartService.toCartDto(lines(request)), null));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummaryDto> getCartSummary(HttpServletRequest request) {
+        return ResponseEntity.ok(cookieCartService.toSummary(lines(request)));
+    }
+
+    @GetMapping("/shipping-quotes")
+    public ResponseEntity<ShippingQuotesDto> getShippingQuotes(HttpServletRequest request) {
+        return ResponseEntity.ok(cookieCartService.toShippingQuotes(lines(request)));
+    }
+
+    @PatchMapping
+    public ResponseEntity<CartOperationResponse> updateCart(@RequestBody UpdateCartItemRequest request,
+                                                            HttpServletRequest httpRequest,
+                                                            HttpServletResponse httpResponse) {
+        return change(httpRequest, httpResponse, "Cart updated successfully", "Failed to update cart",
+                lines -> cookieCartService.setQuantity(lines, request.getVariantId(), request.getQuantity()));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<CartOperationResponse> addItemToCart(@RequestBody AddToCartRequest request,
+                                                                HttpServletRequest httpRequest,
+                                                                HttpServletResponse httpResponse) {
+        return change(httpRequest, httpResponse, "Item added to cart successfully", "Failed to add item to cart",
+                lines -> cookieCartService.addItem(lines, request.getVariantId(), request.getQuantity()));
+    }
+
+    @PostMapping("/items:batch")
+    public ResponseEntity<CartOperationResponse> addItemsToCart(@RequestBody BatchAddToCartRequest request,
+                                                                 HttpServletRequest httpRequest,
+                                                                 HttpServletResponse httpResponse) {
+        return change(httpRequest, httpResponse, "Items added to cart successfully", "Failed to add items to cart", lines -> {
+            if (request.getItems().isEmpty()) {
+                throw new IllegalArgumentException("At least one item is required");
+            }
+            Map<Long, Integer> next = lines;
+            for (AddToCartRequest item : request.getItems()) {
+                next = cookieCartService.addItem(next, item.getVariantId(), item.getQuantity());
+            }
+            return next;
+        });
+    }
+
+    @DeleteMapping("/items/{variantId}")
+    public ResponseEntity<CartOperationResponse> removeItemFromCart(@PathVariable long variantId,
+                                                                     HttpServletRequest httpRequest,
+                                                                     HttpServletResponse httpResponse) {
+        return change(httpRequest, httpResponse, "Item removed from cart successfully", "Failed to remove item from cart",
+                lines -> cookieCartService.setQuantity(lines, variantId, 0));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<CartOperationResponse> clearCart(HttpServletRequest httpRequest,
+                                                           HttpServletResponse httpResponse) {
+        return change(httpRequest, httpResponse, "Cart cleared successfully", "Failed to clear cart", lines -> Map.of());
+    }
+
+    private ResponseEntity<CartOperationResponse> change(HttpServletRequest request, HttpServletResponse response,
+                                                         String message, String failure,
+                                                         UnaryOperator<Map<Long, Integer>> change) {
+        try {
+            Map<Long, Integer> lines = change.apply(lines(request));
+            if (cookieCartService.exceedsLimit(lines)) {
+                Cart cart = cookieCartService.persist(lines);
+                CartCookies.set(response, CartCookies.CART_ID, String.valueOf(cart.getId()));
+                CartCookies.clear(response, CartCookies.COOKIE_CART);
+                return ResponseEntity.ok(new CartOperationResponse(true, message, cartService.toCartDto(cart), null));
+            }
+            CartCookies.set(response, CartCookies.COOKIE_CART, cookieCartService.encode(lines));
+            return ResponseEntity.ok(new CartOperationResponse(true, message, cookieCartService.toCartDto(lines), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new CartOperationResponse(false, "Invalid request", null, List.of(e.getMessage() != null ? e.getMessage() : "Invalid request")));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new CartOperationResponse(false, failure, null, List.of(e.getMessage() != null ? e.getMessage() : "Unknown error")));
+        }
+    }
+
+    private Map<Long, Integer> lines(HttpServletRequest request) {
+        return cookieCartService.decode(CartCookies.value(request, CartCookies.COOKIE_CART));
+    }
+}
@@ -1,14 +1,22 @@
 package org.example.eshop.controller;
 
+import org.example.eshop.dto.FacetDto;
+import org.example.eshop.dto.FilterOptionsDto;
 import org.example.eshop.dto.ProductDetailDto;
-import org.example.eshop.dto.ProductDto;
+import org.example.eshop.dto.ProductPageDto;
+import org.example.eshop.dto.SuggestionDto;
+import org.example.eshop.service.CatalogFilter;
+import org.example.eshop.service.CatalogPage;
+import org.example.eshop.service.CatalogSort;
 import org.example.eshop.service.ProductService;
+import org.example.eshop.service.ProductSuggestIndex;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -18,37 +26,89 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSuggestIndex productSuggestIndex;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSuggestIndex productSuggestIndex) {
         this.productService = productService;
+        this.productSuggestIndex = productSuggestIndex;
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getProducts(
+    public ResponseEntity<ProductPageDto> getProducts(
+            @RequestParam(required = false) String q,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String region,
             @RequestParam(required = false) Integer harvestYear,
+            @RequestParam(required = false) String season,
+            @RequestParam(required = false) String storageType,
+            @RequestParam(required = false) String priceBucket,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int limit,
+            ServletWebRequest webRequest
+    ) {
+        if (ConditionalRequests.notModified(webRequest, productService.catalogVersion())) {
+            return null;
+        }
+        try {
+            CatalogPage page = productService.browse(
+                    new CatalogFilter(q, type, region, harvestYear, season, storageType, priceBucket, minPrice, maxPrice, inStock),
+                    CatalogSort.fromParam(sort),
+                    pageToken,
+                    Math.min(limit, ProductService.MAX_PAGE_SIZE));
+            return ResponseEntity.ok(new ProductPageDto(page.getProducts(), page.getSort().getParamName(), page.getNextPageToken()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<List<FacetDto>> getFacets(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer harvestYear,
+            @RequestParam(required = false) String season,
+            @RequestParam(required = false) String storageType,
+            @RequestParam(required = false) String priceBucket,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Boolean inStock
     ) {
         try {
-            List<ProductDto> products = productService.findProducts(
-                    type,
-                    region,
-                    harvestYear,
-                    minPrice,
-                    maxPrice,
-                    inStock
-            );
-            return ResponseEntity.ok(products);
+            CatalogPage page = productService.browse(new CatalogFilter(
+                    q, type, null, harvestYear, season, storageType, priceBucket, minPrice, maxPrice, inStock));
+            return ResponseEntity.ok(page.getFacets());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(@RequestParam(defaultValue = "") String prefix,
+                                                       @RequestParam(required = false) Integer limit) {
+        int k = productSuggestIndex.getSuggestionsPerPrefix();
+        if (limit != null && limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productSuggestIndex.suggest(prefix, limit != null ? Math.min(limit, k) : k));
+    }
+
+    @GetMapping("/filter-options")
+    public ResponseEntity<FilterOptionsDto> getFilterOptions(ServletWebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, productService.catalogVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok(productService.filterOptions());
+    }
+
     @GetMapping("/{slug}")
-    public ResponseEntity<ProductDetailDto> getProductBySlug(@PathVariable String slug) {
+    public ResponseEntity<ProductDetailDto> getProductBySlug(@PathVariable String slug, ServletWebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, productService.catalogVersion())) {
+            return null;
+        }
         ProductDetailDto product = productService.findProductBySlug(slug);
         if (product != null) {
             return ResponseEntity.ok(product);
@@ -0,0 +1,18 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class BatchAddToCartRequest {
+    private final List<AddToCartRequest> items;
+
+    @JsonCreator
+    public BatchAddToCartRequest(@JsonProperty("items") List<AddToCartRequest> items) {
+        this.items = items == null ? Collections.emptyList() : List.copyOf(items);
+    }
+
+    public List<AddToCartRequest> getItems() { return items; }
+}
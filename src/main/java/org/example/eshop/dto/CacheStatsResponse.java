@@ -0,0 +1,45 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public final class CacheStatsResponse {
+    private final long hits;
+    private final long misses;
+    private final long evictions; // dropped to stay within maxBytes
+    private final long invalidations; // dropped because the product changed
+    private final int entries;
+    private final long bytes;
+    private final long maxBytes;
+
+    @JsonCreator
+    public CacheStatsResponse(
+            @JsonProperty("hits") long hits,
+            @JsonProperty("misses") long misses,
+            @JsonProperty("evictions") long evictions,
+            @JsonProperty("invalidations") long invalidations,
+            @JsonProperty("entries") int entries,
+            @JsonProperty("bytes") long bytes,
+            @JsonProperty("maxBytes") long maxBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.entries = entries;
+        this.bytes = bytes;
+        this.maxBytes = maxBytes;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getInvalidations() { return invalidations; }
+    public int getEntries() { return entries; }
+    public long getBytes() { return bytes; }
+    public long getMaxBytes() { return maxBytes; }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
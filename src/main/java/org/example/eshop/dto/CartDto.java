@@ -2,11 +2,13 @@ package org.example.eshop.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.example.eshop.entity.Cart;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public final class CartDto {
@@ -39,6 +41,25 @@ public final class CartDto {
         this.items = items == null ? Collections.emptyList() : List.copyOf(items);
     }
 
+    /**
+     * Maps a cart with its lines; {@code variantsById} must hold the summaries of the lines' variants
+     * (lines whose variant is gone get none).
+     */
+    public static CartDto fromEntity(Cart cart, Map<Long, VariantSummaryDto> variantsById) {
+        return new CartDto(
+                cart.getId(),
+                cart.getSubtotal(),
+                cart.getVatAmount(),
+                cart.getShippingCost(),
+                cart.getTotal(),
+                cart.getCreatedAt(),
+                cart.getUpdatedAt(),
+                cart.getItems().stream()
+                        .map(item -> CartItemDto.fromEntity(item, variantsById.get(item.getVariantId())))
+                        .toList()
+        );
+    }
+
     public long getId() { return id; }
     public BigDecimal getSubtotal() { return subtotal; }
     public BigDecimal getVatAmount() { return vatAmount; }
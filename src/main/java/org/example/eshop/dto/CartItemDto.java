@@ -2,6 +2,7 @@ package org.example.eshop.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.example.eshop.entity.CartItem;
 
 import java.math.BigDecimal;
 
@@ -29,6 +30,17 @@ public final class CartItemDto {
         this.variant = variant; // may be null
     }
 
+    public static CartItemDto fromEntity(CartItem cartItem, VariantSummaryDto variant) {
+        return new CartItemDto(
+                cartItem.getId() != null ? cartItem.getId() : 0L, // 0 until a write-behind line is flushed
+                cartItem.getVariantId(),
+                cartItem.getQty(),
+                cartItem.getPriceSnapshot(),
+                cartItem.getLineTotal(),
+                variant
+        );
+    }
+
     public long getId() { return id; }
     public long getVariantId() { return variantId; }
     public int getQty() { return qty; }
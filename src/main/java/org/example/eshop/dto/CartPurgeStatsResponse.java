@@ -0,0 +1,42 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+public final class CartPurgeStatsResponse {
+    private final long runs;
+    private final long emptyCartsDeleted;
+    private final long abandonedCartsDeleted;
+    private final long chunks;
+    private final long totalMillis; // time spent deleting, pauses excluded
+    private final long lastRunMillis;
+    private final LocalDateTime lastRunAt; // nullable
+
+    @JsonCreator
+    public CartPurgeStatsResponse(
+            @JsonProperty("runs") long runs,
+            @JsonProperty("emptyCartsDeleted") long emptyCartsDeleted,
+            @JsonProperty("abandonedCartsDeleted") long abandonedCartsDeleted,
+            @JsonProperty("chunks") long chunks,
+            @JsonProperty("totalMillis") long totalMillis,
+            @JsonProperty("lastRunMillis") long lastRunMillis,
+            @JsonProperty("lastRunAt") LocalDateTime lastRunAt) {
+        this.runs = runs;
+        this.emptyCartsDeleted = emptyCartsDeleted;
+        this.abandonedCartsDeleted = abandonedCartsDeleted;
+        this.chunks = chunks;
+        this.totalMillis = totalMillis;
+        this.lastRunMillis = lastRunMillis;
+        this.lastRunAt = lastRunAt;
+    }
+
+    public long getRuns() { return runs; }
+    public long getEmptyCartsDeleted() { return emptyCartsDeleted; }
+    public long getAbandonedCartsDeleted() { return abandonedCartsDeleted; }
+    public long getChunks() { return chunks; }
+    public long getTotalMillis() { return totalMillis; }
+    public long getLastRunMillis() { return lastRunMillis; }
+    public LocalDateTime getLastRunAt() { return lastRunAt; }
+}
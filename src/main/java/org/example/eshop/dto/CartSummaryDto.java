@@ -0,0 +1,42 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.example.eshop.entity.Cart;
+
+import java.math.BigDecimal;
+
+/**
+ * What the header badge shows: read from the cart row alone, without its lines.
+ */
+public final class CartSummaryDto {
+    private final long id;
+    private final int itemCount;
+    private final BigDecimal subtotal;
+    private final BigDecimal total;
+    private final int shippingWeightGrams;
+
+    @JsonCreator
+    public CartSummaryDto(
+            @JsonProperty("id") long id,
+            @JsonProperty("itemCount") int itemCount,
+            @JsonProperty("subtotal") BigDecimal subtotal,
+            @JsonProperty("total") BigDecimal total,
+            @JsonProperty("shippingWeightGrams") int shippingWeightGrams) {
+        this.id = id;
+        this.itemCount = itemCount;
+        this.subtotal = subtotal;
+        this.total = total;
+        this.shippingWeightGrams = shippingWeightGrams;
+    }
+
+    public static CartSummaryDto fromEntity(Cart cart) {
+        return new CartSummaryDto(cart.getId(), cart.getItemCount(), cart.getSubtotal(), cart.getTotal(), cart.getShippingWeightGrams());
+    }
+
+    public long getId() { return id; }
+    public int getItemCount() { return itemCount; }
+    public BigDecimal getSubtotal() { return subtotal; }
+    public BigDecimal getTotal() { return total; }
+    public int getShippingWeightGrams() { return shippingWeightGrams; }
+}
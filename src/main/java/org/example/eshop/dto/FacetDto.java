@@ -0,0 +1,26 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public final class FacetDto {
+    private final String name; // request parameter that selects a value
+    private final String label;
+    private final List<FacetValueDto> values;
+
+    @JsonCreator
+    public FacetDto(
+            @JsonProperty("name") String name,
+            @JsonProperty("label") String label,
+            @JsonProperty("values") List<FacetValueDto> values) {
+        this.name = name;
+        this.label = label;
+        this.values = values;
+    }
+
+    public String getName() { return name; }
+    public String getLabel() { return label; }
+    public List<FacetValueDto> getValues() { return values; }
+}
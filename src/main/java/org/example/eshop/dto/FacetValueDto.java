@@ -0,0 +1,28 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public final class FacetValueDto {
+    private final String value;
+    private final String label;
+    private final int count;
+    private final boolean selected;
+
+    @JsonCreator
+    public FacetValueDto(
+            @JsonProperty("value") String value,
+            @JsonProperty("label") String label,
+            @JsonProperty("count") int count,
+            @JsonProperty("selected") boolean selected) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+        this.selected = selected;
+    }
+
+    public String getValue() { return value; }
+    public String getLabel() { return label; }
+    public int getCount() { return count; }
+    public boolean isSelected() { return selected; }
+}
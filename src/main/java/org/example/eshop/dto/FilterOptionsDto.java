@@ -0,0 +1,33 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Distinct filter values present in the active catalog, in display order.
+ */
+public final class FilterOptionsDto {
+    private final List<String> types;
+    private final List<Integer> harvestYears; // newest first
+    private final List<String> seasons;
+    private final List<String> storageTypes;
+
+    @JsonCreator
+    public FilterOptionsDto(
+            @JsonProperty("types") List<String> types,
+            @JsonProperty("harvestYears") List<Integer> harvestYears,
+            @JsonProperty("seasons") List<String> seasons,
+            @JsonProperty("storageTypes") List<String> storageTypes) {
+        this.types = types;
+        this.harvestYears = harvestYears;
+        this.seasons = seasons;
+        this.storageTypes = storageTypes;
+    }
+
+    public List<String> getTypes() { return types; }
+    public List<Integer> getHarvestYears() { return harvestYears; }
+    public List<String> getSeasons() { return seasons; }
+    public List<String> getStorageTypes() { return storageTypes; }
+}
@@ -0,0 +1,51 @@
+package org.example.eshop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Per-product listing aggregates as produced by a single GROUP BY over products and variants
+ * (see {@code ProductRepository#findListingRows}). The harvest year is the first lot's, which is not an
+ * aggregate, so it is taken from the variant rows instead.
+ */
+public final class ProductListingRow {
+    private final long id;
+    private final String slug;
+    private final String title;
+    private final String type;
+    private final String description; // nullable
+    private final LocalDateTime createdAt;
+    private final BigDecimal minPrice; // null without variants
+    private final BigDecimal maxPrice; // null without variants
+    private final int variantCount;
+    private final int inStockVariants;
+    private final int lowStockVariants;
+
+    public ProductListingRow(Long id, String slug, String title, String type, String description, LocalDateTime createdAt,
+                             BigDecimal minPrice, BigDecimal maxPrice, Long variantCount,
+                             Long inStockVariants, Long lowStockVariants) {
+        this.id = id;
+        this.slug = slug;
+        this.title = title;
+        this.type = type;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.variantCount = variantCount != null ? variantCount.intValue() : 0;
+        this.inStockVariants = inStockVariants != null ? inStockVariants.intValue() : 0;
+        this.lowStockVariants = lowStockVariants != null ? lowStockVariants.intValue() : 0;
+    }
+
+    public long getId() { return id; }
+    public String getSlug() { return slug; }
+    public String getTitle() { return title; }
+    public String getType() { return type; }
+    public String getDescription() { return description; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public BigDecimal getMinPrice() { return minPrice; }
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public int getVariantCount() { return variantCount; }
+    public int getInStockVariants() { return inStockVariants; }
+    public int getLowStockVariants() { return lowStockVariants; }
+}
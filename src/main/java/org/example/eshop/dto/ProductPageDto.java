@@ -0,0 +1,26 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public final class ProductPageDto {
+    private final List<ProductDto> items;
+    private final String sort;
+    private final String nextPageToken; // nullable, absent on the last page
+
+    @JsonCreator
+    public ProductPageDto(
+            @JsonProperty("items") List<ProductDto> items,
+            @JsonProperty("sort") String sort,
+            @JsonProperty("nextPageToken") String nextPageToken) {
+        this.items = items;
+        this.sort = sort;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<ProductDto> getItems() { return items; }
+    public String getSort() { return sort; }
+    public String getNextPageToken() { return nextPageToken; }
+}
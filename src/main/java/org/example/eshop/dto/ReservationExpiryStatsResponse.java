@@ -0,0 +1,46 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+public final class ReservationExpiryStatsResponse {
+    private final long runs;
+    private final long ordersExpired;
+    private final long unitsReleased;
+    private final long batches;
+    private final long totalMillis;
+    private final long lastRunMillis;
+    private final double ordersPerSecond; // over totalMillis
+    private final LocalDateTime lastRunAt; // nullable
+
+    @JsonCreator
+    public ReservationExpiryStatsResponse(
+            @JsonProperty("runs") long runs,
+            @JsonProperty("ordersExpired") long ordersExpired,
+            @JsonProperty("unitsReleased") long unitsReleased,
+            @JsonProperty("batches") long batches,
+            @JsonProperty("totalMillis") long totalMillis,
+            @JsonProperty("lastRunMillis") long lastRunMillis,
+            @JsonProperty("ordersPerSecond") double ordersPerSecond,
+            @JsonProperty("lastRunAt") LocalDateTime lastRunAt) {
+        this.runs = runs;
+        this.ordersExpired = ordersExpired;
+        this.unitsReleased = unitsReleased;
+        this.batches = batches;
+        this.totalMillis = totalMillis;
+        this.lastRunMillis = lastRunMillis;
+        this.ordersPerSecond = ordersPerSecond;
+        this.lastRunAt = lastRunAt;
+    }
+
+    public long getRuns() { return runs; }
+    public long getOrdersExpired() { return ordersExpired; }
+    public long getUnitsReleased() { return unitsReleased; }
+    public long getBatches() { return batches; }
+    public long getTotalMillis() { return totalMillis; }
+    public long getLastRunMillis() { return lastRunMillis; }
+    public double getOrdersPerSecond() { return ordersPerSecond; }
+    public LocalDateTime getLastRunAt() { return lastRunAt; }
+}
@@ -0,0 +1,35 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.example.eshop.service.ShippingCalculationResult;
+
+import java.math.BigDecimal;
+
+public final class ShippingQuoteDto {
+    private final String zone;
+    private final String zoneName;
+    private final BigDecimal cost; // null when the zone does not ship this weight
+    private final String error; // nullable
+
+    @JsonCreator
+    public ShippingQuoteDto(
+            @JsonProperty("zone") String zone,
+            @JsonProperty("zoneName") String zoneName,
+            @JsonProperty("cost") BigDecimal cost,
+            @JsonProperty("error") String error) {
+        this.zone = zone;
+        this.zoneName = zoneName;
+        this.cost = cost;
+        this.error = error;
+    }
+
+    public static ShippingQuoteDto fromResult(ShippingCalculationResult result) {
+        return new ShippingQuoteDto(result.getZone(), result.getZoneName(), result.getCost(), result.getError());
+    }
+
+    public String getZone() { return zone; }
+    public String getZoneName() { return zoneName; }
+    public BigDecimal getCost() { return cost; }
+    public String getError() { return error; }
+}
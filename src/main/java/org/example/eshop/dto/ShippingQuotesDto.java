@@ -0,0 +1,29 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Shipping cost of a cart to every configured zone, priced from the cart's stored shipping weight.
+ */
+public final class ShippingQuotesDto {
+    private final long cartId;
+    private final int shippingWeightGrams;
+    private final List<ShippingQuoteDto> quotes;
+
+    @JsonCreator
+    public ShippingQuotesDto(
+            @JsonProperty("cartId") long cartId,
+            @JsonProperty("shippingWeightGrams") int shippingWeightGrams,
+            @JsonProperty("quotes") List<ShippingQuoteDto> quotes) {
+        this.cartId = cartId;
+        this.shippingWeightGrams = shippingWeightGrams;
+        this.quotes = quotes != null ? List.copyOf(quotes) : List.of();
+    }
+
+    public long getCartId() { return cartId; }
+    public int getShippingWeightGrams() { return shippingWeightGrams; }
+    public List<ShippingQuoteDto> getQuotes() { return quotes; }
+}
@@ -0,0 +1,24 @@
+package org.example.eshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public final class SuggestionDto {
+    private final String text;
+    private final String kind; // title | sku | type
+    private final String slug; // product to open; null for types
+
+    @JsonCreator
+    public SuggestionDto(
+            @JsonProperty("text") String text,
+            @JsonProperty("kind") String kind,
+            @JsonProperty("slug") String slug) {
+        this.text = text;
+        this.kind = kind;
+        this.slug = slug;
+    }
+
+    public String getText() { return text; }
+    public String getKind() { return kind; }
+    public String getSlug() { return slug; }
+}
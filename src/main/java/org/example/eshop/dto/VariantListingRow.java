@@ -0,0 +1,55 @@
+package org.example.eshop.dto;
+
+import org.example.eshop.entity.Season;
+import org.example.eshop.entity.StorageType;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat variant + lot columns needed by the catalog's variant-level filters, read without
+ * hydrating entities (see {@code VariantRepository#findListingRows}).
+ */
+public final class VariantListingRow {
+    private final long id;
+    private final long productId;
+    private final String sku;
+    private final String title;
+    private final BigDecimal price;
+    private final BigDecimal weight;
+    private final BigDecimal shippingWeight;
+    private final int availableQty;
+    private final Long lotId; // nullable
+    private final Integer harvestYear; // nullable
+    private final Season season; // nullable
+    private final StorageType storageType; // nullable
+
+    public VariantListingRow(Long id, Long productId, String sku, String title, BigDecimal price, BigDecimal weight,
+                             BigDecimal shippingWeight, Integer stockQty, Integer reservedQty, Long lotId,
+                             Integer harvestYear, Season season, StorageType storageType) {
+        this.id = id;
+        this.productId = productId;
+        this.sku = sku;
+        this.title = title;
+        this.price = price;
+        this.weight = weight;
+        this.shippingWeight = shippingWeight;
+        this.availableQty = (stockQty != null ? stockQty : 0) - (reservedQty != null ? reservedQty : 0);
+        this.lotId = lotId;
+        this.harvestYear = harvestYear;
+        this.season = season;
+        this.storageType = storageType;
+    }
+
+    public long getId() { return id; }
+    public long getProductId() { return productId; }
+    public String getSku() { return sku; }
+    public String getTitle() { return title; }
+    public BigDecimal getPrice() { return price; }
+    public BigDecimal getWeight() { return weight; }
+    public BigDecimal getShippingWeight() { return shippingWeight; }
+    public int getAvailableQty() { return availableQty; }
+    public Long getLotId() { return lotId; }
+    public Integer getHarvestYear() { return harvestYear; }
+    public Season getSeason() { return season; }
+    public StorageType getStorageType() { return storageType; }
+}
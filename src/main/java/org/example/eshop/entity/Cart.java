@@ -12,7 +12,8 @@ import java.util.Objects;
 public class Cart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carts_id_seq")
+    @SequenceGenerator(name = "carts_id_seq", sequenceName = "carts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, precision = 10, scale = 2)
@@ -27,6 +28,15 @@ public class Cart {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal total = BigDecimal.ZERO;
 
+    @Column(name = "shipping_weight_grams", nullable = false)
+    private Integer shippingWeightGrams = 0;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount = 0;
+
+    @Version
+    private Long version = 0L;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -55,6 +65,18 @@ public class Cart {
         items.clear();
     }
 
+    /**
+     * Zeroes the running totals; for when every line is removed at once.
+     */
+    public void resetTotals() {
+        this.subtotal = BigDecimal.ZERO;
+        this.shippingWeightGrams = 0;
+        this.itemCount = 0;
+        this.vatAmount = BigDecimal.ZERO;
+        this.shippingCost = BigDecimal.ZERO;
+        this.total = BigDecimal.ZERO;
+    }
+
     public void calculateTotals() {
         BigDecimal sum = BigDecimal.ZERO;
         for (CartItem item : items) {
@@ -66,6 +88,7 @@ public class Cart {
 
     // Getters/setters
     public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
 
     public BigDecimal getSubtotal() { return subtotal; }
     public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
@@ -79,7 +102,17 @@ public class Cart {
     public BigDecimal getTotal() { return total; }
     public void setTotal(BigDecimal total) { this.total = total; }
 
+    public Integer getShippingWeightGrams() { return shippingWeightGrams; }
+    public void setShippingWeightGrams(Integer shippingWeightGrams) { this.shippingWeightGrams = shippingWeightGrams; }
+
+    public Integer getItemCount() { return itemCount; }
+    public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
@@ -1,6 +1,8 @@
 package org.example.eshop.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -10,7 +12,8 @@ import java.util.Objects;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_id_seq")
+    @SequenceGenerator(name = "cart_items_id_seq", sequenceName = "cart_items_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "cart_id", nullable = false)
@@ -25,6 +28,9 @@ public class CartItem {
     @Column(name = "price_snapshot", nullable = false, precision = 10, scale = 2)
     private BigDecimal priceSnapshot;
 
+    @Column(name = "weight_grams_snapshot", nullable = false)
+    private Integer weightGramsSnapshot = 0; // unit shipping weight when added
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -33,6 +39,7 @@ public class CartItem {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cart_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE) // as fk_cart_items_cart; set-based cart deletes rely on it
     private Cart cart;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,10 +49,15 @@ public class CartItem {
     protected CartItem() { }
 
     public CartItem(Long cartId, Long variantId, Integer qty, BigDecimal priceSnapshot) {
+        this(cartId, variantId, qty, priceSnapshot, 0);
+    }
+
+    public CartItem(Long cartId, Long variantId, Integer qty, BigDecimal priceSnapshot, Integer weightGramsSnapshot) {
         this.cartId = cartId;
         this.variantId = variantId;
         this.qty = qty;
         this.priceSnapshot = priceSnapshot;
+        this.weightGramsSnapshot = weightGramsSnapshot;
     }
 
     @PreUpdate
@@ -59,6 +71,7 @@ public class CartItem {
 
     // Getters/setters
     public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
 
     public Long getCartId() { return cartId; }
     public void setCartId(Long cartId) { this.cartId = cartId; }
@@ -72,6 +85,9 @@ public class CartItem {
     public BigDecimal getPriceSnapshot() { return priceSnapshot; }
     public void setPriceSnapshot(BigDecimal priceSnapshot) { this.priceSnapshot = priceSnapshot; }
 
+    public Integer getWeightGramsSnapshot() { return weightGramsSnapshot; }
+    public void setWeightGramsSnapshot(Integer weightGramsSnapshot) { this.weightGramsSnapshot = weightGramsSnapshot; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
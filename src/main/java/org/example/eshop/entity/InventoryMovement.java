@@ -0,0 +1,66 @@
+package org.example.eshop.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One change to a variant's stock or reservation, journaled by the in-memory inventory ledger in the
+ * transaction that made it; {@code applied} turns true once its delta has been written to the variant.
+ */
+@Entity
+@Table(name = "inventory_movements")
+public class InventoryMovement {
+
+    public static final String RESERVE = "RESERVE";
+    public static final String COMMIT = "COMMIT";
+    public static final String RELEASE = "RELEASE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Column(name = "stock_delta", nullable = false)
+    private Integer stockDelta;
+
+    @Column(name = "reserved_delta", nullable = false)
+    private Integer reservedDelta;
+
+    @Column(nullable = false, length = 16)
+    private String reason;
+
+    @Column(nullable = false)
+    private Boolean applied = false;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    protected InventoryMovement() { }
+
+    public InventoryMovement(Long variantId, int stockDelta, int reservedDelta, String reason) {
+        this.variantId = variantId;
+        this.stockDelta = stockDelta;
+        this.reservedDelta = reservedDelta;
+        this.reason = reason;
+    }
+
+    public Long getId() { return id; }
+    public Long getVariantId() { return variantId; }
+    public Integer getStockDelta() { return stockDelta; }
+    public Integer getReservedDelta() { return reservedDelta; }
+    public String getReason() { return reason; }
+    public Boolean getApplied() { return applied; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    @Override
+    public String toString() {
+        return "InventoryMovement{" +
+                "variantId=" + variantId +
+                ", stockDelta=" + stockDelta +
+                ", reservedDelta=" + reservedDelta +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
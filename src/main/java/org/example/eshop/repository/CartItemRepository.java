@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,12 +17,16 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     List<CartItem> findByVariantId(Long variantId);
 
+    List<CartItem> findByCartIdIn(Collection<Long> cartIds);
+
     /**
      * May return null when no item exists for the given cartId and variantId.
      */
     @Nullable
     CartItem findByCartIdAndVariantId(Long cartId, Long variantId);
 
+    List<CartItem> findByCartIdAndVariantIdIn(Long cartId, Collection<Long> variantIds);
+
     @Query("SELECT ci FROM CartItem ci WHERE ci.cartId = :cartId")
     List<CartItem> findAllByCartId(@Param("cartId") Long cartId);
 
@@ -1,7 +1,11 @@
 package org.example.eshop.repository;
 
+import jakarta.persistence.LockModeType;
+import org.example.eshop.dto.CartSummaryDto;
 import org.example.eshop.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
@@ -9,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
@@ -17,9 +22,48 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Nullable
     Cart findByIdWithItems(@Param("id") Long id);
 
+    /**
+     * The cart row, locked until the transaction ends, so concurrent line changes apply their deltas one
+     * after another instead of overwriting each other's running totals.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.id = :id")
+    Optional<Cart> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * The cart row's counters only; cart_items is not read.
+     */
+    @Query("SELECT new org.example.eshop.dto.CartSummaryDto(c.id, c.itemCount, c.subtotal, c.total, c.shippingWeightGrams) FROM Cart c WHERE c.id = :id")
+    @Nullable
+    CartSummaryDto findSummaryById(@Param("id") Long id);
+
     @Query("SELECT c FROM Cart c WHERE c.createdAt < :cutoffDate AND SIZE(c.items) = 0")
     List<Cart> findEmptyCartsOlderThan(@Param("cutoffDate") LocalDateTime cutoffDate);
 
     @Query("SELECT c FROM Cart c WHERE c.updatedAt < :cutoffDate")
     List<Cart> findCartsNotUpdatedSince(@Param("cutoffDate") LocalDateTime cutoffDate);
+
+    /**
+     * Deletes up to {@code limit} carts created before the cutoff that have no lines, in one statement.
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM carts WHERE id IN (
+            SELECT c.id FROM carts c
+            WHERE c.created_at < :cutoffDate
+              AND NOT EXISTS (SELECT 1 FROM cart_items ci WHERE ci.cart_id = c.id)
+            LIMIT :limit)
+        """, nativeQuery = true)
+    int deleteEmptyCartsOlderThan(@Param("cutoffDate") LocalDateTime cutoffDate, @Param("limit") int limit);
+
+    /**
+     * Deletes up to {@code limit} carts not updated since the cutoff, in one statement; their lines go
+     * with them through the cart_items foreign key's ON DELETE CASCADE.
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM carts WHERE id IN (
+            SELECT c.id FROM carts c WHERE c.updated_at < :cutoffDate LIMIT :limit)
+        """, nativeQuery = true)
+    int deleteCartsNotUpdatedSince(@Param("cutoffDate") LocalDateTime cutoffDate, @Param("limit") int limit);
 }
@@ -0,0 +1,15 @@
+package org.example.eshop.repository;
+
+import org.example.eshop.entity.InventoryMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    List<InventoryMovement> findByVariantIdOrderByIdAsc(Long variantId);
+
+    long countByAppliedFalse();
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,4 +31,34 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     @Query("SELECT oi FROM OrderItem oi JOIN oi.order o WHERE o.paymentStatus = 'PAID' AND oi.variantId = :variantId")
     List<OrderItem> findPaidOrderItemsByVariantId(@Param("variantId") Long variantId);
+
+    /**
+     * Units ordered per variant, cancelled orders excluded.
+     */
+    interface VariantSales {
+        Long getVariantId();
+        Long getUnits();
+    }
+
+    @Query("""
+        SELECT oi.variantId AS variantId, SUM(oi.qty) AS units FROM OrderItem oi JOIN oi.order o
+        WHERE o.status <> org.example.eshop.entity.OrderStatus.CANCELLED
+        GROUP BY oi.variantId
+        """)
+    List<VariantSales> sumUnitsByVariant();
+
+    @Query("""
+        SELECT oi.variantId AS variantId, SUM(oi.qty) AS units FROM OrderItem oi JOIN oi.order o
+        JOIN Variant v ON v.id = oi.variantId
+        WHERE o.status <> org.example.eshop.entity.OrderStatus.CANCELLED AND v.productId IN :productIds
+        GROUP BY oi.variantId
+        """)
+    List<VariantSales> sumUnitsByVariantForProducts(@Param("productIds") Collection<Long> productIds);
+
+    @Query("""
+        SELECT oi.variantId AS variantId, SUM(oi.qty) AS units FROM OrderItem oi
+        WHERE oi.orderId IN :orderIds
+        GROUP BY oi.variantId
+        """)
+    List<VariantSales> sumUnitsByVariantForOrders(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -7,12 +7,14 @@ import org.example.eshop.entity.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -24,6 +26,13 @@ public interface OrderRepository extends JpaRepository<Order, Long>, org.example
     @Nullable
     Order findByNumber(String number);
 
+    /**
+     * The highest order number matching the LIKE pattern, or null when none does.
+     */
+    @Query("SELECT MAX(o.number) FROM Order o WHERE o.number LIKE :pattern")
+    @Nullable
+    String findHighestNumberLike(@Param("pattern") String pattern);
+
     List<Order> findByEmail(String email);
 
     List<Order> findByStatus(OrderStatus status);
@@ -50,6 +59,29 @@ public interface OrderRepository extends JpaRepository<Order, Long>, org.example
             @Param("cutoffDate") LocalDateTime cutoffDate
     );
 
+    /**
+     * Ids of unpaid orders still pending that were placed before the cutoff, oldest first.
+     */
+    @Query("""
+        SELECT o.id FROM Order o
+        WHERE o.paymentStatus = org.example.eshop.entity.PaymentStatus.PENDING
+        AND o.status = org.example.eshop.entity.OrderStatus.PENDING AND o.createdAt < :cutoffDate
+        ORDER BY o.id
+        """)
+    List<Long> findUnpaidPendingOrderIdsCreatedBefore(@Param("cutoffDate") LocalDateTime cutoffDate, Pageable pageable);
+
+    /**
+     * Cancels the given orders that are still unpaid and pending, bumping their version so an admin holding
+     * a stale copy fails instead of overwriting the cancellation. Returns the number cancelled.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Order o SET o.status = org.example.eshop.entity.OrderStatus.CANCELLED, o.updatedAt = :now, o.version = o.version + 1
+        WHERE o.id IN :ids AND o.paymentStatus = org.example.eshop.entity.PaymentStatus.PENDING
+        AND o.status = org.example.eshop.entity.OrderStatus.PENDING
+        """)
+    int cancelUnpaidPendingOrders(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
     @Query("SELECT o FROM Order o WHERE o.paymentStatus = 'PAID' AND o.fulfillmentStatus = 'UNFULFILLED'")
     List<Order> findPaidUnfulfilledOrders();
 
@@ -1,5 +1,6 @@
 package org.example.eshop.repository;
 
+import org.example.eshop.dto.ProductListingRow;
 import org.example.eshop.entity.Product;
 import org.example.eshop.entity.ProductStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,6 +30,56 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.status = :status AND (:type IS NULL OR p.type = :type)")
     List<Product> findByStatusAndOptionalType(@Param("status") ProductStatus status, @Param("type") String type);
 
-    @Query("SELECT p FROM Product p WHERE p.title LIKE %:keyword% OR p.description LIKE %:keyword%")
-    List<Product> findByKeyword(@Param("keyword") String keyword);
+    String LISTING_ROW_SELECT = """
+        SELECT new org.example.eshop.dto.ProductListingRow(
+            p.id, p.slug, p.title, p.type, p.description, p.createdAt,
+            MIN(v.price), MAX(v.price), COUNT(v.id),
+            SUM(CASE WHEN v.stockQty > v.reservedQty THEN 1 ELSE 0 END),
+            SUM(CASE WHEN v.stockQty - v.reservedQty BETWEEN 1 AND 5 THEN 1 ELSE 0 END))
+        FROM Product p
+        LEFT JOIN Variant v ON v.productId = p.id
+        """;
+
+    String LISTING_ROW_GROUP_BY = """
+        GROUP BY p.id, p.slug, p.title, p.type, p.description, p.createdAt
+        ORDER BY p.id
+        """;
+
+    /**
+     * Listing aggregates (price range, stock counts, harvest year, variant count) for every product
+     * with the given status, computed by the database in one grouped query.
+     */
+    @Query(LISTING_ROW_SELECT + " WHERE p.status = :status " + LISTING_ROW_GROUP_BY)
+    List<ProductListingRow> findListingRows(@Param("status") ProductStatus status);
+
+    @Query(LISTING_ROW_SELECT + " WHERE p.status = :status AND p.id IN :ids " + LISTING_ROW_GROUP_BY)
+    List<ProductListingRow> findListingRowsByIdIn(@Param("status") ProductStatus status, @Param("ids") Collection<Long> ids);
+
+    /**
+     * A value that changes whenever a product, lot or variant row is added, removed or updated (variant
+     * updates, stock included, always bump the version); compared, never parsed.
+     */
+    @Query(value = """
+        SELECT CONCAT(
+            (SELECT COUNT(*) FROM products), ':', (SELECT MAX(updated_at) FROM products), ':',
+            (SELECT COUNT(*) FROM lots), ':', (SELECT MAX(updated_at) FROM lots), ':',
+            (SELECT COUNT(*) FROM variants), ':', (SELECT SUM(version) FROM variants))
+        """, nativeQuery = true)
+    String findCatalogFingerprint();
+
+    /**
+     * Full-text search over the generated search_vector (see V2 migration) combined with trigram
+     * similarity on the title, best matches first. PostgreSQL only.
+     *
+     * @param tsquery a to_tsquery expression, e.g. {@code (puer:* | puerh:*) & tea:*}
+     * @param text    the raw query text used for trigram similarity
+     */
+    @Query(value = """
+        SELECT p.id FROM products p
+        WHERE p.status = 'ACTIVE'
+        AND (p.search_vector @@ to_tsquery('english', :tsquery) OR p.title % :text)
+        ORDER BY ts_rank(p.search_vector, to_tsquery('english', :tsquery)) + similarity(p.title, :text) DESC, p.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> searchRankedIds(@Param("tsquery") String tsquery, @Param("text") String text, @Param("limit") int limit);
 }
@@ -1,16 +1,21 @@
 package org.example.eshop.repository;
 
+import org.example.eshop.dto.VariantListingRow;
+import org.example.eshop.dto.VariantSummaryDto;
+import org.example.eshop.entity.ProductStatus;
 import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.custom.VariantRepositoryCustom;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface VariantRepository extends JpaRepository<Variant, Long> {
+public interface VariantRepository extends JpaRepository<Variant, Long>, VariantRepositoryCustom {
 
     /**
      * May return null if no variant exists for the given SKU.
@@ -25,6 +30,9 @@ public interface VariantRepository extends JpaRepository<Variant, Long> {
     @Query("SELECT v FROM Variant v WHERE v.productId = :productId AND v.stockQty > v.reservedQty")
     List<Variant> findInStockByProductId(@Param("productId") Long productId);
 
+    @Query("SELECT DISTINCT v.productId FROM Variant v WHERE v.id IN :ids")
+    List<Long> findProductIdsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT v FROM Variant v WHERE v.stockQty > v.reservedQty")
     List<Variant> findAllInStock();
 
@@ -33,4 +41,35 @@ public interface VariantRepository extends JpaRepository<Variant, Long> {
 
     @Query("SELECT v FROM Variant v WHERE v.stockQty = v.reservedQty")
     List<Variant> findOutOfStock();
+
+    String LISTING_ROW_SELECT = """
+        SELECT new org.example.eshop.dto.VariantListingRow(
+            v.id, v.productId, v.sku, v.title, v.price, v.weight, v.shippingWeight, v.stockQty, v.reservedQty,
+            v.lotId, l.harvestYear, l.season, l.storageType)
+        FROM Variant v
+        JOIN Product p ON p.id = v.productId
+        LEFT JOIN Lot l ON l.id = v.lotId
+        """;
+
+    /**
+     * Variant and lot columns of every product with the given status, without hydrating entities.
+     */
+    @Query(LISTING_ROW_SELECT + " WHERE p.status = :status ORDER BY v.productId, v.id")
+    List<VariantListingRow> findListingRows(@Param("status") ProductStatus status);
+
+    @Query(LISTING_ROW_SELECT + " WHERE p.status = :status AND p.id IN :productIds ORDER BY v.productId, v.id")
+    List<VariantListingRow> findListingRowsByProductIdIn(@Param("status") ProductStatus status,
+                                                         @Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Cart-line summaries for the given variants with their product titles, in one query.
+     */
+    @Query("""
+        SELECT new org.example.eshop.dto.VariantSummaryDto(
+            v.id, v.sku, v.title, v.price, v.stockQty, v.reservedQty, COALESCE(p.title, 'Unknown Product'))
+        FROM Variant v
+        LEFT JOIN Product p ON p.id = v.productId
+        WHERE v.id IN :ids
+        """)
+    List<VariantSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
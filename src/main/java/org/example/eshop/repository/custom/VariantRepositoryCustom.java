@@ -0,0 +1,42 @@
+package org.example.eshop.repository.custom;
+
+import org.example.eshop.entity.InventoryMovement;
+
+import java.util.List;
+import java.util.Map;
+
+public interface VariantRepositoryCustom {
+    /**
+     * Reserves stock for several variants in one JDBC batch of conditional updates: a variant's
+     * reserved_qty only grows when enough stock is still free at that moment, so concurrent checkouts
+     * queue on the row lock instead of overselling or failing on the entity version.
+     * Returns the ids of the variants that could not be reserved (empty when all were); the caller
+     * must roll back its transaction in that case, as the other lines stay reserved.
+     */
+    List<Long> reserveStock(Map<Long, Integer> quantitiesByVariantId);
+
+    /**
+     * Turns reservations into sales in one batch: stock_qty and reserved_qty both drop by the quantity,
+     * but only where that much is reserved. Returns the ids that were not changed; as with
+     * {@link #reserveStock}, the caller must roll back when any are.
+     */
+    List<Long> commitReserved(Map<Long, Integer> quantitiesByVariantId);
+
+    /**
+     * Gives reservations back in one batch; reserved_qty never drops below zero. Returns the ids of
+     * variants that do not exist.
+     */
+    List<Long> releaseReserved(Map<Long, Integer> quantitiesByVariantId);
+
+    /**
+     * Appends movements to the inventory journal in one JDBC batch, not yet applied to the variants.
+     * Runs in the caller's transaction, so a movement is durable exactly when the change that made it is.
+     */
+    void journalMovements(List<InventoryMovement> movements);
+
+    /**
+     * Applies up to {@code limit} journaled movements, oldest first, to the variants: their summed deltas
+     * in one batch, then marks them applied in another. Returns the movements applied.
+     */
+    List<InventoryMovement> applyPendingMovements(int limit);
+}
@@ -0,0 +1,115 @@
+package org.example.eshop.repository.custom;
+
+import org.example.eshop.entity.InventoryMovement;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+@Repository
+public class VariantRepositoryImpl implements VariantRepositoryCustom {
+
+    private static final String RESERVE_SQL =
+            "UPDATE variants SET reserved_qty = reserved_qty + ?, version = version + 1 " +
+            "WHERE id = ? AND stock_qty - reserved_qty >= ?";
+    private static final String COMMIT_SQL =
+            "UPDATE variants SET stock_qty = stock_qty - ?, reserved_qty = reserved_qty - ?, version = version + 1 " +
+            "WHERE id = ? AND reserved_qty >= ?";
+    private static final String RELEASE_SQL =
+            "UPDATE variants SET reserved_qty = GREATEST(reserved_qty - ?, 0), version = version + 1 WHERE id = ?";
+    private static final String APPLY_SQL =
+            "UPDATE variants SET stock_qty = stock_qty + ?, reserved_qty = reserved_qty + ?, version = version + 1 WHERE id = ?";
+    private static final String JOURNAL_SQL =
+            "INSERT INTO inventory_movements (variant_id, stock_delta, reserved_delta, reason, applied, created_at) VALUES (?, ?, ?, ?, FALSE, ?)";
+    private static final String PENDING_SQL =
+            "SELECT id, variant_id, stock_delta, reserved_delta, reason FROM inventory_movements WHERE applied = FALSE ORDER BY id LIMIT ?";
+    private static final String MARK_APPLIED_SQL =
+            "UPDATE inventory_movements SET applied = TRUE WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VariantRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> reserveStock(Map<Long, Integer> quantitiesByVariantId) {
+        return updateEach(RESERVE_SQL, quantitiesByVariantId, variantId -> {
+            int quantity = quantitiesByVariantId.get(variantId);
+            return new Object[]{quantity, variantId, quantity};
+        });
+    }
+
+    @Override
+    public List<Long> commitReserved(Map<Long, Integer> quantitiesByVariantId) {
+        return updateEach(COMMIT_SQL, quantitiesByVariantId, variantId -> {
+            int quantity = quantitiesByVariantId.get(variantId);
+            return new Object[]{quantity, quantity, variantId, quantity};
+        });
+    }
+
+    @Override
+    public List<Long> releaseReserved(Map<Long, Integer> quantitiesByVariantId) {
+        return updateEach(RELEASE_SQL, quantitiesByVariantId,
+                variantId -> new Object[]{quantitiesByVariantId.get(variantId), variantId});
+    }
+
+    @Override
+    public void journalMovements(List<InventoryMovement> movements) {
+        List<Object[]> journal = new ArrayList<>(movements.size());
+        for (InventoryMovement movement : movements) {
+            journal.add(new Object[]{movement.getVariantId(), movement.getStockDelta(), movement.getReservedDelta(),
+                    movement.getReason(), Timestamp.valueOf(movement.getCreatedAt())});
+        }
+        jdbcTemplate.batchUpdate(JOURNAL_SQL, journal);
+    }
+
+    @Override
+    public List<InventoryMovement> applyPendingMovements(int limit) {
+        List<Long> ids = new ArrayList<>();
+        List<InventoryMovement> movements = jdbcTemplate.query(PENDING_SQL, (rs, row) -> {
+            ids.add(rs.getLong("id"));
+            return new InventoryMovement(rs.getLong("variant_id"), rs.getInt("stock_delta"), rs.getInt("reserved_delta"), rs.getString("reason"));
+        }, limit);
+        if (movements.isEmpty()) return movements;
+
+        Map<Long, int[]> deltas = new TreeMap<>();
+        for (InventoryMovement movement : movements) {
+            int[] delta = deltas.computeIfAbsent(movement.getVariantId(), id -> new int[2]);
+            delta[0] += movement.getStockDelta();
+            delta[1] += movement.getReservedDelta();
+        }
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((variantId, delta) -> updates.add(new Object[]{delta[0], delta[1], variantId}));
+        jdbcTemplate.batchUpdate(APPLY_SQL, updates);
+
+        List<Object[]> applied = new ArrayList<>(ids.size());
+        ids.forEach(id -> applied.add(new Object[]{id}));
+        jdbcTemplate.batchUpdate(MARK_APPLIED_SQL, applied);
+        return movements;
+    }
+
+    /**
+     * Runs one statement per variant as a single batch and returns the ids whose row was not updated.
+     */
+    private List<Long> updateEach(String sql, Map<Long, Integer> quantitiesByVariantId, Function<Long, Object[]> argsFor) {
+        // Ascending ids, so two transactions sharing variants take the row locks in the same order
+        List<Long> variantIds = new ArrayList<>(new TreeMap<>(quantitiesByVariantId).keySet());
+        List<Object[]> args = new ArrayList<>(variantIds.size());
+        for (Long variantId : variantIds) {
+            args.add(argsFor.apply(variantId));
+        }
+        int[] updated = jdbcTemplate.batchUpdate(sql, args);
+
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) failed.add(variantIds.get(i));
+        }
+        return failed;
+    }
+}
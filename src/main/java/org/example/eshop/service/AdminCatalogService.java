@@ -7,6 +7,7 @@ import org.example.eshop.entity.Variant;
 import org.example.eshop.repository.LotRepository;
 import org.example.eshop.repository.ProductRepository;
 import org.example.eshop.repository.VariantRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,13 +21,19 @@ public class AdminCatalogService {
     private final ProductRepository productRepository;
     private final VariantRepository variantRepository;
     private final LotRepository lotRepository;
+    private final CartService cartService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AdminCatalogService(ProductRepository productRepository,
                                VariantRepository variantRepository,
-                               LotRepository lotRepository) {
+                               LotRepository lotRepository,
+                               CartService cartService,
+                               ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.variantRepository = variantRepository;
         this.lotRepository = lotRepository;
+        this.cartService = cartService;
+        this.eventPublisher = eventPublisher;
     }
 
     public java.util.List<AdminProductResponse> listProducts() {
@@ -51,6 +58,7 @@ public class AdminCatalogService {
         );
 
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(saved.getId()));
         return toAdminProductResponse(saved);
     }
 
@@ -72,6 +80,7 @@ public class AdminCatalogService {
         if (request.getStatus() != null) product.setStatus(request.getStatus());
 
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(saved.getId()));
         return toAdminProductResponse(saved);
     }
 
@@ -90,6 +99,7 @@ public class AdminCatalogService {
         }
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(id));
     }
 
     // Variant operations
@@ -121,6 +131,7 @@ public class AdminCatalogService {
         variant.setLotId(request.getLotId());
 
         Variant saved = variantRepository.save(variant);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(saved.getProductId()));
         return toAdminVariantResponse(saved);
     }
 
@@ -152,6 +163,7 @@ public class AdminCatalogService {
         if (request.getLotId() != null) variant.setLotId(request.getLotId());
 
         Variant saved = variantRepository.save(variant);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(saved.getProductId()));
         return toAdminVariantResponse(saved);
     }
 
@@ -163,7 +175,9 @@ public class AdminCatalogService {
             throw new IllegalStateException("Cannot delete variant with reserved stock (" + variant.getReservedQty() + " reserved)");
         }
 
+        cartService.removeVariantFromCarts(id);
         variantRepository.delete(variant);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(variant.getProductId()));
     }
 
     // Lot operations
@@ -180,6 +194,7 @@ public class AdminCatalogService {
         lot.setPressDate(request.getPressDate());
 
         Lot saved = lotRepository.save(lot);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(saved.getProductId()));
         return toAdminLotResponse(saved);
     }
 
@@ -193,6 +208,7 @@ public class AdminCatalogService {
         if (request.getPressDate() != null) lot.setPressDate(request.getPressDate());
 
         Lot saved = lotRepository.save(lot);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(saved.getProductId()));
         return toAdminLotResponse(saved);
     }
 
@@ -206,6 +222,7 @@ public class AdminCatalogService {
         }
 
         lotRepository.delete(lot);
+        eventPublisher.publishEvent(CatalogChangedEvent.forProduct(lot.getProductId()));
     }
 
     // Helper mappers
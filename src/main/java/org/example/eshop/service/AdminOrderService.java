@@ -8,6 +8,7 @@ import org.example.eshop.repository.ProductRepository;
 import org.example.eshop.repository.VariantRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,8 +16,13 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,16 +34,22 @@ public class AdminOrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final VariantRepository variantRepository;
+    private final InventoryEngine inventoryEngine;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AdminOrderService(OrderRepository orderRepository,
                              OrderItemRepository orderItemRepository,
                              VariantRepository variantRepository,
-                             ProductRepository productRepository) {
+                             InventoryEngine inventoryEngine,
+                             ProductRepository productRepository,
+                             ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.variantRepository = variantRepository;
+        this.inventoryEngine = inventoryEngine;
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public AdminOrderListResponse getAllOrders(int page, int size, String status, String paymentStatus, String fulfillmentStatus) {
@@ -104,24 +116,10 @@ public class AdminOrderService {
         order.setPaymentStatus(PaymentStatus.PAID);
         order.setStatus(OrderStatus.CONFIRMED);
 
-        order.getItems().forEach(orderItem -> {
-            Variant variant = variantRepository.findById(orderItem.getVariantId())
-                    .orElseThrow(() -> new IllegalStateException("Variant " + orderItem.getVariantId() + " not found for order item " + orderItem.getId()));
-
-            if (variant.getReservedQty() < orderItem.getQty()) {
-                throw new IllegalStateException("Insufficient reserved stock for variant " + variant.getSku() + ". " +
-                        "Required: " + orderItem.getQty() + ", Reserved: " + variant.getReservedQty());
-            }
-
-            int oldStock = variant.getStockQty();
-            int oldReserved = variant.getReservedQty();
-            variant.setStockQty(variant.getStockQty() - orderItem.getQty());
-            variant.setReservedQty(variant.getReservedQty() - orderItem.getQty());
-            variantRepository.save(variant);
-
-            logger.info("Stock adjusted for variant {}: stockQty {} -> {}, reservedQty {} -> {}",
-                    variant.getSku(), oldStock, variant.getStockQty(), oldReserved, variant.getReservedQty());
-        });
+        Map<Long, Integer> quantities = quantitiesByVariant(order);
+        inventoryEngine.commit(quantities);
+        logger.info("Stock committed for order {}: {}", order.getNumber(), quantities);
+        eventPublisher.publishEvent(CatalogChangedEvent.stockChanged(productIds(quantities.keySet())));
 
         Order saved = orderRepository.save(order);
 
@@ -168,17 +166,10 @@ public class AdminOrderService {
         }
 
         // Revert stock reservations if the order was previously reserved but not paid
-        order.getItems().forEach(orderItem -> {
-            Variant variant = variantRepository.findById(orderItem.getVariantId())
-                    .orElseThrow(() -> new IllegalStateException("Variant " + orderItem.getVariantId() + " not found for order item " + orderItem.getId()));
-
-            int oldReserved = variant.getReservedQty();
-            variant.setReservedQty(Math.max(0, variant.getReservedQty() - orderItem.getQty()));
-            variantRepository.save(variant);
-
-            logger.info("Reservation reverted for variant {}: reservedQty {} -> {}",
-                    variant.getSku(), oldReserved, variant.getReservedQty());
-        });
+        Map<Long, Integer> quantities = quantitiesByVariant(order);
+        inventoryEngine.release(quantities);
+        logger.info("Reservations released for order {}: {}", order.getNumber(), quantities);
+        eventPublisher.publishEvent(CatalogChangedEvent.stockChanged(productIds(quantities.keySet())));
 
         order.setStatus(OrderStatus.CANCELLED);
         Order saved = orderRepository.save(order);
@@ -186,6 +177,18 @@ public class AdminOrderService {
         return toAdminOrderResponse(saved);
     }
 
+    private static Map<Long, Integer> quantitiesByVariant(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        order.getItems().forEach(orderItem -> quantities.merge(orderItem.getVariantId(), orderItem.getQty(), Integer::sum));
+        return quantities;
+    }
+
+    private Set<Long> productIds(Collection<Long> variantIds) {
+        Set<Long> productIds = new HashSet<>();
+        variantRepository.findAllById(variantIds).forEach(variant -> productIds.add(variant.getProductId()));
+        return productIds;
+    }
+
     private AdminOrderResponse toAdminOrderResponse(Order order) {
         List<AdminOrderItemResponse> itemResponses = order.getItems().stream().map(orderItem -> {
             Variant variant = variantRepository.findById(orderItem.getVariantId()).orElse(null);
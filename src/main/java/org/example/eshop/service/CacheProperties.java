@@ -0,0 +1,30 @@
+package org.example.eshop.service;
+
+public class CacheProperties {
+    private long productDetailMaxBytes = 8L * 1024 * 1024;
+    private long catalogRefreshIntervalMs = 30_000;
+
+    public long getProductDetailMaxBytes() {
+        return productDetailMaxBytes;
+    }
+
+    public void setProductDetailMaxBytes(long productDetailMaxBytes) {
+        this.productDetailMaxBytes = productDetailMaxBytes;
+    }
+
+    public long getCatalogRefreshIntervalMs() {
+        return catalogRefreshIntervalMs;
+    }
+
+    public void setCatalogRefreshIntervalMs(long catalogRefreshIntervalMs) {
+        this.catalogRefreshIntervalMs = catalogRefreshIntervalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheProperties{" +
+                "productDetailMaxBytes=" + productDetailMaxBytes +
+                ", catalogRefreshIntervalMs=" + catalogRefreshIntervalMs +
+                '}';
+    }
+}
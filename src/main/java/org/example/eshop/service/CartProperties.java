@@ -0,0 +1,139 @@
+package org.example.eshop.service;
+
+public class CartProperties {
+    private String storage = "strict"; // strict | write-behind
+    private long flushIntervalMs = 1000;
+    private int flushBatchSize = 100;
+    private long idleEvictionMinutes = 30;
+    private boolean cookieCarts = false;
+    private String cookieSecret = "";
+    private int cookieMaxLines = 10;
+    private boolean purgeEnabled = true;
+    private long emptyCartTtlHours = 24;
+    private long abandonedCartTtlDays = 30;
+    private int purgeChunkSize = 500;
+    private long purgePauseMs = 200;
+    private long purgeIntervalMs = 3600000;
+
+    public String getStorage() {
+        return storage;
+    }
+
+    public void setStorage(String storage) {
+        this.storage = storage;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public int getFlushBatchSize() {
+        return flushBatchSize;
+    }
+
+    public void setFlushBatchSize(int flushBatchSize) {
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public long getIdleEvictionMinutes() {
+        return idleEvictionMinutes;
+    }
+
+    public void setIdleEvictionMinutes(long idleEvictionMinutes) {
+        this.idleEvictionMinutes = idleEvictionMinutes;
+    }
+
+    public boolean isCookieCarts() {
+        return cookieCarts;
+    }
+
+    public void setCookieCarts(boolean cookieCarts) {
+        this.cookieCarts = cookieCarts;
+    }
+
+    public String getCookieSecret() {
+        return cookieSecret;
+    }
+
+    public void setCookieSecret(String cookieSecret) {
+        this.cookieSecret = cookieSecret;
+    }
+
+    public int getCookieMaxLines() {
+        return cookieMaxLines;
+    }
+
+    public void setCookieMaxLines(int cookieMaxLines) {
+        this.cookieMaxLines = cookieMaxLines;
+    }
+
+    public boolean isPurgeEnabled() {
+        return purgeEnabled;
+    }
+
+    public void setPurgeEnabled(boolean purgeEnabled) {
+        this.purgeEnabled = purgeEnabled;
+    }
+
+    public long getEmptyCartTtlHours() {
+        return emptyCartTtlHours;
+    }
+
+    public void setEmptyCartTtlHours(long emptyCartTtlHours) {
+        this.emptyCartTtlHours = emptyCartTtlHours;
+    }
+
+    public long getAbandonedCartTtlDays() {
+        return abandonedCartTtlDays;
+    }
+
+    public void setAbandonedCartTtlDays(long abandonedCartTtlDays) {
+        this.abandonedCartTtlDays = abandonedCartTtlDays;
+    }
+
+    public int getPurgeChunkSize() {
+        return purgeChunkSize;
+    }
+
+    public void setPurgeChunkSize(int purgeChunkSize) {
+        this.purgeChunkSize = purgeChunkSize;
+    }
+
+    public long getPurgePauseMs() {
+        return purgePauseMs;
+    }
+
+    public void setPurgePauseMs(long purgePauseMs) {
+        this.purgePauseMs = purgePauseMs;
+    }
+
+    public long getPurgeIntervalMs() {
+        return purgeIntervalMs;
+    }
+
+    public void setPurgeIntervalMs(long purgeIntervalMs) {
+        this.purgeIntervalMs = purgeIntervalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "CartProperties{" +
+                "storage='" + storage + '\'' +
+                ", flushIntervalMs=" + flushIntervalMs +
+                ", flushBatchSize=" + flushBatchSize +
+                ", idleEvictionMinutes=" + idleEvictionMinutes +
+                ", cookieCarts=" + cookieCarts +
+                ", cookieMaxLines=" + cookieMaxLines +
+                ", purgeEnabled=" + purgeEnabled +
+                ", emptyCartTtlHours=" + emptyCartTtlHours +
+                ", abandonedCartTtlDays=" + abandonedCartTtlDays +
+                ", purgeChunkSize=" + purgeChunkSize +
+                ", purgePauseMs=" + purgePauseMs +
+                ", purgeIntervalMs=" + purgeIntervalMs +
+                '}';
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.CartPurgeStatsResponse;
+import org.example.eshop.repository.CartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Retention for carts: deletes carts that never got a line after {@code shop.cart.empty-cart-ttl-hours}
+ * and any cart untouched for {@code abandoned-cart-ttl-days}. Deletes are set-based, {@code purge-chunk-size}
+ * carts per statement and transaction, with {@code purge-pause-ms} between chunks so a large backlog does
+ * not hold locks or saturate the database while shoppers are active.
+ */
+@Service
+public class CartPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartPurgeService.class);
+
+    private final CartRepository cartRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final CartProperties properties;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong emptyCartsDeleted = new AtomicLong();
+    private final AtomicLong abandonedCartsDeleted = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private volatile long lastRunNanos;
+    private volatile LocalDateTime lastRunAt;
+
+    public CartPurgeService(CartRepository cartRepository,
+                            PlatformTransactionManager transactionManager,
+                            ShopProperties shopProperties) {
+        this.cartRepository = cartRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.properties = shopProperties.getCart();
+    }
+
+    @Scheduled(initialDelayString = "${shop.cart.purge-interval-ms:3600000}", fixedDelayString = "${shop.cart.purge-interval-ms:3600000}")
+    public void scheduledPurge() {
+        if (properties.isPurgeEnabled()) {
+            purge();
+        }
+    }
+
+    /**
+     * Runs one retention pass and returns the number of carts deleted.
+     */
+    public synchronized long purge() {
+        LocalDateTime now = LocalDateTime.now();
+        long started = System.nanoTime();
+        int chunkSize = Math.max(1, properties.getPurgeChunkSize());
+
+        LocalDateTime emptyCutoff = now.minusHours(properties.getEmptyCartTtlHours());
+        long[] empty = deleteInChunks(() -> cartRepository.deleteEmptyCartsOlderThan(emptyCutoff, chunkSize), chunkSize);
+        LocalDateTime abandonedCutoff = now.minusDays(properties.getAbandonedCartTtlDays());
+        long[] abandoned = deleteInChunks(() -> cartRepository.deleteCartsNotUpdatedSince(abandonedCutoff, chunkSize), chunkSize);
+        long busyNanos = empty[1] + abandoned[1];
+
+        runs.incrementAndGet();
+        emptyCartsDeleted.addAndGet(empty[0]);
+        abandonedCartsDeleted.addAndGet(abandoned[0]);
+        totalNanos.addAndGet(busyNanos);
+        lastRunNanos = busyNanos;
+        lastRunAt = now;
+        if (empty[0] + abandoned[0] > 0) {
+            log.info("Cart purge removed {} empty and {} abandoned carts in {} ms ({} ms elapsed)",
+                    empty[0], abandoned[0], TimeUnit.NANOSECONDS.toMillis(busyNanos),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return empty[0] + abandoned[0];
+    }
+
+    public CartPurgeStatsResponse stats() {
+        return new CartPurgeStatsResponse(runs.get(), emptyCartsDeleted.get(), abandonedCartsDeleted.get(), chunks.get(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos.get()), TimeUnit.NANOSECONDS.toMillis(lastRunNanos), lastRunAt);
+    }
+
+    /**
+     * Repeats a chunk delete until a chunk comes back short. Returns {rows deleted, nanos spent deleting}.
+     */
+    private long[] deleteInChunks(IntSupplier deleteChunk, int chunkSize) {
+        long deleted = 0;
+        long busyNanos = 0;
+        while (true) {
+            long chunkStarted = System.nanoTime();
+            Integer rows = chunkTransaction.execute(status -> deleteChunk.getAsInt());
+            busyNanos += System.nanoTime() - chunkStarted;
+            int count = rows != null ? rows : 0;
+            deleted += count;
+            chunks.incrementAndGet();
+            if (count < chunkSize) {
+                return new long[]{deleted, busyNanos};
+            }
+            if (!pause()) {
+                return new long[]{deleted, busyNanos};
+            }
+        }
+    }
+
+    private boolean pause() {
+        if (properties.getPurgePauseMs() <= 0) return true;
+        try {
+            Thread.sleep(properties.getPurgePauseMs());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
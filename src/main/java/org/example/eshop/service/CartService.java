@@ -1,105 +1,232 @@
 package org.example.eshop.service;
 
+import org.example.eshop.dto.CartDto;
+import org.example.eshop.dto.CartSummaryDto;
+import org.example.eshop.dto.ShippingQuoteDto;
+import org.example.eshop.dto.ShippingQuotesDto;
+import org.example.eshop.dto.VariantSummaryDto;
 import org.example.eshop.entity.Cart;
 import org.example.eshop.entity.CartItem;
 import org.example.eshop.entity.Variant;
-import org.example.eshop.repository.CartItemRepository;
-import org.example.eshop.repository.CartRepository;
 import org.example.eshop.repository.VariantRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class CartService {
 
-    private final CartRepository cartRepository;
-    private final CartItemRepository cartItemRepository;
+    private final CartStore cartStore;
     private final VariantRepository variantRepository;
     private final VatCalculatorService vatCalculatorService;
     private final ShippingCalculatorService shippingCalculatorService;
 
     public CartService(
-            CartRepository cartRepository,
-            CartItemRepository cartItemRepository,
+            CartStore cartStore,
             VariantRepository variantRepository,
             VatCalculatorService vatCalculatorService,
             ShippingCalculatorService shippingCalculatorService
     ) {
-        this.cartRepository = cartRepository;
-        this.cartItemRepository = cartItemRepository;
+        this.cartStore = cartStore;
         this.variantRepository = variantRepository;
         this.vatCalculatorService = vatCalculatorService;
         this.shippingCalculatorService = shippingCalculatorService;
     }
 
     public Cart createCart() {
-        Cart cart = new Cart();
-        return cartRepository.save(cart);
+        return cartStore.create();
     }
 
     public Cart getCartWithItemsOrNull(Long cartId) {
-        return cartRepository.findByIdWithItems(cartId);
+        return cartStore.findWithItems(cartId);
     }
 
     public Cart getCartWithItems(Long cartId) {
-        return cartRepository.findByIdWithItems(cartId);
+        return cartStore.findWithItems(cartId);
     }
 
 
-    public Cart addItemToCart(Long cartId, Long variantId, int quantity) {
-        Cart cart = Optional.ofNullable(getCartWithItemsOrNull(cartId))
-                .orElseThrow(() -> new IllegalArgumentException("Cart not found with id: " + cartId));
+    /**
+     * Maps a cart for the API and the cart page: the lines' variants and product titles come from a single
+     * query, so the cost does not grow with the number of lines.
+     */
+    @Transactional(readOnly = true)
+    public CartDto toCartDto(Cart cart) {
+        Set<Long> variantIds = cart.getItems().stream().map(CartItem::getVariantId).collect(Collectors.toSet());
+        Map<Long, VariantSummaryDto> variants = variantIds.isEmpty() ? Map.of() : variantRepository.findSummariesByIdIn(variantIds)
+                .stream()
+                .collect(Collectors.toMap(VariantSummaryDto::getId, Function.identity()));
+        return CartDto.fromEntity(cart, variants);
+    }
 
-        Variant variant = variantRepository.findById(variantId).orElse(null);
-        if (variant == null) {
-            throw new IllegalArgumentException("Variant not found with id: " + variantId);
-        }
+    /**
+     * Item count and totals from the cart row alone, for the header badge; null when there is no such cart.
+     */
+    @Transactional(readOnly = true)
+    public CartSummaryDto getCartSummary(Long cartId) {
+        return cartStore.findSummary(cartId);
+    }
 
-        if (quantity <= 0) {
-            throw new IllegalArgumentException("Quantity must be positive");
-        }
+    /**
+     * Shipping cost to every configured zone from the cart's stored shipping weight; no line or variant is
+     * read. Null when there is no such cart.
+     */
+    @Transactional(readOnly = true)
+    public ShippingQuotesDto getShippingQuotes(Long cartId) {
+        CartSummaryDto summary = cartStore.findSummary(cartId);
+        if (summary == null) return null;
+        return shippingQuotes(summary.getId(), summary.getShippingWeightGrams());
+    }
 
-        int availableStock = variant.getStockQty() - variant.getReservedQty();
-        if (quantity > availableStock) {
-            throw new IllegalArgumentException("Insufficient stock. Available: " + availableStock + ", requested: " + quantity);
-        }
+    ShippingQuotesDto shippingQuotes(long cartId, int shippingWeightGrams) {
+        return new ShippingQuotesDto(cartId, shippingWeightGrams,
+                shippingCalculatorService.calculateShippingForAllZones(shippingWeightGrams).stream()
+                        .map(ShippingQuoteDto::fromResult)
+                        .toList());
+    }
 
-        CartItem existingItem = cartItemRepository.findByCartIdAndVariantId(cartId, variantId);
-        if (existingItem != null) {
-            int newQuantity = existingItem.getQty() + quantity;
-            if (newQuantity > availableStock) {
-                throw new IllegalArgumentException("Insufficient stock. Available: " + availableStock + ", total requested: " + newQuantity);
+    public Cart addItemToCart(Long cartId, Long variantId, int quantity) {
+        return cartStore.update(cartId, (cart, lines) -> {
+            Variant variant = variantRepository.findById(variantId).orElse(null);
+            if (variant == null) {
+                throw new IllegalArgumentException("Variant not found with id: " + variantId);
             }
-            existingItem.setQty(newQuantity);
-            cartItemRepository.save(existingItem);
-        } else {
-            CartItem cartItem = new CartItem(cartId, variantId, quantity, variant.getPrice());
-            cartItemRepository.save(cartItem);
-        }
 
-        recalculateCartTotals(cart);
-        return cartRepository.save(cart);
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+
+            int availableStock = variant.getStockQty() - variant.getReservedQty();
+            if (quantity > availableStock) {
+                throw new IllegalArgumentException("Insufficient stock. Available: " + availableStock + ", requested: " + quantity);
+            }
+
+            CartItem existingItem = lines.find(variantId);
+            if (existingItem != null) {
+                int newQuantity = existingItem.getQty() + quantity;
+                if (newQuantity > availableStock) {
+                    throw new IllegalArgumentException("Insufficient stock. Available: " + availableStock + ", total requested: " + newQuantity);
+                }
+                existingItem.setQty(newQuantity);
+                lines.save(existingItem);
+                applyLineDelta(cart, existingItem, quantity);
+            } else {
+                CartItem cartItem = new CartItem(cartId, variantId, quantity, variant.getPrice(), shippingWeightGrams(variant));
+                lines.save(cartItem);
+                applyLineDelta(cart, cartItem, quantity);
+            }
+        });
+    }
+
+    /**
+     * Adds several lines at once, all or nothing: the variants are read in one query, every line is checked
+     * before any is written, the lines are saved together and the totals derived once. Repeated variant
+     * ids are summed.
+     */
+    public Cart addItemsToCart(Long cartId, Map<Long, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        quantities.values().forEach(quantity -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+        });
+
+        return cartStore.update(cartId, (cart, lines) -> {
+            Map<Long, Variant> variants = variantRepository.findAllById(quantities.keySet()).stream()
+                    .collect(Collectors.toMap(Variant::getId, Function.identity()));
+            Map<Long, CartItem> existing = lines.findAll(quantities.keySet());
+
+            quantities.forEach((variantId, quantity) -> {
+                Variant variant = variants.get(variantId);
+                if (variant == null) {
+                    throw new IllegalArgumentException("Variant not found with id: " + variantId);
+                }
+                CartItem line = existing.get(variantId);
+                int newQuantity = (line != null ? line.getQty() : 0) + quantity;
+                int availableStock = variant.getStockQty() - variant.getReservedQty();
+                if (newQuantity > availableStock) {
+                    throw new IllegalArgumentException("Insufficient stock for " + variant.getTitle() + ". Available: " + availableStock + ", total requested: " + newQuantity);
+                }
+            });
+
+            List<CartItem> changed = new ArrayList<>();
+            quantities.forEach((variantId, quantity) -> {
+                CartItem line = existing.get(variantId);
+                if (line != null) {
+                    line.setQty(line.getQty() + quantity);
+                } else {
+                    Variant variant = variants.get(variantId);
+                    line = new CartItem(cartId, variantId, quantity, variant.getPrice(), shippingWeightGrams(variant));
+                }
+                changed.add(line);
+            });
+
+            lines.saveAll(changed);
+            changed.forEach(line -> moveAggregates(cart, line, quantities.get(line.getVariantId())));
+            deriveTotals(cart);
+        });
     }
 
     public Cart updateItemQuantity(Long cartId, Long variantId, int quantity) {
-        Cart cart = Optional.ofNullable(getCartWithItemsOrNull(cartId))
-                .orElseThrow(() -> new IllegalArgumentException("Cart not found with id: " + cartId));
+        return cartStore.update(cartId, (cart, lines) -> {
+            if (quantity < 0) {
+                throw new IllegalArgumentException("Quantity cannot be negative");
+            }
+
+            CartItem existingItem = Optional.ofNullable(lines.find(variantId))
+                    .orElseThrow(() -> new IllegalArgumentException("Item not found in cart"));
+
+            int delta = quantity - existingItem.getQty();
+            if (quantity == 0) {
+                lines.delete(existingItem);
+            } else {
+                Variant variant = variantRepository.findById(variantId).orElse(null);
+                if (variant == null) {
+                    throw new IllegalArgumentException("Variant not found with id: " + variantId);
+                }
+                int availableStock = variant.getStockQty() - variant.getReservedQty();
+                if (quantity > availableStock) {
+                    throw new IllegalArgumentException("Insufficient stock. Available: " + availableStock + ", requested: " + quantity);
+                }
+                existingItem.setQty(quantity);
+                lines.save(existingItem);
+            }
 
+            applyLineDelta(cart, existingItem, delta);
+        });
+    }
+
+    /**
+     * Sets a line's quantity, adding the line when the cart does not hold the variant yet; 0 removes it.
+     * The line and the variant are each read once, under the same cart update, so callers need not check
+     * for the line first.
+     */
+    public Cart upsertItem(Long cartId, Long variantId, int quantity) {
         if (quantity < 0) {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
+        return cartStore.update(cartId, (cart, lines) -> {
+            CartItem line = lines.find(variantId);
+            if (quantity == 0) {
+                if (line != null) {
+                    lines.delete(line);
+                    applyLineDelta(cart, line, -line.getQty());
+                }
+                return;
+            }
 
-        CartItem existingItem = Optional.ofNullable(cartItemRepository.findByCartIdAndVariantId(cartId, variantId))
-                .orElseThrow(() -> new IllegalArgumentException("Item not found in cart"));
-
-        if (quantity == 0) {
-            cartItemRepository.delete(existingItem);
-        } else {
             Variant variant = variantRepository.findById(variantId).orElse(null);
             if (variant == null) {
                 throw new IllegalArgumentException("Variant not found with id: " + variantId);
@@ -108,63 +235,80 @@ public class CartService {
             if (quantity > availableStock) {
                 throw new IllegalArgumentException("Insufficient stock. Available: " + availableStock + ", requested: " + quantity);
             }
-            existingItem.setQty(quantity);
-            cartItemRepository.save(existingItem);
-        }
 
-        recalculateCartTotals(cart);
-        return cartRepository.save(cart);
+            int delta = quantity - (line != null ? line.getQty() : 0);
+            if (line != null) {
+                line.setQty(quantity);
+            } else {
+                line = new CartItem(cartId, variantId, quantity, variant.getPrice(), shippingWeightGrams(variant));
+            }
+            lines.save(line);
+            applyLineDelta(cart, line, delta);
+        });
     }
 
     public Cart removeItemFromCart(Long cartId, Long variantId) {
-        Cart cart = Optional.ofNullable(getCartWithItemsOrNull(cartId))
-                .orElseThrow(() -> new IllegalArgumentException("Cart not found with id: " + cartId));
-
-        cartItemRepository.deleteByCartIdAndVariantId(cartId, variantId);
-
-        recalculateCartTotals(cart);
-        return cartRepository.save(cart);
+        return cartStore.update(cartId, (cart, lines) -> {
+            CartItem existingItem = lines.find(variantId);
+            if (existingItem != null) {
+                lines.delete(existingItem);
+                applyLineDelta(cart, existingItem, -existingItem.getQty());
+            }
+        });
     }
 
     public Cart clearCart(Long cartId) {
-        Cart cart = Optional.ofNullable(getCartWithItemsOrNull(cartId))
-                .orElseThrow(() -> new IllegalArgumentException("Cart not found with id: " + cartId));
-
-        cartItemRepository.deleteByCartId(cartId);
-
-        cart.setSubtotal(BigDecimal.ZERO);
-        cart.setVatAmount(BigDecimal.ZERO);
-        cart.setShippingCost(BigDecimal.ZERO);
-        cart.setTotal(BigDecimal.ZERO);
-
-        return cartRepository.save(cart);
+        return cartStore.update(cartId, (cart, lines) -> {
+            lines.deleteAll();
+            cart.resetTotals();
+        });
     }
 
-    private void recalculateCartTotals(Cart cart) {
-        List<CartItem> cartItems = cartItemRepository.findByCartId(cart.getId());
+    /**
+     * Takes a variant out of every cart holding it, keeping their running totals exact; call before the
+     * variant is deleted (the FK cascade would otherwise drop the lines behind the totals' back).
+     */
+    public void removeVariantFromCarts(Long variantId) {
+        for (Long cartId : cartStore.cartIdsHolding(variantId)) {
+            removeItemFromCart(cartId, variantId);
+        }
+    }
 
-        BigDecimal subtotal = cartItems.stream()
-                .map(CartItem::getLineTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        cart.setSubtotal(subtotal);
+    /**
+     * Moves the cart's running subtotal, shipping weight and item count by one line's quantity change, at the line's
+     * snapshotted unit price and weight, then derives VAT, shipping and total from those aggregates.
+     * No other line is read.
+     */
+    private void applyLineDelta(Cart cart, CartItem line, int qtyDelta) {
+        moveAggregates(cart, line, qtyDelta);
+        deriveTotals(cart);
+    }
 
-        cart.setVatAmount(vatCalculatorService.extractVatAmount(subtotal));
+    private static void moveAggregates(Cart cart, CartItem line, int qtyDelta) {
+        cart.setSubtotal(cart.getSubtotal().add(line.getPriceSnapshot().multiply(BigDecimal.valueOf(qtyDelta))));
+        cart.setShippingWeightGrams(Math.max(0, cart.getShippingWeightGrams() + line.getWeightGramsSnapshot() * qtyDelta));
+        cart.setItemCount(Math.max(0, cart.getItemCount() + qtyDelta));
+    }
 
-        int totalWeightGrams = cartItems.stream().mapToInt(item -> {
-            Variant variant = variantRepository.findById(item.getVariantId()).orElse(null);
-            if (variant == null || variant.getShippingWeight() == null) return 0;
-            BigDecimal weight = variant.getShippingWeight().multiply(BigDecimal.valueOf(item.getQty()));
-            try {
-                return weight.intValueExact();
-            } catch (ArithmeticException e) {
-                return weight.intValue();
-            }
-        }).sum();
+    private void deriveTotals(Cart cart) {
+        cart.setVatAmount(vatCalculatorService.extractVatAmount(cart.getSubtotal()));
 
-        BigDecimal shipping = Optional.ofNullable(shippingCalculatorService.calculateShippingCost("domestic", totalWeightGrams))
+        BigDecimal shipping = Optional.ofNullable(shippingCalculatorService.calculateShippingCost("domestic", cart.getShippingWeightGrams()))
                 .orElse(BigDecimal.ZERO);
         cart.setShippingCost(shipping);
 
         cart.setTotal(cart.getSubtotal().add(cart.getShippingCost()));
     }
+
+    /**
+     * Variant shipping weights are stored in kilograms; cart aggregates are kept in whole grams.
+     */
+    static int shippingWeightGrams(Variant variant) {
+        return shippingWeightGrams(variant.getShippingWeight());
+    }
+
+    static int shippingWeightGrams(BigDecimal shippingWeightKg) {
+        if (shippingWeightKg == null) return 0;
+        return shippingWeightKg.movePointRight(3).setScale(0, RoundingMode.HALF_UP).intValue();
+    }
 }
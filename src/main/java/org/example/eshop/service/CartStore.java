@@ -0,0 +1,81 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.CartSummaryDto;
+import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.CartItem;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where live carts are kept. The implementation is chosen per deployment with {@code shop.cart.storage}:
+ * {@code strict} (default, every change written to the database in the request) or {@code write-behind}
+ * (carts held in memory and flushed in batches). {@link CartService} holds the cart rules; a store only
+ * decides where lines and totals live.
+ */
+public interface CartStore {
+
+    Cart create();
+
+    /**
+     * The cart with its lines, or null when there is no such cart.
+     */
+    @Nullable
+    Cart findWithItems(Long cartId);
+
+    /**
+     * The cart's item count, totals and shipping weight without its lines, or null when there is no such cart.
+     */
+    @Nullable
+    CartSummaryDto findSummary(Long cartId);
+
+    /**
+     * Runs {@code change} with exclusive use of the cart and returns the cart as the change left it.
+     *
+     * @throws IllegalArgumentException when there is no such cart
+     */
+    Cart update(Long cartId, CartChange change);
+
+    /**
+     * Ids of the carts holding a line for the variant.
+     */
+    Set<Long> cartIdsHolding(Long variantId);
+
+    /**
+     * Makes the cart's current state durable; for readers that go to the database directly, like checkout.
+     */
+    void flush(Long cartId);
+
+    /**
+     * Drops anything held for the cart so the database copy is authoritative again.
+     */
+    void evict(Long cartId);
+
+    @FunctionalInterface
+    interface CartChange {
+        void apply(Cart cart, Lines lines);
+    }
+
+    /**
+     * The lines of the cart being changed.
+     */
+    interface Lines {
+        @Nullable
+        CartItem find(Long variantId);
+
+        /**
+         * The lines for the given variants, keyed by variant id; variants without a line are absent.
+         */
+        Map<Long, CartItem> findAll(Collection<Long> variantIds);
+
+        void save(CartItem line);
+
+        void saveAll(Collection<CartItem> lines);
+
+        void delete(CartItem line);
+
+        void deleteAll();
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.eshop.service;
+
+import java.util.Set;
+
+/**
+ * Published whenever products, variants, lots or variant stock change. Carries the ids of the
+ * affected products so read models can refresh just those entries, and whether only stock moved
+ * (orders) as opposed to catalog content (admin edits).
+ */
+public final class CatalogChangedEvent {
+    private final Set<Long> productIds;
+    private final boolean stockOnly;
+
+    public CatalogChangedEvent(Set<Long> productIds) {
+        this(productIds, false);
+    }
+
+    private CatalogChangedEvent(Set<Long> productIds, boolean stockOnly) {
+        this.productIds = Set.copyOf(productIds);
+        this.stockOnly = stockOnly;
+    }
+
+    public static CatalogChangedEvent forProduct(Long productId) {
+        return new CatalogChangedEvent(Set.of(productId));
+    }
+
+    public static CatalogChangedEvent stockChanged(Set<Long> productIds) {
+        return new CatalogChangedEvent(productIds, true);
+    }
+
+    public Set<Long> getProductIds() { return productIds; }
+    public boolean isStockOnly() { return stockOnly; }
+
+    @Override
+    public String toString() {
+        return "CatalogChangedEvent{" +
+                "productIds=" + productIds +
+                ", stockOnly=" + stockOnly +
+                '}';
+    }
+}
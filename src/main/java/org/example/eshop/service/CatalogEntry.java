@@ -0,0 +1,147 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.ProductDto;
+import org.example.eshop.dto.ProductListingRow;
+import org.example.eshop.entity.Lot;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.Variant;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable, pre-joined product row of the catalog snapshot: the product, its variants and their lots,
+ * plus the listing aggregates (price range, stock status, harvest year) computed once at build time.
+ */
+public final class CatalogEntry {
+    private final long id;
+    private final String slug;
+    private final String title;
+    private final String type;
+    private final String description; // nullable
+    private final LocalDateTime createdAt; // nullable
+    private final List<CatalogVariant> variants;
+    private final ProductDto summary;
+    private final long contentHash;
+
+    private CatalogEntry(long id, String slug, String title, String type, String description,
+                         LocalDateTime createdAt, List<CatalogVariant> variants, ProductDto summary) {
+        this.id = id;
+        this.slug = slug;
+        this.title = title;
+        this.type = type;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.variants = variants;
+        this.summary = summary;
+        long h = CatalogVariant.mix(id, Objects.hashCode(slug));
+        h = CatalogVariant.mix(h, Objects.hashCode(title));
+        h = CatalogVariant.mix(h, Objects.hashCode(type));
+        h = CatalogVariant.mix(h, Objects.hashCode(description));
+        h = CatalogVariant.mix(h, Objects.hashCode(createdAt));
+        for (CatalogVariant variant : variants) {
+            h = CatalogVariant.mix(h, variant.contentHash());
+        }
+        this.contentHash = h;
+    }
+
+    /**
+     * Builds an entry from the database-side aggregates; this is what the snapshot is loaded from.
+     */
+    public static CatalogEntry of(ProductListingRow row, List<CatalogVariant> variants) {
+        List<CatalogVariant> sorted = variants.stream().sorted(Comparator.comparingLong(CatalogVariant::getId)).toList();
+        ProductDto summary = new ProductDto(
+                row.getId(),
+                row.getSlug(),
+                row.getTitle(),
+                row.getType(),
+                row.getDescription(),
+                row.getMinPrice() != null ? row.getMinPrice() : BigDecimal.ZERO,
+                row.getMaxPrice() != null ? row.getMaxPrice() : BigDecimal.ZERO,
+                stockStatus(row.getInStockVariants(), row.getLowStockVariants()),
+                firstHarvestYear(sorted),
+                row.getVariantCount()
+        );
+        return new CatalogEntry(row.getId(), row.getSlug(), row.getTitle(), row.getType(), row.getDescription(),
+                row.getCreatedAt(), sorted, summary);
+    }
+
+    /**
+     * Builds an entry from entities, computing the same aggregates in memory.
+     */
+    public static CatalogEntry of(Product product, List<Variant> variants, Map<Long, Lot> lotsById) {
+        List<CatalogVariant> catalogVariants = variants.stream()
+                .sorted(Comparator.comparing(Variant::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(v -> CatalogVariant.of(v, v.getLotId() != null ? lotsById.get(v.getLotId()) : null))
+                .toList();
+
+        BigDecimal min = catalogVariants.stream().map(CatalogVariant::getPrice).min(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
+        BigDecimal max = catalogVariants.stream().map(CatalogVariant::getPrice).max(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
+        Integer harvest = firstHarvestYear(catalogVariants);
+        int inStock = (int) catalogVariants.stream().filter(CatalogVariant::isInStock).count();
+        int lowStock = (int) catalogVariants.stream().filter(v -> v.getAvailableQty() >= 1 && v.getAvailableQty() <= 5).count();
+
+        ProductDto summary = new ProductDto(
+                product.getId(),
+                product.getSlug(),
+                product.getTitle(),
+                product.getType(),
+                product.getDescription(),
+                min,
+                max,
+                stockStatus(inStock, lowStock),
+                harvest,
+                catalogVariants.size()
+        );
+        return new CatalogEntry(product.getId(), product.getSlug(), product.getTitle(), product.getType(),
+                product.getDescription(), product.getCreatedAt(), catalogVariants, summary);
+    }
+
+    /**
+     * Harvest year of the first variant, by id, that has a lot.
+     */
+    private static Integer firstHarvestYear(List<CatalogVariant> sortedVariants) {
+        return sortedVariants.stream().map(CatalogVariant::getHarvestYear)
+                .filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    private static ProductDto.StockStatus stockStatus(int inStockCount, int lowStockCount) {
+        if (inStockCount == 0) return ProductDto.StockStatus.OUT_OF_STOCK;
+        if (lowStockCount > 0) return ProductDto.StockStatus.LOW_STOCK;
+        return ProductDto.StockStatus.IN_STOCK;
+    }
+
+    /**
+     * Whether the other entry differs from this one in variant stock at most, so every facet and sort key
+     * but in-stock is unchanged.
+     */
+    boolean sameExceptStock(CatalogEntry other) {
+        if (id != other.id || !Objects.equals(slug, other.slug) || !Objects.equals(title, other.title)
+                || !Objects.equals(type, other.type) || !Objects.equals(description, other.description)
+                || !Objects.equals(createdAt, other.createdAt) || variants.size() != other.variants.size()) {
+            return false;
+        }
+        for (int i = 0; i < variants.size(); i++) {
+            if (!variants.get(i).sameExceptStock(other.variants.get(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hash of the product and its variants, stock included; equal content hashes alike on every instance.
+     */
+    long contentHash() { return contentHash; }
+
+    public long getId() { return id; }
+    public String getSlug() { return slug; }
+    public String getTitle() { return title; }
+    public String getType() { return type; }
+    public String getDescription() { return description; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public List<CatalogVariant> getVariants() { return variants; }
+    public ProductDto getSummary() { return summary; }
+}
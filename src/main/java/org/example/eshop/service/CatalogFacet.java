@@ -0,0 +1,24 @@
+package org.example.eshop.service;
+
+/**
+ * Facets of the catalog listing. The name doubles as the request parameter used to select a value.
+ */
+public enum CatalogFacet {
+    TYPE("type", "Type"),
+    HARVEST_YEAR("harvestYear", "Harvest Year"),
+    SEASON("season", "Season"),
+    STORAGE_TYPE("storageType", "Storage"),
+    PRICE("priceBucket", "Price"),
+    IN_STOCK("inStock", "Availability");
+
+    private final String paramName;
+    private final String label;
+
+    CatalogFacet(String paramName, String label) {
+        this.paramName = paramName;
+        this.label = label;
+    }
+
+    public String getParamName() { return paramName; }
+    public String getLabel() { return label; }
+}
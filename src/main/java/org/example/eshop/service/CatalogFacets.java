@@ -0,0 +1,129 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.FilterOptionsDto;
+import org.example.eshop.entity.Season;
+import org.example.eshop.entity.StorageType;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One bitset per facet value over the ordinals (positions) of a {@link CatalogSnapshot}'s entries.
+ * A product is set in a value's bitset when any of its variants carries that value. Built once per
+ * snapshot version and never mutated; callers get copies to intersect.
+ */
+final class CatalogFacets {
+    static final String IN_STOCK_VALUE = "true";
+
+    private final int size;
+    private final Map<CatalogFacet, Map<String, BitSet>> bitsets; // values in display order
+
+    private CatalogFacets(int size, Map<CatalogFacet, Map<String, BitSet>> bitsets) {
+        this.size = size;
+        this.bitsets = bitsets;
+    }
+
+    static CatalogFacets build(List<CatalogEntry> entries) {
+        Map<String, BitSet> types = new TreeMap<>();
+        Map<Integer, BitSet> years = new TreeMap<>(Comparator.reverseOrder());
+        Map<Season, BitSet> seasons = new EnumMap<>(Season.class);
+        Map<StorageType, BitSet> storageTypes = new EnumMap<>(StorageType.class);
+        Map<PriceBucket, BitSet> prices = new EnumMap<>(PriceBucket.class);
+        BitSet inStock = new BitSet(entries.size());
+
+        for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+            CatalogEntry entry = entries.get(ordinal);
+            if (entry.getType() != null) {
+                types.computeIfAbsent(entry.getType(), k -> new BitSet()).set(ordinal);
+            }
+            for (CatalogVariant variant : entry.getVariants()) {
+                if (variant.getHarvestYear() != null) {
+                    years.computeIfAbsent(variant.getHarvestYear(), k -> new BitSet()).set(ordinal);
+                }
+                if (variant.getSeason() != null) {
+                    seasons.computeIfAbsent(variant.getSeason(), k -> new BitSet()).set(ordinal);
+                }
+                if (variant.getStorageType() != null) {
+                    storageTypes.computeIfAbsent(variant.getStorageType(), k -> new BitSet()).set(ordinal);
+                }
+                PriceBucket bucket = PriceBucket.of(variant.getPrice());
+                if (bucket != null) {
+                    prices.computeIfAbsent(bucket, k -> new BitSet()).set(ordinal);
+                }
+                if (variant.isInStock()) {
+                    inStock.set(ordinal);
+                }
+            }
+        }
+
+        Map<CatalogFacet, Map<String, BitSet>> bitsets = new EnumMap<>(CatalogFacet.class);
+        bitsets.put(CatalogFacet.TYPE, keyed(types));
+        bitsets.put(CatalogFacet.HARVEST_YEAR, keyed(years));
+        bitsets.put(CatalogFacet.SEASON, keyed(seasons));
+        bitsets.put(CatalogFacet.STORAGE_TYPE, keyed(storageTypes));
+        bitsets.put(CatalogFacet.PRICE, keyed(prices));
+        bitsets.put(CatalogFacet.IN_STOCK, inStock.isEmpty() ? Map.of() : Map.of(IN_STOCK_VALUE, inStock));
+        return new CatalogFacets(entries.size(), bitsets);
+    }
+
+    /**
+     * Facets for the same entries after only the stock of the given ordinals moved: the in-stock bitset is
+     * copied and updated, every other facet is shared.
+     */
+    CatalogFacets withStock(List<CatalogEntry> entries, int[] changedOrdinals) {
+        Map<String, BitSet> previous = bitsets.get(CatalogFacet.IN_STOCK);
+        BitSet inStock = previous.isEmpty() ? new BitSet(size) : (BitSet) previous.get(IN_STOCK_VALUE).clone();
+        for (int ordinal : changedOrdinals) {
+            inStock.set(ordinal, entries.get(ordinal).getVariants().stream().anyMatch(CatalogVariant::isInStock));
+        }
+        Map<CatalogFacet, Map<String, BitSet>> next = new EnumMap<>(bitsets);
+        next.put(CatalogFacet.IN_STOCK, inStock.isEmpty() ? Map.of() : Map.of(IN_STOCK_VALUE, inStock));
+        return new CatalogFacets(size, next);
+    }
+
+    private static <K> Map<String, BitSet> keyed(Map<K, BitSet> source) {
+        Map<String, BitSet> result = new LinkedHashMap<>();
+        source.forEach((key, bits) -> result.put(key instanceof Enum<?> e ? e.name() : String.valueOf(key), bits));
+        return result;
+    }
+
+    /**
+     * Bitset with every ordinal of the snapshot set.
+     */
+    BitSet all() {
+        BitSet bits = new BitSet(size);
+        bits.set(0, size);
+        return bits;
+    }
+
+    /**
+     * Copy of the bitset for the given value; empty when no product carries it.
+     */
+    BitSet matching(CatalogFacet facet, String value) {
+        BitSet bits = bitsets.get(facet).get(value);
+        return bits != null ? (BitSet) bits.clone() : new BitSet();
+    }
+
+    /**
+     * Distinct values of the data-driven facets; computed once per snapshot, not per request.
+     */
+    FilterOptionsDto options() {
+        return new FilterOptionsDto(
+                List.copyOf(bitsets.get(CatalogFacet.TYPE).keySet()),
+                bitsets.get(CatalogFacet.HARVEST_YEAR).keySet().stream().map(Integer::valueOf).toList(),
+                List.copyOf(bitsets.get(CatalogFacet.SEASON).keySet()),
+                List.copyOf(bitsets.get(CatalogFacet.STORAGE_TYPE).keySet()));
+    }
+
+    /**
+     * Facet values (as selection keys) in display order, with their read-only bitsets.
+     */
+    Map<String, BitSet> values(CatalogFacet facet) {
+        return bitsets.get(facet);
+    }
+}
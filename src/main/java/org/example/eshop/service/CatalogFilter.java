@@ -0,0 +1,57 @@
+package org.example.eshop.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Catalog listing criteria as received from the storefront. Every field is optional.
+ * Season, storage type and price bucket are enum names, validated by {@link ProductService}.
+ */
+public final class CatalogFilter {
+    private final String query;
+    private final String type;
+    private final String region; // not used currently
+    private final Integer harvestYear;
+    private final String season;
+    private final String storageType;
+    private final String priceBucket;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final Boolean inStock;
+
+    public CatalogFilter(String query,
+                         String type,
+                         String region,
+                         Integer harvestYear,
+                         String season,
+                         String storageType,
+                         String priceBucket,
+                         BigDecimal minPrice,
+                         BigDecimal maxPrice,
+                         Boolean inStock) {
+        this.query = blankToNull(query);
+        this.type = blankToNull(type);
+        this.region = blankToNull(region);
+        this.harvestYear = harvestYear;
+        this.season = blankToNull(season);
+        this.storageType = blankToNull(storageType);
+        this.priceBucket = blankToNull(priceBucket);
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.inStock = inStock;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    public String getQuery() { return query; }
+    public String getType() { return type; }
+    public String getRegion() { return region; }
+    public Integer getHarvestYear() { return harvestYear; }
+    public String getSeason() { return season; }
+    public String getStorageType() { return storageType; }
+    public String getPriceBucket() { return priceBucket; }
+    public BigDecimal getMinPrice() { return minPrice; }
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public Boolean getInStock() { return inStock; }
+}
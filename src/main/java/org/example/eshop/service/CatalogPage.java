@@ -0,0 +1,34 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.FacetDto;
+import org.example.eshop.dto.ProductDto;
+
+import java.util.List;
+
+/**
+ * One page of a catalog listing: the matching products, per-value counts for every facet and the
+ * token to fetch the next page with.
+ */
+public final class CatalogPage {
+    private final List<ProductDto> products;
+    private final List<FacetDto> facets;
+    private final CatalogSort sort;
+    private final String nextPageToken; // null on the last page
+
+    public CatalogPage(List<ProductDto> products, List<FacetDto> facets, CatalogSort sort, String nextPageToken) {
+        this.products = products;
+        this.facets = facets;
+        this.sort = sort;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<ProductDto> getProducts() { return products; }
+    public List<FacetDto> getFacets() { return facets; }
+    public CatalogSort getSort() { return sort; }
+    public String getNextPageToken() { return nextPageToken; }
+    public boolean hasNextPage() { return nextPageToken != null; }
+
+    public FacetDto getFacet(String name) {
+        return facets.stream().filter(f -> f.getName().equals(name)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.FilterOptionsDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, versioned view of the active catalog. Readers never lock; writers build a new
+ * snapshot and swap it in via {@link CatalogSnapshotService}.
+ */
+public final class CatalogSnapshot {
+    private final long version;
+    private final long contentHash; // sum over entries of their hash mixed with their position
+    private final List<CatalogEntry> entries; // ordered by product id
+    // The lookups below map to positions in entries, so a stock-only change can reuse them
+    private final Map<Long, Integer> ordinals; // product id -> position in entries
+    private final Map<String, Integer> bySlug;
+    private final Map<Long, Integer> byVariantId;
+    private final CatalogFacets facets;
+    private final FilterOptionsDto filterOptions;
+    private final Map<CatalogSort, int[]> orders; // built on first use
+
+    public CatalogSnapshot(long version, Collection<CatalogEntry> entries) {
+        this.version = version;
+        this.entries = entries.stream()
+                .sorted(Comparator.comparingLong(CatalogEntry::getId))
+                .toList();
+        long contentHash = 0;
+        for (int i = 0; i < this.entries.size(); i++) {
+            contentHash += positionedHash(i, this.entries.get(i));
+        }
+        this.contentHash = contentHash;
+        Map<Long, Integer> ordinals = new HashMap<>();
+        Map<String, Integer> bySlug = new HashMap<>();
+        Map<Long, Integer> byVariantId = new HashMap<>();
+        for (int i = 0; i < this.entries.size(); i++) {
+            CatalogEntry entry = this.entries.get(i);
+            ordinals.put(entry.getId(), i);
+            if (bySlug.put(entry.getSlug(), i) != null) {
+                throw new IllegalStateException("Duplicate product slug " + entry.getSlug());
+            }
+            for (CatalogVariant variant : entry.getVariants()) {
+                byVariantId.putIfAbsent(variant.getId(), i);
+            }
+        }
+        this.ordinals = ordinals;
+        this.bySlug = bySlug;
+        this.byVariantId = byVariantId;
+        this.facets = CatalogFacets.build(this.entries);
+        this.filterOptions = facets.options();
+        this.orders = new ConcurrentHashMap<>();
+    }
+
+    private CatalogSnapshot(long version, List<CatalogEntry> entries, long contentHash, CatalogSnapshot shape, CatalogFacets facets) {
+        this.version = version;
+        this.contentHash = contentHash;
+        this.entries = entries;
+        this.ordinals = shape.ordinals;
+        this.bySlug = shape.bySlug;
+        this.byVariantId = shape.byVariantId;
+        this.facets = facets;
+        this.filterOptions = shape.filterOptions;
+        this.orders = shape.orders; // no sort key depends on stock
+    }
+
+    /**
+     * Returns a new snapshot with the given entries replaced (or added) and the given ids removed.
+     */
+    public CatalogSnapshot with(long newVersion, Collection<CatalogEntry> upserts, Set<Long> removedIds) {
+        Map<Long, CatalogEntry> next = new LinkedHashMap<>();
+        entries.forEach(e -> next.put(e.getId(), e));
+        removedIds.forEach(next::remove);
+        upserts.forEach(e -> next.put(e.getId(), e));
+        return new CatalogSnapshot(newVersion, next.values());
+    }
+
+    /**
+     * Returns a new snapshot with the given entries replaced where only their stock moved: lookups, sort
+     * orders and every facet but in-stock are shared with this one. Null when an entry is new here or its
+     * variants or content differ, so the caller should use {@link #with} instead.
+     */
+    public CatalogSnapshot withStock(long newVersion, Collection<CatalogEntry> changed) {
+        List<CatalogEntry> next = new ArrayList<>(entries);
+        int[] changedOrdinals = new int[changed.size()];
+        long nextHash = contentHash;
+        int i = 0;
+        for (CatalogEntry entry : changed) {
+            int ordinal = ordinalOf(entry.getId());
+            if (ordinal < 0 || !entries.get(ordinal).sameExceptStock(entry)) return null;
+            nextHash += positionedHash(ordinal, entry) - positionedHash(ordinal, next.get(ordinal));
+            next.set(ordinal, entry);
+            changedOrdinals[i++] = ordinal;
+        }
+        return new CatalogSnapshot(newVersion, Collections.unmodifiableList(next), nextHash, this,
+                facets.withStock(next, changedOrdinals));
+    }
+
+    public long getVersion() { return version; }
+    /**
+     * Hash of the whole catalog content, so the same catalog hashes alike on every instance and across
+     * restarts, unlike the version, which counts this process's rebuilds.
+     */
+    public long getContentHash() { return contentHash; }
+    public List<CatalogEntry> getEntries() { return entries; }
+    public CatalogEntry findById(long id) { return at(ordinals.get(id)); }
+    public CatalogEntry findBySlug(String slug) { return at(bySlug.get(slug)); }
+    public int size() { return entries.size(); }
+
+    private static long positionedHash(int ordinal, CatalogEntry entry) {
+        return CatalogVariant.mix(ordinal, entry.contentHash());
+    }
+
+    /**
+     * The product owning the variant, or null when the variant is not in this snapshot.
+     */
+    public CatalogEntry findByVariantId(long variantId) { return at(byVariantId.get(variantId)); }
+
+    /**
+     * A variant of an active product, or null when the variant is not in this snapshot.
+     */
+    public CatalogVariant findVariant(long variantId) {
+        CatalogEntry entry = findByVariantId(variantId);
+        if (entry == null) return null;
+        return entry.getVariants().stream().filter(variant -> variant.getId() == variantId).findFirst().orElse(null);
+    }
+
+    /**
+     * Position of the product in {@link #getEntries()}, or -1 when it is not in this snapshot.
+     */
+    public int ordinalOf(long id) { return ordinals.getOrDefault(id, -1); }
+
+    private CatalogEntry at(Integer ordinal) {
+        return ordinal != null ? entries.get(ordinal) : null;
+    }
+
+    CatalogFacets getFacets() { return facets; }
+    public FilterOptionsDto getFilterOptions() { return filterOptions; }
+
+    /**
+     * Entry ordinals sorted by the given keyset order; computed once per snapshot and sort.
+     */
+    int[] order(CatalogSort sort) {
+        return orders.computeIfAbsent(sort, s -> IntStream.range(0, entries.size()).boxed()
+                .sorted((a, b) -> s.comparator().compare(entries.get(a), entries.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray());
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.ProductListingRow;
+import org.example.eshop.dto.VariantListingRow;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the current {@link CatalogSnapshot}. The snapshot is built lazily on first use and refreshed
+ * per product after each committed {@link CatalogChangedEvent}; readers just dereference the current one.
+ * Stock-only changes swap in the changed entries and reuse everything else the snapshot derived. Events
+ * only reach this process, so every {@code shop.cache.catalog-refresh-interval-ms} a cheap fingerprint of
+ * the catalog tables is compared with the one taken at the last full build, and the snapshot is rebuilt
+ * when another instance (or this one) has changed anything since.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final ProductRepository productRepository;
+    private final VariantRepository variantRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private volatile String builtFingerprint;
+
+    public CatalogSnapshotService(ProductRepository productRepository,
+                                  VariantRepository variantRepository,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.variantRepository = variantRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) return snapshot;
+        synchronized (this) {
+            snapshot = current.get();
+            if (snapshot == null) {
+                snapshot = loadFull(1L);
+                current.set(snapshot);
+                eventPublisher.publishEvent(CatalogSnapshotUpdatedEvent.full(snapshot));
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Validator for everything derived from the catalog: changes whenever the catalog content or any
+     * stock level does, and is the same on every instance holding the same catalog.
+     */
+    public CatalogVersion currentVersion() {
+        return new CatalogVersion("\"" + Long.toHexString(current().getContentHash()) + "\"");
+    }
+
+    /**
+     * Rebuilds the whole snapshot from the database and swaps it in.
+     */
+    public synchronized CatalogSnapshot rebuild() {
+        CatalogSnapshot previous = current.get();
+        CatalogSnapshot snapshot = loadFull(previous != null ? previous.getVersion() + 1 : 1L);
+        current.set(snapshot);
+        eventPublisher.publishEvent(CatalogSnapshotUpdatedEvent.full(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * Rebuilds the snapshot when the catalog tables changed since the last full build.
+     */
+    @Scheduled(initialDelayString = "${shop.cache.catalog-refresh-interval-ms:30000}",
+            fixedDelayString = "${shop.cache.catalog-refresh-interval-ms:30000}")
+    public void refreshIfChanged() {
+        if (current.get() == null) return;
+        String fingerprint = productRepository.findCatalogFingerprint();
+        if (!Objects.equals(fingerprint, builtFingerprint)) {
+            logger.debug("Catalog tables changed since the last build; rebuilding the snapshot");
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isStockOnly()) {
+            refreshStock(event.getProductIds());
+        } else {
+            refreshProducts(event.getProductIds());
+        }
+    }
+
+    /**
+     * Reloads the given products and swaps in a new snapshot with just those entries replaced.
+     */
+    public synchronized CatalogSnapshot refreshProducts(Set<Long> productIds) {
+        return refresh(productIds, false);
+    }
+
+    /**
+     * Like {@link #refreshProducts}, for changes that only moved stock: the new snapshot shares the
+     * lookups, sort orders and facets of the previous one except in-stock. Falls back to a product refresh
+     * when more than stock turns out to have changed.
+     */
+    public synchronized CatalogSnapshot refreshStock(Set<Long> productIds) {
+        return refresh(productIds, true);
+    }
+
+    private CatalogSnapshot refresh(Set<Long> productIds, boolean stockOnly) {
+        CatalogSnapshot previous = current.get();
+        if (previous == null) {
+            // Nothing built yet; the first reader will load a fresh snapshot
+            return null;
+        }
+
+        Set<Long> ids = productIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        List<CatalogEntry> upserts = ids.isEmpty() ? List.of() : toEntries(
+                productRepository.findListingRowsByIdIn(ProductStatus.ACTIVE, ids),
+                variantRepository.findListingRowsByProductIdIn(ProductStatus.ACTIVE, ids));
+        // Anything not returned is inactive or gone
+        Set<Long> removed = new HashSet<>(ids);
+        upserts.forEach(e -> removed.remove(e.getId()));
+
+        CatalogSnapshot snapshot = stockOnly && removed.isEmpty() ? previous.withStock(previous.getVersion() + 1, upserts) : null;
+        if (snapshot == null) {
+            snapshot = previous.with(previous.getVersion() + 1, upserts, removed);
+        }
+        current.set(snapshot);
+        eventPublisher.publishEvent(new CatalogSnapshotUpdatedEvent(snapshot, productIds, false));
+        logger.debug("Catalog snapshot v{} refreshed for products {}", snapshot.getVersion(), productIds);
+        return snapshot;
+    }
+
+    /**
+     * Loads the active catalog from two projection queries: per-product aggregates from one GROUP BY,
+     * and the flat variant/lot columns the variant-level filters need. No entities are hydrated.
+     */
+    private CatalogSnapshot loadFull(long version) {
+        // Taken first, so a change landing during the load shows up as a difference at the next check
+        builtFingerprint = productRepository.findCatalogFingerprint();
+        List<CatalogEntry> entries = toEntries(
+                productRepository.findListingRows(ProductStatus.ACTIVE),
+                variantRepository.findListingRows(ProductStatus.ACTIVE));
+        logger.info("Catalog snapshot v{} built with {} products", version, entries.size());
+        return new CatalogSnapshot(version, entries);
+    }
+
+    private List<CatalogEntry> toEntries(List<ProductListingRow> products, List<VariantListingRow> variants) {
+        Map<Long, List<CatalogVariant>> variantsByProduct = variants.stream()
+                .collect(Collectors.groupingBy(VariantListingRow::getProductId,
+                        Collectors.mapping(CatalogVariant::of, Collectors.toList())));
+        return products.stream()
+                .map(row -> CatalogEntry.of(row, variantsByProduct.getOrDefault(row.getId(), List.of())))
+                .toList();
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.eshop.service;
+
+import java.util.Set;
+
+/**
+ * Published synchronously by {@link CatalogSnapshotService} right after a new snapshot is swapped in,
+ * so derived in-memory indexes can follow it. {@code changedProductIds} is empty for a full rebuild.
+ */
+public final class CatalogSnapshotUpdatedEvent {
+    private final CatalogSnapshot snapshot;
+    private final Set<Long> changedProductIds;
+    private final boolean fullRebuild;
+
+    public CatalogSnapshotUpdatedEvent(CatalogSnapshot snapshot, Set<Long> changedProductIds, boolean fullRebuild) {
+        this.snapshot = snapshot;
+        this.changedProductIds = Set.copyOf(changedProductIds);
+        this.fullRebuild = fullRebuild;
+    }
+
+    public static CatalogSnapshotUpdatedEvent full(CatalogSnapshot snapshot) {
+        return new CatalogSnapshotUpdatedEvent(snapshot, Set.of(), true);
+    }
+
+    public CatalogSnapshot getSnapshot() { return snapshot; }
+    public Set<Long> getChangedProductIds() { return changedProductIds; }
+    public boolean isFullRebuild() { return fullRebuild; }
+}
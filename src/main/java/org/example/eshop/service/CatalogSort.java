@@ -0,0 +1,80 @@
+package org.example.eshop.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Listing orders. Every keyset order is total: ties on the sort key are broken by product id, so a
+ * (key, id) pair taken from the last row of a page is enough to resume after it.
+ */
+public enum CatalogSort {
+    DEFAULT("default", false, CatalogEntry::getId, Long::valueOf, false),
+    RELEVANCE("relevance", false, null, null, false),
+    PRICE_ASC("price_asc", false, e -> e.getSummary().getMinPrice(), BigDecimal::new, false),
+    PRICE_DESC("price_desc", true, e -> e.getSummary().getMinPrice(), BigDecimal::new, false),
+    NEWEST("newest", true, CatalogEntry::getCreatedAt, LocalDateTime::parse, true),
+    TITLE("title", false, e -> e.getTitle().toLowerCase(Locale.ROOT), Function.identity(), false),
+    HARVEST_YEAR("harvest_year", true, e -> e.getSummary().getHarvestYear(), Integer::valueOf, false);
+
+    private final String paramName;
+    private final Comparator<CatalogEntry> comparator; // null for RELEVANCE
+    private final Function<CatalogEntry, Comparable<?>> key;
+    private final Function<String, Comparable<?>> keyParser;
+    private final Comparator<Comparable<?>> keyOrder;
+    private final boolean idDescending;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    CatalogSort(String paramName, boolean descending,
+                Function<CatalogEntry, ? extends Comparable<?>> key,
+                Function<String, ? extends Comparable<?>> keyParser,
+                boolean idDescending) {
+        this.paramName = paramName;
+        this.key = (Function) key;
+        this.keyParser = (Function) keyParser;
+        this.keyOrder = (Comparator) (descending
+                ? Comparator.nullsLast(Comparator.reverseOrder())
+                : Comparator.nullsLast(Comparator.naturalOrder()));
+        this.idDescending = idDescending;
+        this.comparator = key == null ? null : (a, b) -> compare(this.key.apply(a), a.getId(), this.key.apply(b), b.getId());
+    }
+
+    public String getParamName() { return paramName; }
+
+    public boolean isKeyset() { return comparator != null; }
+
+    Comparator<CatalogEntry> comparator() { return comparator; }
+
+    /**
+     * Orders an entry against a (key, id) position taken from a page token.
+     */
+    int compareTo(CatalogEntry entry, Comparable<?> positionKey, long positionId) {
+        return compare(key.apply(entry), entry.getId(), positionKey, positionId);
+    }
+
+    String encodeKey(CatalogEntry entry) {
+        Comparable<?> value = key.apply(entry);
+        if (value == null) return "";
+        return value instanceof BigDecimal price ? price.toPlainString() : value.toString();
+    }
+
+    Comparable<?> decodeKey(String encoded) {
+        return encoded.isEmpty() ? null : keyParser.apply(encoded);
+    }
+
+    private int compare(Comparable<?> keyA, long idA, Comparable<?> keyB, long idB) {
+        int byKey = keyOrder.compare(keyA, keyB);
+        if (byKey != 0) return byKey;
+        return idDescending ? Long.compare(idB, idA) : Long.compare(idA, idB);
+    }
+
+    public static CatalogSort fromParam(String value) {
+        if (value == null || value.isBlank()) return null;
+        for (CatalogSort sort : values()) {
+            if (sort.paramName.equalsIgnoreCase(value.trim())) return sort;
+        }
+        throw new IllegalArgumentException("Unknown sort: " + value);
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.VariantListingRow;
+import org.example.eshop.entity.Lot;
+import org.example.eshop.entity.Season;
+import org.example.eshop.entity.StorageType;
+import org.example.eshop.entity.Variant;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Immutable view of a variant (and its lot) as held by the in-memory catalog snapshot.
+ */
+public final class CatalogVariant {
+    private final long id;
+    private final String sku;
+    private final String title;
+    private final BigDecimal price;
+    private final BigDecimal weight;
+    private final BigDecimal shippingWeight; // kilograms, as on the variant
+    private final int availableQty;
+    private final Long lotId; // nullable
+    private final Integer harvestYear; // nullable
+    private final Season season; // nullable
+    private final StorageType storageType; // nullable
+    private final long contentHash;
+
+    public CatalogVariant(long id, String sku, String title, BigDecimal price, BigDecimal weight, BigDecimal shippingWeight, int availableQty,
+                          Long lotId, Integer harvestYear, Season season, StorageType storageType) {
+        this.id = id;
+        this.sku = sku;
+        this.title = title;
+        this.price = price;
+        this.weight = weight;
+        this.shippingWeight = shippingWeight;
+        this.availableQty = availableQty;
+        this.lotId = lotId;
+        this.harvestYear = harvestYear;
+        this.season = season;
+        this.storageType = storageType;
+        this.contentHash = hash();
+    }
+
+    public static CatalogVariant of(Variant variant, Lot lot) {
+        return new CatalogVariant(
+                variant.getId() != null ? variant.getId() : 0L,
+                variant.getSku(),
+                variant.getTitle(),
+                variant.getPrice(),
+                variant.getWeight(),
+                variant.getShippingWeight(),
+                variant.availableQty(),
+                variant.getLotId(),
+                lot != null ? lot.getHarvestYear() : null,
+                lot != null ? lot.getSeason() : null,
+                lot != null ? lot.getStorageType() : null
+        );
+    }
+
+    public static CatalogVariant of(VariantListingRow row) {
+        return new CatalogVariant(
+                row.getId(),
+                row.getSku(),
+                row.getTitle(),
+                row.getPrice(),
+                row.getWeight(),
+                row.getShippingWeight(),
+                row.getAvailableQty(),
+                row.getLotId(),
+                row.getHarvestYear(),
+                row.getSeason(),
+                row.getStorageType()
+        );
+    }
+
+    public long getId() { return id; }
+    public String getSku() { return sku; }
+    public String getTitle() { return title; }
+    public BigDecimal getPrice() { return price; }
+    public BigDecimal getWeight() { return weight; }
+    public BigDecimal getShippingWeight() { return shippingWeight; }
+    public int getAvailableQty() { return availableQty; }
+    public Long getLotId() { return lotId; }
+    public Integer getHarvestYear() { return harvestYear; }
+    public Season getSeason() { return season; }
+    public StorageType getStorageType() { return storageType; }
+
+    public boolean isInStock() { return availableQty > 0; }
+
+    /**
+     * Hash of every field, stock included. Built only from values whose hash is the same in every JVM.
+     */
+    long contentHash() { return contentHash; }
+
+    private long hash() {
+        long h = mix(id, Objects.hashCode(sku));
+        h = mix(h, Objects.hashCode(title));
+        h = mix(h, amountHash(price));
+        h = mix(h, amountHash(weight));
+        h = mix(h, amountHash(shippingWeight));
+        h = mix(h, availableQty);
+        h = mix(h, lotId != null ? lotId : -1);
+        h = mix(h, harvestYear != null ? harvestYear : -1);
+        h = mix(h, season != null ? season.name().hashCode() : -1);
+        return mix(h, storageType != null ? storageType.name().hashCode() : -1);
+    }
+
+    static long mix(long h, long value) {
+        h = (h ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static int amountHash(BigDecimal amount) {
+        // Consistent with sameAmount: 6.0 and 6.00 hash alike
+        return amount == null ? -1 : amount.stripTrailingZeros().hashCode();
+    }
+
+    boolean sameExceptStock(CatalogVariant other) {
+        return id == other.id && Objects.equals(sku, other.sku) && Objects.equals(title, other.title)
+                && sameAmount(price, other.price) && sameAmount(weight, other.weight)
+                && sameAmount(shippingWeight, other.shippingWeight) && Objects.equals(lotId, other.lotId)
+                && Objects.equals(harvestYear, other.harvestYear) && season == other.season
+                && storageType == other.storageType;
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.eshop.service;
+
+/**
+ * HTTP validator for a catalog snapshot: a strong ETag derived from the catalog content.
+ */
+public final class CatalogVersion {
+    private final String etag;
+
+    public CatalogVersion(String etag) {
+        this.etag = etag;
+    }
+
+    public String getEtag() { return etag; }
+}
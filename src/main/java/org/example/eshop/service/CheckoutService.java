@@ -2,6 +2,7 @@ package org.example.eshop.service;
 
 import org.example.eshop.dto.CheckoutRequest;
 import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.CartItem;
 import org.example.eshop.entity.Order;
 import org.example.eshop.entity.OrderItem;
 import org.example.eshop.entity.Variant;
@@ -10,13 +11,18 @@ import org.example.eshop.repository.CartRepository;
 import org.example.eshop.repository.OrderItemRepository;
 import org.example.eshop.repository.OrderRepository;
 import org.example.eshop.repository.VariantRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -24,30 +30,43 @@ public class CheckoutService {
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final CartStore cartStore;
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final VariantRepository variantRepository;
+    private final InventoryEngine inventoryEngine;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderNumberGenerator orderNumberGenerator;
 
     public CheckoutService(
             CartRepository cartRepository,
             CartItemRepository cartItemRepository,
+            CartStore cartStore,
             OrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
             VariantRepository variantRepository,
-            NotificationService notificationService
+            InventoryEngine inventoryEngine,
+            NotificationService notificationService,
+            ApplicationEventPublisher eventPublisher,
+            OrderNumberGenerator orderNumberGenerator
     ) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
+        this.cartStore = cartStore;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.variantRepository = variantRepository;
+        this.inventoryEngine = inventoryEngine;
         this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
+        this.orderNumberGenerator = orderNumberGenerator;
     }
 
     public Order submitCheckout(Long cartId, String email, String address) {
         validateCheckoutInput(email, address);
 
+        cartStore.flush(cartId);
         Cart cart = cartRepository.findByIdWithItems(cartId);
         if (cart == null) {
             throw new IllegalArgumentException("Cart not found with id: " + cartId);
@@ -58,28 +77,21 @@ public class CheckoutService {
 
         validateAndReserveInventory(cart);
 
-        String orderNumber = generateOrderNumber();
+        String orderNumber = orderNumberGenerator.next();
 
         Order order = new Order(orderNumber, email, address,
                 cart.getSubtotal(), cart.getVatAmount(), cart.getShippingCost(), cart.getTotal());
 
         Order savedOrder = orderRepository.save(order);
 
-        cart.getItems().forEach(cartItem -> {
-            Variant variant = variantRepository.findById(cartItem.getVariantId()).orElse(null);
-            if (variant == null) {
-                throw new IllegalStateException("Variant not found during checkout: " + cartItem.getVariantId());
-            }
-            OrderItem orderItem = new OrderItem(savedOrder.getId(), cartItem.getVariantId(),
-                    variant.getTitle(), cartItem.getQty(), cartItem.getPriceSnapshot());
-            orderItemRepository.save(orderItem);
-            savedOrder.addItem(orderItem);
-        });
+        addOrderItems(cart, savedOrder);
 
         notificationService.logOrderReceived(savedOrder);
 
         cart.clearItems();
+        cart.resetTotals();
         cartRepository.save(cart);
+        cartStore.evict(cartId);
 
         return savedOrder;
     }
@@ -87,6 +99,7 @@ public class CheckoutService {
     public Order submitCheckout(Long cartId, CheckoutRequest request) {
         validateCheckoutRequest(request);
 
+        cartStore.flush(cartId);
         Cart cart = cartRepository.findByIdWithItems(cartId);
         if (cart == null) {
             throw new IllegalArgumentException("Cart not found with id: " + cartId);
@@ -97,7 +110,7 @@ public class CheckoutService {
 
         validateAndReserveInventory(cart);
 
-        String orderNumber = generateOrderNumber();
+        String orderNumber = orderNumberGenerator.next();
         String addressSummary = formatAddress(request);
 
         Order order = new Order(orderNumber, request.getEmail(), addressSummary,
@@ -113,21 +126,14 @@ public class CheckoutService {
 
         Order savedOrder = orderRepository.save(order);
 
-        cart.getItems().forEach(cartItem -> {
-            Variant variant = variantRepository.findById(cartItem.getVariantId()).orElse(null);
-            if (variant == null) {
-                throw new IllegalStateException("Variant not found during checkout: " + cartItem.getVariantId());
-            }
-            OrderItem orderItem = new OrderItem(savedOrder.getId(), cartItem.getVariantId(),
-                    variant.getTitle(), cartItem.getQty(), cartItem.getPriceSnapshot());
-            orderItemRepository.save(orderItem);
-            savedOrder.addItem(orderItem);
-        });
+        addOrderItems(cart, savedOrder);
 
         notificationService.logOrderReceived(savedOrder);
 
         cart.clearItems();
+        cart.resetTotals();
         cartRepository.save(cart);
+        cartStore.evict(cartId);
 
         return savedOrder;
     }
@@ -156,25 +162,50 @@ public class CheckoutService {
         return email.matches(emailRegex);
     }
 
+    /**
+     * Reserves every line's quantity through the inventory engine in one call; nothing is read first. When a
+     * line cannot be covered, the variant is read once for the message and the exception rolls the
+     * whole reservation back.
+     */
     private void validateAndReserveInventory(Cart cart) {
-        cart.getItems().forEach(cartItem -> {
-            Variant variant = variantRepository.findById(cartItem.getVariantId()).orElse(null);
+        Map<Long, Integer> quantities = new HashMap<>();
+        cart.getItems().forEach(cartItem -> quantities.merge(cartItem.getVariantId(), cartItem.getQty(), Integer::sum));
+
+        List<Long> unreserved = inventoryEngine.reserve(quantities);
+        if (!unreserved.isEmpty()) {
+            Long variantId = unreserved.get(0);
+            Variant variant = variantRepository.findById(variantId).orElse(null);
             if (variant == null) {
-                throw new IllegalStateException("Variant not found: " + cartItem.getVariantId());
-            }
-            int availableStock = variant.getStockQty() - variant.getReservedQty();
-            if (cartItem.getQty() > availableStock) {
-                throw new IllegalArgumentException("Insufficient stock for " + variant.getTitle() + ". Available: " + availableStock + ", requested: " + cartItem.getQty());
+                throw new IllegalStateException("Variant not found: " + variantId);
             }
-            variant.setReservedQty(variant.getReservedQty() + cartItem.getQty());
-            variantRepository.save(variant);
-        });
+            int availableStock = inventoryEngine.available(variant);
+            throw new IllegalArgumentException("Insufficient stock for " + variant.getTitle() + ". Available: " + availableStock + ", requested: " + quantities.get(variantId));
+        }
     }
 
-    private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        int random = ThreadLocalRandom.current().nextInt(1000, 9999);
-        return "ORD-" + timestamp + '-' + random;
+    /**
+     * Reads the variants for the line titles in one query and saves the order lines together, so they go
+     * out as one JDBC insert batch.
+     */
+    private void addOrderItems(Cart cart, Order savedOrder) {
+        Map<Long, Variant> variants = new HashMap<>();
+        variantRepository.findAllById(cart.getItems().stream().map(CartItem::getVariantId).collect(Collectors.toSet()))
+                .forEach(variant -> variants.put(variant.getId(), variant));
+
+        List<OrderItem> orderItems = new ArrayList<>(cart.getItems().size());
+        Set<Long> productIds = new HashSet<>();
+        cart.getItems().forEach(cartItem -> {
+            Variant variant = variants.get(cartItem.getVariantId());
+            if (variant == null) {
+                throw new IllegalStateException("Variant not found during checkout: " + cartItem.getVariantId());
+            }
+            orderItems.add(new OrderItem(savedOrder.getId(), cartItem.getVariantId(),
+                    variant.getTitle(), cartItem.getQty(), cartItem.getPriceSnapshot()));
+            productIds.add(variant.getProductId());
+        });
+        orderItemRepository.saveAll(orderItems);
+        orderItems.forEach(savedOrder::addItem);
+        eventPublisher.publishEvent(CatalogChangedEvent.stockChanged(productIds));
     }
 
     private void validateCheckoutRequest(CheckoutRequest request) {
@@ -0,0 +1,108 @@
+package org.example.eshop.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Encodes a cart's lines (variant id to quantity) as a cookie value: varint pairs with variant ids
+ * delta-coded in ascending order, base64url, then a truncated HMAC-SHA256 tag. Three lines take about
+ * 35 characters. Values that do not verify decode to null, so a visitor cannot price or alter a cart
+ * they were not given.
+ */
+public final class CookieCartCodec {
+
+    static final int MAX_LINES = 64;
+    private static final int TAG_BYTES = 16;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    public CookieCartCodec(byte[] secret) {
+        if (secret == null || secret.length == 0) {
+            throw new IllegalArgumentException("Cookie cart secret must not be empty");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    public String encode(Map<Long, Integer> lines) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previous = 0;
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(lines).entrySet()) {
+            writeVarint(out, line.getKey() - previous);
+            writeVarint(out, line.getValue());
+            previous = line.getKey();
+        }
+        String payload = ENCODER.encodeToString(out.toByteArray());
+        return payload + '.' + ENCODER.encodeToString(tag(payload));
+    }
+
+    /**
+     * The lines in {@code value}, or null when it is malformed or its tag does not match.
+     */
+    public Map<Long, Integer> decode(String value) {
+        if (value == null) return null;
+        int dot = value.indexOf('.');
+        if (dot < 0) return null;
+        String payload = value.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(tag(payload), DECODER.decode(value.substring(dot + 1)))) return null;
+            ByteBuffer in = ByteBuffer.wrap(DECODER.decode(payload));
+            Map<Long, Integer> lines = new TreeMap<>();
+            long variantId = 0;
+            while (in.hasRemaining()) {
+                long delta = readVarint(in);
+                long qty = readVarint(in);
+                if (delta <= 0 || qty <= 0 || qty > Integer.MAX_VALUE || lines.size() == MAX_LINES) {
+                    return null;
+                }
+                variantId += delta;
+                lines.put(variantId, (int) qty);
+            }
+            return Collections.unmodifiableMap(lines);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    private byte[] tag(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)), TAG_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+}
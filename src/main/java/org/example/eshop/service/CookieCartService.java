@@ -0,0 +1,192 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.CartDto;
+import org.example.eshop.dto.CartItemDto;
+import org.example.eshop.dto.CartSummaryDto;
+import org.example.eshop.dto.ShippingQuotesDto;
+import org.example.eshop.dto.VariantSummaryDto;
+import org.example.eshop.entity.Cart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Anonymous carts that live in a signed cookie instead of the {@code carts} table, enabled with
+ * {@code shop.cart.cookie-carts}. Prices, titles and stock come from the catalog snapshot, so reading or
+ * changing such a cart touches no table; it is saved as a regular cart at checkout, or once it holds more
+ * than {@code cookie-max-lines} lines.
+ */
+@Service
+public class CookieCartService {
+
+    /**
+     * Cart id under which a cookie cart is addressed in the cart API.
+     */
+    public static final long COOKIE_CART_ID = 0L;
+
+    private static final Logger log = LoggerFactory.getLogger(CookieCartService.class);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CartService cartService;
+    private final VatCalculatorService vatCalculatorService;
+    private final ShippingCalculatorService shippingCalculatorService;
+    private final CookieCartCodec codec;
+    private final boolean enabled;
+    private final int maxLines;
+
+    public CookieCartService(CatalogSnapshotService catalogSnapshotService,
+                             CartService cartService,
+                             VatCalculatorService vatCalculatorService,
+                             ShippingCalculatorService shippingCalculatorService,
+                             ShopProperties shopProperties) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.cartService = cartService;
+        this.vatCalculatorService = vatCalculatorService;
+        this.shippingCalculatorService = shippingCalculatorService;
+        CartProperties cart = shopProperties.getCart();
+        this.enabled = cart.isCookieCarts();
+        this.maxLines = Math.min(cart.getCookieMaxLines(), CookieCartCodec.MAX_LINES);
+        this.codec = new CookieCartCodec(secret(cart.getCookieSecret(), enabled));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The lines held in a cookie value; empty when there is none or it does not verify.
+     */
+    public Map<Long, Integer> decode(String cookieValue) {
+        Map<Long, Integer> lines = codec.decode(cookieValue);
+        return lines != null ? lines : Map.of();
+    }
+
+    public String encode(Map<Long, Integer> lines) {
+        return codec.encode(lines);
+    }
+
+    /**
+     * Whether the cart has outgrown the cookie and should be saved with {@link #persist}.
+     */
+    public boolean exceedsLimit(Map<Long, Integer> lines) {
+        return lines.size() > maxLines;
+    }
+
+    public Map<Long, Integer> addItem(Map<Long, Integer> lines, long variantId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return setQuantity(lines, variantId, lines.getOrDefault(variantId, 0) + quantity);
+    }
+
+    /**
+     * Sets a line's quantity, adding the line if needed; 0 removes it.
+     */
+    public Map<Long, Integer> setQuantity(Map<Long, Integer> lines, long variantId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
+        }
+        Map<Long, Integer> next = new TreeMap<>(lines);
+        if (quantity == 0) {
+            next.remove(variantId);
+            return next;
+        }
+        CatalogVariant variant = catalogSnapshotService.current().findVariant(variantId);
+        if (variant == null) {
+            throw new IllegalArgumentException("Variant not found with id: " + variantId);
+        }
+        // Snapshot stock may lag by a refresh; checkout re-checks against the database
+        if (quantity > variant.getAvailableQty()) {
+            throw new IllegalArgumentException("Insufficient stock. Available: " + variant.getAvailableQty() + ", requested: " + quantity);
+        }
+        next.put(variantId, quantity);
+        return next;
+    }
+
+    /**
+     * Prices the lines at current catalog prices. Lines whose product has left the catalog are skipped.
+     */
+    public CartDto toCartDto(Map<Long, Integer> lines) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        List<CartItemDto> items = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        int weightGrams = 0;
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            CatalogEntry product = snapshot.findByVariantId(line.getKey());
+            CatalogVariant variant = snapshot.findVariant(line.getKey());
+            if (product == null || variant == null) continue;
+            BigDecimal lineTotal = variant.getPrice().multiply(BigDecimal.valueOf(line.getValue()));
+            subtotal = subtotal.add(lineTotal);
+            weightGrams += CartService.shippingWeightGrams(variant.getShippingWeight()) * line.getValue();
+            items.add(new CartItemDto(0L, variant.getId(), line.getValue(), variant.getPrice(), lineTotal,
+                    new VariantSummaryDto(variant.getId(), variant.getSku(), variant.getTitle(), variant.getPrice(),
+                            variant.getAvailableQty(), 0, product.getTitle())));
+        }
+        if (items.isEmpty()) {
+            return new CartDto(COOKIE_CART_ID, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, null, null, items);
+        }
+        BigDecimal shipping = Optional.ofNullable(shippingCalculatorService.calculateShippingCost("domestic", weightGrams))
+                .orElse(BigDecimal.ZERO);
+        return new CartDto(COOKIE_CART_ID, subtotal, vatCalculatorService.extractVatAmount(subtotal), shipping,
+                subtotal.add(shipping), null, null, items);
+    }
+
+    public CartSummaryDto toSummary(Map<Long, Integer> lines) {
+        CartDto cart = toCartDto(lines);
+        int itemCount = cart.getItems().stream().mapToInt(CartItemDto::getQty).sum();
+        return new CartSummaryDto(COOKIE_CART_ID, itemCount, cart.getSubtotal(), cart.getTotal(), shippingWeightGrams(lines));
+    }
+
+    public ShippingQuotesDto toShippingQuotes(Map<Long, Integer> lines) {
+        return cartService.shippingQuotes(COOKIE_CART_ID, shippingWeightGrams(lines));
+    }
+
+    private int shippingWeightGrams(Map<Long, Integer> lines) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        int weightGrams = 0;
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            CatalogVariant variant = snapshot.findVariant(line.getKey());
+            if (variant == null || snapshot.findByVariantId(line.getKey()) == null) continue;
+            weightGrams += CartService.shippingWeightGrams(variant.getShippingWeight()) * line.getValue();
+        }
+        return weightGrams;
+    }
+
+    /**
+     * Saves the lines as a regular cart. Lines the database no longer accepts (variant gone, stock
+     * short) are left out rather than failing the whole cart; each line commits on its own for that reason.
+     */
+    public Cart persist(Map<Long, Integer> lines) {
+        Long cartId = cartService.createCart().getId();
+        lines.forEach((variantId, quantity) -> {
+            try {
+                cartService.addItemToCart(cartId, variantId, quantity);
+            } catch (IllegalArgumentException e) {
+                log.debug("Dropping cookie cart line {} x{}: {}", variantId, quantity, e.getMessage());
+            }
+        });
+        return cartService.getCartWithItems(cartId);
+    }
+
+    private static byte[] secret(String configured, boolean enabled) {
+        if (configured != null && !configured.isBlank()) {
+            return configured.getBytes(StandardCharsets.UTF_8);
+        }
+        if (enabled) {
+            // A per-process key would invalidate every cookie cart on restart and differ between instances
+            throw new IllegalStateException("shop.cart.cookie-secret must be set when shop.cart.cookie-carts is enabled");
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
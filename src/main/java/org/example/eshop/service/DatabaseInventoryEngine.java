@@ -0,0 +1,54 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.VariantRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes stock_qty and reserved_qty on the variant rows directly, one batch of conditional updates per
+ * call, within the caller's transaction.
+ */
+@Service
+@ConditionalOnProperty(prefix = "shop.inventory", name = "engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryEngine implements InventoryEngine {
+
+    private final VariantRepository variantRepository;
+
+    public DatabaseInventoryEngine(VariantRepository variantRepository) {
+        this.variantRepository = variantRepository;
+    }
+
+    @Override
+    public List<Long> reserve(Map<Long, Integer> quantitiesByVariantId) {
+        return variantRepository.reserveStock(quantitiesByVariantId);
+    }
+
+    @Override
+    public void commit(Map<Long, Integer> quantitiesByVariantId) {
+        List<Long> unchanged = variantRepository.commitReserved(quantitiesByVariantId);
+        if (!unchanged.isEmpty()) {
+            Long variantId = unchanged.get(0);
+            Variant variant = variantRepository.findById(variantId)
+                    .orElseThrow(() -> new IllegalStateException("Variant " + variantId + " not found"));
+            throw new IllegalStateException("Insufficient reserved stock for variant " + variant.getSku() + ". " +
+                    "Required: " + quantitiesByVariantId.get(variantId) + ", Reserved: " + variant.getReservedQty());
+        }
+    }
+
+    @Override
+    public void release(Map<Long, Integer> quantitiesByVariantId) {
+        List<Long> missing = variantRepository.releaseReserved(quantitiesByVariantId);
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Variant " + missing.get(0) + " not found");
+        }
+    }
+
+    @Override
+    public int available(Variant variant) {
+        return variant.getStockQty() - variant.getReservedQty();
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.eshop.service;
+
+public class IdempotencyProperties {
+    private boolean enabled = false; // keys are held per process, so only for a single instance
+    private int ttlMinutes = 60;
+    private int maxKeys = 10_000;
+    private int maxResponseBytes = 64 * 1024;
+    private int maxRequestBytes = 64 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTtlMinutes() {
+        return ttlMinutes;
+    }
+
+    public void setTtlMinutes(int ttlMinutes) {
+        this.ttlMinutes = ttlMinutes;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public int getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    public void setMaxResponseBytes(int maxResponseBytes) {
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    public int getMaxRequestBytes() {
+        return maxRequestBytes;
+    }
+
+    public void setMaxRequestBytes(int maxRequestBytes) {
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyProperties{" +
+                "enabled=" + enabled +
+                ", ttlMinutes=" + ttlMinutes +
+                ", maxKeys=" + maxKeys +
+                ", maxResponseBytes=" + maxResponseBytes +
+                ", maxRequestBytes=" + maxRequestBytes +
+                '}';
+    }
+}
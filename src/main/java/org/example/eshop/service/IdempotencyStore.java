@@ -0,0 +1,166 @@
+package org.example.eshop.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responses recorded under a client's {@code Idempotency-Key}, kept for {@code shop.idempotency.ttl-minutes}.
+ * The first request with a key claims it; once it completes, duplicates get the recorded response back
+ * instead of running again. Entries are held in completion order, so expiry and the {@code max-keys}
+ * bound both drop from the head. The bound only drops completed entries: dropping a claim whose request
+ * is still running would let a retry run it a second time. A claim leaves by completion or release, or by
+ * expiry once it is older than the time to live, far beyond any request timeout.
+ */
+@Service
+public class IdempotencyStore {
+
+    public enum Outcome {
+        /** The key is new and now held by the caller, who must {@link #complete} or {@link #release} it. */
+        CLAIMED,
+        /** The key completed before; {@link Claim#getResponse()} holds what to send back. */
+        REPLAY,
+        /** A request with the key is still running. */
+        IN_PROGRESS,
+        /** The key was used before for a different request. */
+        MISMATCH
+    }
+
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(); // guarded by this
+
+    public IdempotencyStore(ShopProperties shopProperties) {
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(shopProperties.getIdempotency().getTtlMinutes());
+        this.maxKeys = Math.max(1, shopProperties.getIdempotency().getMaxKeys());
+    }
+
+    /**
+     * Looks up {@code key}, claiming it when unseen. {@code fingerprint} identifies the request the key was
+     * first used for; reusing the key for anything else is a {@link Outcome#MISMATCH}.
+     */
+    public synchronized Claim claim(String key, String fingerprint) {
+        expire(System.nanoTime());
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entries.put(key, new Entry(fingerprint, System.nanoTime()));
+            trim();
+            return new Claim(Outcome.CLAIMED, null);
+        }
+        if (!entry.fingerprint.equals(fingerprint)) {
+            return new Claim(Outcome.MISMATCH, null);
+        }
+        if (entry.response == null) {
+            return new Claim(Outcome.IN_PROGRESS, null);
+        }
+        return new Claim(Outcome.REPLAY, entry.response);
+    }
+
+    /**
+     * Records the response for a claimed key; its time to live starts now.
+     */
+    public synchronized void complete(String key, RecordedResponse response) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return;
+        entry.response = response;
+        entry.storedAt = System.nanoTime();
+        entries.put(key, entry);
+    }
+
+    /**
+     * Gives up a claimed key without a response, so a retry runs the request again.
+     */
+    public synchronized void release(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.response == null) {
+            entries.remove(key);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public synchronized void expire() {
+        expire(System.nanoTime());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void expire(long now) {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            if (now - eldest.next().storedAt < ttlNanos) return;
+            eldest.remove();
+        }
+    }
+
+    private void trim() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxKeys && eldest.hasNext()) {
+            if (eldest.next().response != null) {
+                eldest.remove();
+            }
+        }
+    }
+
+    public static final class Claim {
+        private final Outcome outcome;
+        private final RecordedResponse response;
+
+        private Claim(Outcome outcome, RecordedResponse response) {
+            this.outcome = outcome;
+            this.response = response;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public RecordedResponse getResponse() {
+            return response;
+        }
+    }
+
+    /**
+     * What is replayed for a key: status, the headers that matter to the client, and the body.
+     */
+    public static final class RecordedResponse {
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        public RecordedResponse(int status, Map<String, List<String>> headers, byte[] body) {
+            this.status = status;
+            this.headers = Map.copyOf(headers);
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private long storedAt;
+        private RecordedResponse response;
+
+        private Entry(String fingerprint, long storedAt) {
+            this.fingerprint = fingerprint;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.Variant;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where stock is reserved, sold and released. The implementation is chosen per deployment with
+ * {@code shop.inventory.engine}: {@code database} (default, conditional updates on the variant rows in the
+ * caller's transaction) or {@code ledger} (counters held in memory, journaled to the database in batches).
+ * Quantities are keyed by variant id; changes follow the caller's transaction and are undone when it
+ * rolls back.
+ */
+public interface InventoryEngine {
+
+    /**
+     * Reserves every quantity or none. Returns the ids of the variants without enough free stock (empty
+     * when all were reserved); the caller must roll back its transaction when any are.
+     */
+    List<Long> reserve(Map<Long, Integer> quantitiesByVariantId);
+
+    /**
+     * Turns reservations into sales: stock and reservation both drop by the quantity.
+     *
+     * @throws IllegalStateException when a variant is missing or has less reserved than the quantity
+     */
+    void commit(Map<Long, Integer> quantitiesByVariantId);
+
+    /**
+     * Gives reservations back; a reservation never drops below zero.
+     *
+     * @throws IllegalStateException when a variant is missing
+     */
+    void release(Map<Long, Integer> quantitiesByVariantId);
+
+    /**
+     * Stock still free to reserve for a variant the caller has already read.
+     */
+    int available(Variant variant);
+}
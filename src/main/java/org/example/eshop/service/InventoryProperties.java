@@ -0,0 +1,90 @@
+package org.example.eshop.service;
+
+public class InventoryProperties {
+    private String engine = "database"; // database | ledger
+    private long journalFlushIntervalMs = 500;
+    private int journalBatchSize = 500;
+    private long reconcileIntervalMs = 60000;
+    private boolean reservationExpiryEnabled = true;
+    private long reservationHoldMinutes = 1440;
+    private int reservationExpiryBatchSize = 200;
+    private long reservationExpiryIntervalMs = 300000;
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public long getJournalFlushIntervalMs() {
+        return journalFlushIntervalMs;
+    }
+
+    public void setJournalFlushIntervalMs(long journalFlushIntervalMs) {
+        this.journalFlushIntervalMs = journalFlushIntervalMs;
+    }
+
+    public int getJournalBatchSize() {
+        return journalBatchSize;
+    }
+
+    public void setJournalBatchSize(int journalBatchSize) {
+        this.journalBatchSize = journalBatchSize;
+    }
+
+    public long getReconcileIntervalMs() {
+        return reconcileIntervalMs;
+    }
+
+    public void setReconcileIntervalMs(long reconcileIntervalMs) {
+        this.reconcileIntervalMs = reconcileIntervalMs;
+    }
+
+    public boolean isReservationExpiryEnabled() {
+        return reservationExpiryEnabled;
+    }
+
+    public void setReservationExpiryEnabled(boolean reservationExpiryEnabled) {
+        this.reservationExpiryEnabled = reservationExpiryEnabled;
+    }
+
+    public long getReservationHoldMinutes() {
+        return reservationHoldMinutes;
+    }
+
+    public void setReservationHoldMinutes(long reservationHoldMinutes) {
+        this.reservationHoldMinutes = reservationHoldMinutes;
+    }
+
+    public int getReservationExpiryBatchSize() {
+        return reservationExpiryBatchSize;
+    }
+
+    public void setReservationExpiryBatchSize(int reservationExpiryBatchSize) {
+        this.reservationExpiryBatchSize = reservationExpiryBatchSize;
+    }
+
+    public long getReservationExpiryIntervalMs() {
+        return reservationExpiryIntervalMs;
+    }
+
+    public void setReservationExpiryIntervalMs(long reservationExpiryIntervalMs) {
+        this.reservationExpiryIntervalMs = reservationExpiryIntervalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryProperties{" +
+                "engine='" + engine + '\'' +
+                ", journalFlushIntervalMs=" + journalFlushIntervalMs +
+                ", journalBatchSize=" + journalBatchSize +
+                ", reconcileIntervalMs=" + reconcileIntervalMs +
+                ", reservationExpiryEnabled=" + reservationExpiryEnabled +
+                ", reservationHoldMinutes=" + reservationHoldMinutes +
+                ", reservationExpiryBatchSize=" + reservationExpiryBatchSize +
+                ", reservationExpiryIntervalMs=" + reservationExpiryIntervalMs +
+                '}';
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.eshop.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.eshop.dto.CartSummaryDto;
+import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.CartItem;
+import org.example.eshop.repository.CartItemRepository;
+import org.example.eshop.repository.CartRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes every cart change through to the database within the caller's transaction. The cart row is locked
+ * for the change, so concurrent requests on one cart queue rather than lose each other's total deltas; the
+ * cart's version catches any writer that skips the lock.
+ */
+@Service
+@ConditionalOnProperty(prefix = "shop.cart", name = "storage", havingValue = "strict", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaCartStore(CartRepository cartRepository, CartItemRepository cartItemRepository) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+    }
+
+    @Override
+    public Cart create() {
+        return cartRepository.save(new Cart());
+    }
+
+    @Override
+    public Cart findWithItems(Long cartId) {
+        return cartRepository.findByIdWithItems(cartId);
+    }
+
+    @Override
+    public CartSummaryDto findSummary(Long cartId) {
+        return cartRepository.findSummaryById(cartId);
+    }
+
+    @Override
+    public Cart update(Long cartId, CartChange change) {
+        Cart cart = cartRepository.findByIdForUpdate(cartId)
+                .orElseThrow(() -> new IllegalArgumentException("Cart not found with id: " + cartId));
+        change.apply(cart, new Lines() {
+            @Override
+            public CartItem find(Long variantId) {
+                return cartItemRepository.findByCartIdAndVariantId(cartId, variantId);
+            }
+
+            @Override
+            public Map<Long, CartItem> findAll(Collection<Long> variantIds) {
+                return cartItemRepository.findByCartIdAndVariantIdIn(cartId, variantIds).stream()
+                        .collect(Collectors.toMap(CartItem::getVariantId, Function.identity()));
+            }
+
+            @Override
+            public void save(CartItem line) {
+                cartItemRepository.save(line);
+            }
+
+            @Override
+            public void saveAll(Collection<CartItem> lines) {
+                cartItemRepository.saveAll(lines);
+            }
+
+            @Override
+            public void delete(CartItem line) {
+                cartItemRepository.delete(line);
+            }
+
+            @Override
+            public void deleteAll() {
+                cartItemRepository.deleteByCartId(cartId);
+            }
+        });
+        return cartRepository.save(cart);
+    }
+
+    @Override
+    public Set<Long> cartIdsHolding(Long variantId) {
+        return cartItemRepository.findByVariantId(variantId).stream()
+                .map(CartItem::getCartId)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void flush(Long cartId) {
+        // Rows are already written, but a cart this persistence context still holds (created earlier in the
+        // same request, say) keeps the line collection it started with; drop it so the reader loads the rows
+        if (entityManager.isJoinedToTransaction()) {
+            entityManager.flush();
+        }
+        entityManager.detach(entityManager.getReference(Cart.class, cartId));
+    }
+
+    @Override
+    public void evict(Long cartId) {
+        // nothing held
+    }
+}
@@ -0,0 +1,428 @@
+package org.example.eshop.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.eshop.entity.InventoryMovement;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.InventoryMovementRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds each variant's stock and reservation as in-memory counters, loaded from the variant row on first
+ * use and guarded by one of a fixed set of striped locks, so checkouts of different variants never wait on
+ * each other or on variant row locks. Every change is journaled as an {@link InventoryMovement} in the
+ * caller's transaction, so the journal is as durable as the orders. Reservations and commits move the
+ * counters at once and are undone if the transaction rolls back, which can only free units; releases are
+ * held back and move the counters only once the transaction commits, so freed units are never sold to
+ * another buyer and then handed back to the reservation.
+ * every {@code shop.inventory.journal-flush-interval-ms} the pending movements' summed deltas are applied to
+ * the variants, {@code journal-batch-size} to a transaction, and movements left pending by a stopped process
+ * are applied on startup. Every {@code reconcile-interval-ms} the counters are checked against the rows,
+ * which also picks up stock edited in the admin.
+ * <p>
+ * The counters are this process's alone: two instances would each sell the same stock, so the ledger is
+ * for single-instance deployments only.
+ */
+@Service
+@ConditionalOnProperty(prefix = "shop.inventory", name = "engine", havingValue = "ledger")
+public class LedgerInventoryEngine implements InventoryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerInventoryEngine.class);
+
+    private static final int STRIPES = 64;
+    private static final int RECONCILE_CHUNK = 500;
+
+    private final VariantRepository variantRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final int journalBatchSize;
+
+    private final ConcurrentHashMap<Long, Level> levels = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+    // One writer at a time, and the reconciler never compares rows a flush is halfway through changing
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public LedgerInventoryEngine(VariantRepository variantRepository,
+                                 InventoryMovementRepository inventoryMovementRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 ShopProperties shopProperties) {
+        this.variantRepository = variantRepository;
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.eventPublisher = eventPublisher;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.journalBatchSize = Math.max(1, shopProperties.getInventory().getJournalBatchSize());
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @Override
+    public List<Long> reserve(Map<Long, Integer> quantitiesByVariantId) {
+        Map<Long, Integer> quantities = new TreeMap<>(quantitiesByVariantId);
+        Map<Long, Level> loaded = levels(quantities.keySet());
+        List<Change> applied = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        quantities.forEach((variantId, quantity) -> {
+            Level level = loaded.get(variantId);
+            if (level == null) {
+                failed.add(variantId);
+                return;
+            }
+            synchronized (stripe(variantId)) {
+                if (level.stock - level.reserved < quantity) {
+                    failed.add(variantId);
+                    return;
+                }
+                applied.add(apply(variantId, level, 0, quantity));
+            }
+        });
+        if (!failed.isEmpty()) {
+            undo(applied);
+            return failed;
+        }
+        record(applied, InventoryMovement.RESERVE);
+        return List.of();
+    }
+
+    @Override
+    public void commit(Map<Long, Integer> quantitiesByVariantId) {
+        Map<Long, Integer> quantities = new TreeMap<>(quantitiesByVariantId);
+        Map<Long, Level> loaded = levels(quantities.keySet());
+        List<Change> applied = new ArrayList<>();
+        try {
+            quantities.forEach((variantId, quantity) -> {
+                Level level = require(loaded, variantId);
+                synchronized (stripe(variantId)) {
+                    if (level.reserved - level.releasing < quantity) {
+                        throw new IllegalStateException("Insufficient reserved stock for variant " + level.sku + ". " +
+                                "Required: " + quantity + ", Reserved: " + (level.reserved - level.releasing));
+                    }
+                    applied.add(apply(variantId, level, -quantity, -quantity));
+                }
+            });
+        } catch (IllegalStateException e) {
+            undo(applied);
+            throw e;
+        }
+        record(applied, InventoryMovement.COMMIT);
+    }
+
+    @Override
+    public void release(Map<Long, Integer> quantitiesByVariantId) {
+        Map<Long, Integer> quantities = new TreeMap<>(quantitiesByVariantId);
+        Map<Long, Level> loaded = levels(quantities.keySet());
+        quantities.keySet().forEach(variantId -> require(loaded, variantId));
+        List<Change> held = new ArrayList<>();
+        quantities.forEach((variantId, quantity) -> {
+            Level level = loaded.get(variantId);
+            synchronized (stripe(variantId)) {
+                int released = Math.min(quantity, level.reserved - level.releasing);
+                if (released > 0) {
+                    level.releasing += released;
+                    held.add(new Change(variantId, level, 0, -released));
+                }
+            }
+        });
+        if (held.isEmpty()) return;
+        try {
+            journal(held, InventoryMovement.RELEASE);
+        } catch (RuntimeException e) {
+            held.forEach(this::dropRelease);
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    held.forEach(LedgerInventoryEngine.this::applyRelease);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        held.forEach(LedgerInventoryEngine.this::dropRelease);
+                    }
+                }
+            });
+        } else {
+            held.forEach(this::applyRelease);
+        }
+    }
+
+    @Override
+    public int available(Variant variant) {
+        Level level = levels.get(variant.getId());
+        if (level == null) {
+            return variant.getStockQty() - variant.getReservedQty();
+        }
+        synchronized (stripe(variant.getId())) {
+            return level.stock - level.reserved;
+        }
+    }
+
+    /**
+     * Applies movements left pending by a previous run before any counter is loaded, so no counter starts
+     * from a row that is missing committed changes.
+     */
+    @PostConstruct
+    public void applyLeftovers() {
+        flush();
+    }
+
+    /**
+     * Applies pending journal movements to the variants, a batch per transaction, and publishes a stock
+     * change for the products whose rows moved. A batch that fails stays pending for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${shop.inventory.journal-flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            while (true) {
+                List<InventoryMovement> batch;
+                try {
+                    batch = writeTransaction.execute(status -> variantRepository.applyPendingMovements(journalBatchSize));
+                } catch (RuntimeException e) {
+                    log.error("Inventory journal flush failed; retrying on the next flush", e);
+                    return;
+                }
+                if (batch == null || batch.isEmpty()) return;
+
+                Set<Long> productIds = new HashSet<>();
+                for (InventoryMovement movement : batch) {
+                    Level level = levels.get(movement.getVariantId());
+                    if (level == null) continue;
+                    synchronized (stripe(movement.getVariantId())) {
+                        level.unflushedStock -= movement.getStockDelta();
+                        level.unflushedReserved -= movement.getReservedDelta();
+                    }
+                    productIds.add(level.productId);
+                }
+                if (!productIds.isEmpty()) {
+                    eventPublisher.publishEvent(CatalogChangedEvent.stockChanged(productIds));
+                }
+                if (batch.size() < journalBatchSize) return;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Compares every loaded counter with its variant row plus the changes not yet written there, and resets
+     * counters that disagree to the row. Returns the number of variants corrected.
+     */
+    @Scheduled(initialDelayString = "${shop.inventory.reconcile-interval-ms:60000}",
+            fixedDelayString = "${shop.inventory.reconcile-interval-ms:60000}")
+    public int reconcile() {
+        flushLock.lock();
+        try {
+            List<Long> variantIds = new ArrayList<>(levels.keySet());
+            int corrected = 0;
+            for (int from = 0; from < variantIds.size(); from += RECONCILE_CHUNK) {
+                List<Long> chunk = variantIds.subList(from, Math.min(variantIds.size(), from + RECONCILE_CHUNK));
+                List<Variant> rows = readTransaction.execute(status -> variantRepository.findAllById(chunk));
+                Set<Long> missing = new HashSet<>(chunk);
+                for (Variant row : rows) {
+                    missing.remove(row.getId());
+                    if (reconcile(row)) corrected++;
+                }
+                for (Long variantId : missing) {
+                    Level level = levels.get(variantId);
+                    synchronized (stripe(variantId)) {
+                        if (level.unflushedStock == 0 && level.unflushedReserved == 0) levels.remove(variantId);
+                    }
+                }
+            }
+            return corrected;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Number of journaled movements not yet applied to the variants.
+     */
+    public long pendingMovements() {
+        return inventoryMovementRepository.countByAppliedFalse();
+    }
+
+    private boolean reconcile(Variant row) {
+        Level level = levels.get(row.getId());
+        if (level == null) return false;
+        synchronized (stripe(row.getId())) {
+            int expectedStock = row.getStockQty() + level.unflushedStock;
+            int expectedReserved = row.getReservedQty() + level.unflushedReserved;
+            if (level.stock == expectedStock && level.reserved == expectedReserved) {
+                return false;
+            }
+            log.warn("Inventory ledger drift for variant {}: stockQty {} -> {}, reservedQty {} -> {}",
+                    row.getSku(), level.stock, expectedStock, level.reserved, expectedReserved);
+            level.stock = expectedStock;
+            level.reserved = expectedReserved;
+            return true;
+        }
+    }
+
+    private Map<Long, Level> levels(Set<Long> variantIds) {
+        List<Long> missing = variantIds.stream().filter(id -> !levels.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            // A level is loaded before any change is applied to it, so the row has nothing unflushed yet
+            variantRepository.findAllById(missing).forEach(variant -> levels.putIfAbsent(variant.getId(),
+                    new Level(variant.getProductId(), variant.getSku(), variant.getStockQty(), variant.getReservedQty())));
+        }
+        Map<Long, Level> loaded = new TreeMap<>();
+        for (Long variantId : variantIds) {
+            Level level = levels.get(variantId);
+            if (level != null) loaded.put(variantId, level);
+        }
+        return loaded;
+    }
+
+    private static Level require(Map<Long, Level> loaded, Long variantId) {
+        Level level = loaded.get(variantId);
+        if (level == null) {
+            throw new IllegalStateException("Variant " + variantId + " not found");
+        }
+        return level;
+    }
+
+    // Called with the variant's stripe held
+    private static Change apply(Long variantId, Level level, int stockDelta, int reservedDelta) {
+        level.stock += stockDelta;
+        level.reserved += reservedDelta;
+        level.unflushedStock += stockDelta;
+        level.unflushedReserved += reservedDelta;
+        return new Change(variantId, level, stockDelta, reservedDelta);
+    }
+
+    private void undo(List<Change> changes) {
+        for (Change change : changes) {
+            synchronized (stripe(change.variantId)) {
+                change.level.stock -= change.stockDelta;
+                change.level.reserved -= change.reservedDelta;
+                change.level.unflushedStock -= change.stockDelta;
+                change.level.unflushedReserved -= change.reservedDelta;
+            }
+        }
+    }
+
+    // A committed release: the held units leave the reservation now
+    private void applyRelease(Change change) {
+        synchronized (stripe(change.variantId)) {
+            change.level.releasing += change.reservedDelta;
+            apply(change.variantId, change.level, 0, change.reservedDelta);
+        }
+    }
+
+    // A release that did not commit: the units stay reserved and are no longer held
+    private void dropRelease(Change change) {
+        synchronized (stripe(change.variantId)) {
+            change.level.releasing += change.reservedDelta;
+        }
+    }
+
+    private void journal(List<Change> changes, String reason) {
+        List<InventoryMovement> movements = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            movements.add(new InventoryMovement(change.variantId, change.stockDelta, change.reservedDelta, reason));
+        }
+        variantRepository.journalMovements(movements);
+    }
+
+    /**
+     * Journals changes already applied to the counters in the caller's transaction, and undoes them in
+     * memory if it does not commit.
+     */
+    private void record(List<Change> changes, String reason) {
+        if (changes.isEmpty()) return;
+        try {
+            journal(changes, reason);
+        } catch (RuntimeException e) {
+            undo(changes);
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        undo(changes);
+                    }
+                }
+            });
+        }
+    }
+
+    private Object stripe(Long variantId) {
+        return stripes[Long.hashCode(variantId) & (STRIPES - 1)];
+    }
+
+    /**
+     * A variant's counters. {@code unflushed*} is the part of the counters not yet written to the row:
+     * changes of running transactions plus journaled movements not yet applied. {@code releasing} is the
+     * part of {@code reserved} that running transactions are releasing; it cannot be committed or released
+     * again, and stays reserved until they commit.
+     */
+    private static final class Level {
+        private final Long productId;
+        private final String sku;
+        private int stock;
+        private int reserved;
+        private int unflushedStock;
+        private int unflushedReserved;
+        private int releasing;
+
+        private Level(Long productId, String sku, int stock, int reserved) {
+            this.productId = productId;
+            this.sku = sku;
+            this.stock = stock;
+            this.reserved = reserved;
+        }
+    }
+
+    private static final class Change {
+        private final Long variantId;
+        private final Level level;
+        private final int stockDelta;
+        private final int reservedDelta;
+
+        private Change(Long variantId, Level level, int stockDelta, int reservedDelta) {
+            this.variantId = variantId;
+            this.level = level;
+            this.stockDelta = stockDelta;
+            this.reservedDelta = reservedDelta;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.eshop.service;
+
+/**
+ * Hands out the human-readable numbers orders are known by. Numbers must be unique across every running
+ * instance, as {@code orders.number} is; a clash fails the checkout that hits it.
+ */
+public interface OrderNumberGenerator {
+
+    String next();
+}
@@ -0,0 +1,20 @@
+package org.example.eshop.service;
+
+public class OrderNumberProperties {
+    private Integer nodeId; // 0-99, unique per running instance; no default, so every deployment picks one
+
+    public Integer getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Integer nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderNumberProperties{" +
+                "nodeId=" + nodeId +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.eshop.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for catalog listings: the sort plus the position (sort key and product id)
+ * of the last row served. For relevance order the position is the offset into the ranked hits.
+ */
+final class PageToken {
+    private static final char SEPARATOR = '|';
+
+    private final CatalogSort sort;
+    private final String key;
+    private final long id;
+
+    PageToken(CatalogSort sort, String key, long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    CatalogSort getSort() { return sort; }
+    String getKey() { return key; }
+    long getId() { return id; }
+
+    String encode() {
+        String raw = sort.getParamName() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            CatalogSort sort = first > 0 ? CatalogSort.fromParam(raw.substring(0, first)) : null;
+            if (sort == null || first == last) throw new IllegalArgumentException();
+            return new PageToken(sort,
+                    raw.substring(first + 1, last),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+    }
+}
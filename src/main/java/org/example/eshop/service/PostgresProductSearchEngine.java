@@ -0,0 +1,49 @@
+package org.example.eshop.service;
+
+import org.example.eshop.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Database-backed search for catalogs too large to index on the heap. Uses the generated
+ * {@code products.search_vector} GIN index ranked with ts_rank, plus pg_trgm title similarity.
+ */
+@Service
+@ConditionalOnProperty(prefix = "shop.search", name = "engine", havingValue = "postgres")
+public class PostgresProductSearchEngine implements ProductSearchEngine {
+
+    private static final int PREFIX_MIN_LENGTH = 3;
+
+    private final ProductRepository productRepository;
+    private final SearchAnalyzer analyzer;
+    private final int maxResults;
+
+    public PostgresProductSearchEngine(ProductRepository productRepository, ShopProperties shopProperties) {
+        this.productRepository = productRepository;
+        this.analyzer = new SearchAnalyzer(shopProperties.getSearch().getSynonyms());
+        this.maxResults = shopProperties.getSearch().getMaxResults();
+    }
+
+    @Override
+    public List<Long> search(String query) {
+        String tsquery = toTsQuery(analyzer.clauses(query));
+        if (tsquery.isEmpty()) return List.of();
+        return productRepository.searchRankedIds(tsquery, query.trim(), maxResults);
+    }
+
+    /**
+     * Builds a to_tsquery expression: clauses AND-ed, synonyms OR-ed. Analyzer terms are plain
+     * letters and digits, so they need no escaping.
+     */
+    static String toTsQuery(List<Set<String>> clauses) {
+        return clauses.stream()
+                .map(alternatives -> alternatives.stream()
+                        .map(term -> term.length() >= PREFIX_MIN_LENGTH ? term + ":*" : term)
+                        .collect(Collectors.joining(" | ", "(", ")")))
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.eshop.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed price ranges offered as a catalog facet. Lower bound inclusive, upper bound exclusive.
+ */
+public enum PriceBucket {
+    UNDER_10("Under $10", null, new BigDecimal("10")),
+    FROM_10_TO_25("$10 - $25", new BigDecimal("10"), new BigDecimal("25")),
+    FROM_25_TO_50("$25 - $50", new BigDecimal("25"), new BigDecimal("50")),
+    FROM_50_TO_100("$50 - $100", new BigDecimal("50"), new BigDecimal("100")),
+    OVER_100("$100 and up", new BigDecimal("100"), null);
+
+    private final String label;
+    private final BigDecimal from; // nullable
+    private final BigDecimal to; // nullable
+
+    PriceBucket(String label, BigDecimal from, BigDecimal to) {
+        this.label = label;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getLabel() { return label; }
+
+    public boolean contains(BigDecimal price) {
+        if (price == null) return false;
+        return (from == null || price.compareTo(from) >= 0) && (to == null || price.compareTo(to) < 0);
+    }
+
+    public static PriceBucket of(BigDecimal price) {
+        for (PriceBucket bucket : values()) {
+            if (bucket.contains(price)) return bucket;
+        }
+        return null;
+    }
+}
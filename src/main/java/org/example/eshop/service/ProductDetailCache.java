@@ -0,0 +1,115 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.CacheStatsResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of {@link ProductDetailTemplate}s by slug, bounded by their estimated size in bytes.
+ * Entries are dropped after every committed admin change to the product, its variants or its lots;
+ * stock-only changes leave them alone since stock is never cached.
+ */
+@Service
+public class ProductDetailCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Cached> bySlug = new LinkedHashMap<>(64, 0.75f, true); // guarded by this
+    private final Map<Long, String> slugByProductId = new HashMap<>(); // guarded by this
+    private long bytes; // guarded by this
+    private long generation; // guarded by this, bumped on every invalidation
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductDetailCache(ShopProperties shopProperties) {
+        this.maxBytes = shopProperties.getCache().getProductDetailMaxBytes();
+    }
+
+    synchronized ProductDetailTemplate get(String slug) {
+        Cached cached = bySlug.get(slug);
+        if (cached == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached.template;
+    }
+
+    /**
+     * Generation to pass back to {@link #put}; read it before loading so that a load racing with an
+     * admin change is not cached.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized void put(ProductDetailTemplate template, long loadedAtGeneration) {
+        if (loadedAtGeneration != generation) return;
+        long weight = template.weight();
+        if (weight > maxBytes) return;
+        remove(template.getSlug());
+        String previousSlug = slugByProductId.put(template.getId(), template.getSlug());
+        if (previousSlug != null && !previousSlug.equals(template.getSlug())) {
+            remove(previousSlug);
+        }
+        bySlug.put(template.getSlug(), new Cached(template, weight));
+        bytes += weight;
+
+        Iterator<Map.Entry<String, Cached>> eldest = bySlug.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Cached victim = eldest.next().getValue();
+            eldest.remove();
+            slugByProductId.remove(victim.template.getId());
+            bytes -= victim.weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!event.isStockOnly()) {
+            invalidate(event.getProductIds());
+        }
+    }
+
+    synchronized void invalidate(Set<Long> productIds) {
+        generation++;
+        for (Long productId : productIds) {
+            String slug = slugByProductId.remove(productId);
+            if (slug != null && remove(slug)) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean remove(String slug) {
+        Cached removed = bySlug.remove(slug);
+        if (removed == null) return false;
+        bytes -= removed.weight;
+        return true;
+    }
+
+    public synchronized CacheStatsResponse stats() {
+        return new CacheStatsResponse(hits.get(), misses.get(), evictions.get(), invalidations.get(),
+                bySlug.size(), bytes, maxBytes);
+    }
+
+    private static final class Cached {
+        private final ProductDetailTemplate template;
+        private final long weight;
+
+        private Cached(ProductDetailTemplate template, long weight) {
+            this.template = template;
+            this.weight = weight;
+        }
+    }
+}
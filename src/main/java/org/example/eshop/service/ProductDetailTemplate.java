@@ -0,0 +1,88 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.ProductDetailDto;
+import org.example.eshop.dto.StockStatus;
+import org.example.eshop.dto.VariantDto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * The cacheable part of a product detail page: everything except stock, which changes with every
+ * order and is filled in per request by {@link #render(ToIntFunction)}.
+ */
+final class ProductDetailTemplate {
+    private final long id;
+    private final String slug;
+    private final String title;
+    private final String type;
+    private final String description; // nullable
+    private final List<VariantInfo> variants;
+    private final Integer harvestYear; // nullable
+    private final String season; // nullable
+    private final String storageType; // nullable
+
+    ProductDetailTemplate(long id, String slug, String title, String type, String description,
+                          List<VariantInfo> variants, Integer harvestYear, String season, String storageType) {
+        this.id = id;
+        this.slug = slug;
+        this.title = title;
+        this.type = type;
+        this.description = description;
+        this.variants = List.copyOf(variants);
+        this.harvestYear = harvestYear;
+        this.season = season;
+        this.storageType = storageType;
+    }
+
+    long getId() { return id; }
+    String getSlug() { return slug; }
+
+    /**
+     * Rough heap footprint in bytes, used to bound the cache by size rather than entry count.
+     */
+    long weight() {
+        long bytes = 160 + chars(slug) + chars(title) + chars(type) + chars(description);
+        for (VariantInfo variant : variants) {
+            bytes += 120 + chars(variant.sku) + chars(variant.title);
+        }
+        return bytes;
+    }
+
+    private static long chars(String value) {
+        return value != null ? 40L + value.length() : 0L;
+    }
+
+    ProductDetailDto render(ToIntFunction<Long> availableQty) {
+        List<VariantDto> variantDtos = variants.stream().map(v -> {
+            int available = availableQty.applyAsInt(v.id);
+            return new VariantDto(v.id, v.sku, v.title, v.price, v.weight, stockStatus(available), available, available > 0);
+        }).toList();
+        return new ProductDetailDto(id, slug, title, type, description, variantDtos, harvestYear, season, storageType);
+    }
+
+    private static StockStatus stockStatus(int available) {
+        if (available <= 0) return StockStatus.OUT_OF_STOCK;
+        if (available <= 5) return StockStatus.LOW_STOCK;
+        return StockStatus.IN_STOCK;
+    }
+
+    static final class VariantInfo {
+        private final long id;
+        private final String sku;
+        private final String title;
+        private final BigDecimal price;
+        private final BigDecimal weight;
+
+        VariantInfo(long id, String sku, String title, BigDecimal price, BigDecimal weight) {
+            this.id = id;
+            this.sku = sku;
+            this.title = title;
+            this.price = price;
+            this.weight = weight;
+        }
+
+        long getId() { return id; }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.eshop.service;
+
+import java.util.List;
+
+/**
+ * Keyword search over active products. The implementation is chosen per deployment with
+ * {@code shop.search.engine}: {@code memory} (default) or {@code postgres}.
+ */
+public interface ProductSearchEngine {
+
+    /**
+     * Returns ids of products matching every word of the query (or one of its synonyms),
+     * best matches first.
+     */
+    List<Long> search(String query);
+}
@@ -0,0 +1,143 @@
+package org.example.eshop.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process inverted index over product title, type, description and variant SKU/title.
+ * Kept in step with the catalog snapshot: a full rebuild re-indexes everything, a product-level
+ * refresh only re-indexes the changed products.
+ */
+@Service
+@ConditionalOnProperty(prefix = "shop.search", name = "engine", havingValue = "memory", matchIfMissing = true)
+public class ProductSearchIndex implements ProductSearchEngine {
+
+    private static final int TITLE_WEIGHT = 4;
+    private static final int TYPE_WEIGHT = 3;
+    private static final int VARIANT_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // Shorter query words only match whole terms, otherwise "a" would match almost everything
+    private static final int PREFIX_MIN_LENGTH = 3;
+
+    private final SearchAnalyzer analyzer;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    // term -> (productId -> best field weight); sorted so prefixes are a range scan
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> termsByProduct = new HashMap<>(); // guarded by this
+    private volatile long indexedVersion = -1;
+
+    public ProductSearchIndex(ShopProperties shopProperties, CatalogSnapshotService catalogSnapshotService) {
+        this.analyzer = new SearchAnalyzer(shopProperties.getSearch().getSynonyms());
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    @EventListener
+    public synchronized void onSnapshotUpdated(CatalogSnapshotUpdatedEvent event) {
+        if (event.isFullRebuild()) {
+            indexAll(event.getSnapshot());
+            return;
+        }
+        if (indexedVersion < 0) {
+            // Not built yet; the first search indexes the then-current snapshot
+            return;
+        }
+        for (Long productId : event.getChangedProductIds()) {
+            remove(productId);
+            CatalogEntry entry = event.getSnapshot().findById(productId);
+            if (entry != null) add(entry);
+        }
+        indexedVersion = event.getSnapshot().getVersion();
+    }
+
+    @Override
+    public List<Long> search(String query) {
+        ensureBuilt();
+        List<Set<String>> clauses = analyzer.clauses(query);
+        if (clauses.isEmpty()) return List.of();
+
+        Map<Long, Integer> scores = null;
+        for (Set<String> clause : clauses) {
+            Map<Long, Integer> matches = match(clause);
+            if (scores == null) {
+                scores = matches;
+            } else {
+                scores.keySet().retainAll(matches.keySet());
+                scores.replaceAll((id, score) -> score + matches.get(id));
+            }
+            if (scores.isEmpty()) return List.of();
+        }
+
+        List<Long> result = new ArrayList<>(scores.keySet());
+        Map<Long, Integer> finalScores = scores;
+        result.sort(Comparator.<Long>comparingInt(finalScores::get).reversed().thenComparing(Comparator.naturalOrder()));
+        return result;
+    }
+
+    private Map<Long, Integer> match(Set<String> alternatives) {
+        Map<Long, Integer> matches = new HashMap<>();
+        for (String term : alternatives) {
+            Map<String, Map<Long, Integer>> hits = term.length() >= PREFIX_MIN_LENGTH
+                    ? postings.subMap(term, true, term + Character.MAX_VALUE, true)
+                    : (postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of());
+            hits.values().forEach(posting -> posting.forEach((id, weight) -> matches.merge(id, weight, Math::max)));
+        }
+        return matches;
+    }
+
+    private void ensureBuilt() {
+        if (indexedVersion >= 0) return;
+        synchronized (this) {
+            // Read under the lock, so an update applied meanwhile is never overwritten by an older snapshot
+            if (indexedVersion < 0) indexAll(catalogSnapshotService.current());
+        }
+    }
+
+    private void indexAll(CatalogSnapshot snapshot) {
+        postings.clear();
+        termsByProduct.clear();
+        snapshot.getEntries().forEach(this::add);
+        indexedVersion = snapshot.getVersion();
+    }
+
+    private void add(CatalogEntry entry) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, entry.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, entry.getType(), TYPE_WEIGHT);
+        addTerms(weights, entry.getDescription(), DESCRIPTION_WEIGHT);
+        for (CatalogVariant variant : entry.getVariants()) {
+            addTerms(weights, variant.getSku(), VARIANT_WEIGHT);
+            addTerms(weights, variant.getTitle(), VARIANT_WEIGHT);
+        }
+        weights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(entry.getId(), weight));
+        termsByProduct.put(entry.getId(), weights.keySet());
+    }
+
+    private void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : SearchAnalyzer.terms(text)) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    private void remove(Long productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) return;
+        for (String term : terms) {
+            postings.computeIfPresent(term, (t, posting) -> {
+                posting.remove(productId);
+                return posting.isEmpty() ? null : posting;
+            });
+        }
+    }
+}
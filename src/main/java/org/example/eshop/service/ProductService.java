@@ -1,12 +1,8 @@
 package org.example.eshop.service;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
+import org.example.eshop.dto.FacetDto;
+import org.example.eshop.dto.FacetValueDto;
+import org.example.eshop.dto.FilterOptionsDto;
 import org.example.eshop.dto.ProductDetailDto;
 import org.example.eshop.dto.ProductDto;
 import org.example.eshop.dto.StockStatus;
@@ -14,6 +10,8 @@ import org.example.eshop.dto.VariantDto;
 import org.example.eshop.entity.Lot;
 import org.example.eshop.entity.Product;
 import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Season;
+import org.example.eshop.entity.StorageType;
 import org.example.eshop.entity.Variant;
 import org.example.eshop.repository.LotRepository;
 import org.example.eshop.repository.ProductRepository;
@@ -22,25 +20,54 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
     private final VariantRepository variantRepository;
     private final LotRepository lotRepository;
-    private final EntityManager entityManager;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductSearchEngine productSearchEngine;
+    private final ProductDetailCache productDetailCache;
 
     public ProductService(ProductRepository productRepository,
                           VariantRepository variantRepository,
                           LotRepository lotRepository,
-                          EntityManager entityManager) {
+                          CatalogSnapshotService catalogSnapshotService,
+                          ProductSearchEngine productSearchEngine,
+                          ProductDetailCache productDetailCache) {
         this.productRepository = productRepository;
         this.variantRepository = variantRepository;
         this.lotRepository = lotRepository;
-        this.entityManager = entityManager;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.productSearchEngine = productSearchEngine;
+        this.productDetailCache = productDetailCache;
+    }
+
+    /**
+     * Current catalog validators, for conditional GETs on catalog-derived responses.
+     */
+    public CatalogVersion catalogVersion() {
+        return catalogSnapshotService.currentVersion();
+    }
+
+    /**
+     * Distinct types, harvest years, seasons and storage types of the active catalog. Held on the
+     * snapshot, so it follows every admin catalog write without a query per request.
+     */
+    public FilterOptionsDto filterOptions() {
+        return catalogSnapshotService.current().getFilterOptions();
     }
 
     public List<ProductDto> findProducts(String type,
@@ -49,120 +76,306 @@ public class ProductService {
                                          BigDecimal minPrice,
                                          BigDecimal maxPrice,
                                          Boolean inStock) {
-        if (minPrice != null && minPrice.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("minPrice cannot be negative");
+        return findProducts(null, type, region, harvestYear, minPrice, maxPrice, inStock);
+    }
+
+    /**
+     * Lists active products matching the filters. When a keyword query is given, results come back
+     * in relevance order; otherwise in catalog order.
+     */
+    public List<ProductDto> findProducts(String query,
+                                         String type,
+                                         String region, // not used currently
+                                         Integer harvestYear,
+                                         BigDecimal minPrice,
+                                         BigDecimal maxPrice,
+                                         Boolean inStock) {
+        return browse(new CatalogFilter(query, type, region, harvestYear, null, null, null, minPrice, maxPrice, inStock),
+                null, null, Integer.MAX_VALUE).getProducts();
+    }
+
+    public CatalogPage browse(CatalogFilter filter) {
+        return browse(filter, null, null, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Answers a catalog listing from the snapshot's facet bitsets: selected facet values are intersected,
+     * and each facet's counts are computed against every other selection (so alternatives stay visible).
+     * Counts are per product; the listing itself additionally requires all variant-level filters to hold
+     * for the same variant.
+     * <p>
+     * Pages are keyset-based: the snapshot keeps every entry presorted per {@link CatalogSort}, and a page
+     * token resumes right after the last row served, so deep pages cost the same as the first one.
+     * Relevance order (the default with a keyword query) pages by offset into the bounded search hits.
+     */
+    public CatalogPage browse(CatalogFilter filter, CatalogSort sort, String pageToken, int limit) {
+        validate(filter);
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
         }
-        if (maxPrice != null && maxPrice.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("maxPrice cannot be negative");
+        Map<CatalogFacet, String> selection = selection(filter);
+
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        CatalogFacets facets = snapshot.getFacets();
+        List<CatalogEntry> entries = snapshot.getEntries();
+
+        // Base set: keyword hits and the free price range, which are not facets themselves
+        List<CatalogEntry> ranked = null;
+        BitSet base;
+        if (filter.getQuery() != null) {
+            ranked = productSearchEngine.search(filter.getQuery()).stream()
+                    .map(snapshot::findById)
+                    .filter(Objects::nonNull)
+                    .toList();
+            base = new BitSet(entries.size());
+            ranked.forEach(e -> base.set(snapshot.ordinalOf(e.getId())));
+        } else {
+            base = facets.all();
         }
-        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
-            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+                if (!hasVariantInPriceRange(entries.get(i), filter.getMinPrice(), filter.getMaxPrice())) {
+                    base.clear(i);
+                }
+            }
         }
-        if (harvestYear != null && (harvestYear < 1900 || harvestYear > 2030)) {
-            throw new IllegalArgumentException("harvestYear must be between 1900 and 2030");
+
+        BitSet matches = (BitSet) base.clone();
+        selection.forEach((facet, value) -> matches.and(facets.matching(facet, value)));
+
+        CatalogSort effectiveSort = resolveSort(sort, ranked != null);
+        PageToken position = pageToken != null && !pageToken.isBlank() ? PageToken.decode(pageToken) : null;
+        if (position != null && position.getSort() != effectiveSort) {
+            throw new IllegalArgumentException("Page token does not match sort");
         }
 
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Product> query = cb.createQuery(Product.class);
-        Root<Product> root = query.from(Product.class);
-        Join<Product, Variant> variantJoin = root.join("variants", JoinType.LEFT);
-        Join<Variant, Lot> lotJoin = variantJoin.join("lot", JoinType.LEFT);
+        List<ProductDto> products = new ArrayList<>();
+        String nextPageToken = null;
+        if (effectiveSort == CatalogSort.RELEVANCE) {
+            int offset = position != null ? parseOffset(position.getKey()) : 0;
+            for (int i = offset; i < ranked.size(); i++) {
+                CatalogEntry entry = ranked.get(i);
+                if (!matches.get(snapshot.ordinalOf(entry.getId())) || !hasMatchingVariant(entry, filter, selection)) continue;
+                if (products.size() == limit) {
+                    nextPageToken = new PageToken(effectiveSort, String.valueOf(i), entry.getId()).encode();
+                    break;
+                }
+                products.add(entry.getSummary());
+            }
+        } else {
+            int[] order = snapshot.order(effectiveSort);
+            CatalogEntry last = null;
+            for (int i = position != null ? firstAfter(entries, order, effectiveSort, position) : 0; i < order.length; i++) {
+                int ordinal = order[i];
+                if (!matches.get(ordinal) || !hasMatchingVariant(entries.get(ordinal), filter, selection)) continue;
+                if (products.size() == limit) {
+                    nextPageToken = new PageToken(effectiveSort, effectiveSort.encodeKey(last), last.getId()).encode();
+                    break;
+                }
+                last = entries.get(ordinal);
+                products.add(last.getSummary());
+            }
+        }
+
+        return new CatalogPage(products, facetCounts(facets, base, selection), effectiveSort, nextPageToken);
+    }
+
+    private CatalogSort resolveSort(CatalogSort sort, boolean hasQuery) {
+        if (sort == null) return hasQuery ? CatalogSort.RELEVANCE : CatalogSort.DEFAULT;
+        if (sort == CatalogSort.RELEVANCE && !hasQuery) return CatalogSort.DEFAULT;
+        return sort;
+    }
+
+    /**
+     * Binary search for the first position in the presorted order that comes strictly after the token's row.
+     */
+    private int firstAfter(List<CatalogEntry> entries, int[] order, CatalogSort sort, PageToken position) {
+        Comparable<?> key;
+        try {
+            key = sort.decodeKey(position.getKey());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sort.compareTo(entries.get(order[mid]), key, position.getId()) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
 
-        List<Predicate> predicates = new ArrayList<>();
-        predicates.add(cb.equal(root.get("status"), ProductStatus.ACTIVE));
+    private int parseOffset(String key) {
+        try {
+            int offset = Integer.parseInt(key);
+            if (offset < 0) throw new NumberFormatException();
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+    }
 
-        if (type != null) {
-            predicates.add(cb.equal(root.get("type"), type));
+    private List<FacetDto> facetCounts(CatalogFacets facets, BitSet base, Map<CatalogFacet, String> selection) {
+        List<FacetDto> result = new ArrayList<>();
+        for (CatalogFacet facet : CatalogFacet.values()) {
+            BitSet mask = (BitSet) base.clone();
+            selection.forEach((other, value) -> {
+                if (other != facet) mask.and(facets.matching(other, value));
+            });
+            List<FacetValueDto> values = new ArrayList<>();
+            facets.values(facet).forEach((value, bits) -> {
+                BitSet hits = (BitSet) bits.clone();
+                hits.and(mask);
+                values.add(new FacetValueDto(value, facetLabel(facet, value), hits.cardinality(), value.equals(selection.get(facet))));
+            });
+            result.add(new FacetDto(facet.getParamName(), facet.getLabel(), values));
         }
-        if (harvestYear != null) {
-            predicates.add(cb.equal(lotJoin.get("harvestYear"), harvestYear));
+        return result;
+    }
+
+    private String facetLabel(CatalogFacet facet, String value) {
+        return switch (facet) {
+            case SEASON, STORAGE_TYPE -> value.charAt(0) + value.substring(1).toLowerCase();
+            case PRICE -> PriceBucket.valueOf(value).getLabel();
+            case IN_STOCK -> "In Stock";
+            default -> value;
+        };
+    }
+
+    private void validate(CatalogFilter filter) {
+        BigDecimal minPrice = filter.getMinPrice();
+        BigDecimal maxPrice = filter.getMaxPrice();
+        if (minPrice != null && minPrice.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("minPrice cannot be negative");
         }
-        if (minPrice != null) {
-            predicates.add(cb.greaterThanOrEqualTo(variantJoin.get("price"), minPrice));
+        if (maxPrice != null && maxPrice.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("maxPrice cannot be negative");
         }
-        if (maxPrice != null) {
-            predicates.add(cb.lessThanOrEqualTo(variantJoin.get("price"), maxPrice));
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
         }
-        if (inStock != null && inStock) {
-            predicates.add(cb.greaterThan(cb.diff(variantJoin.get("stockQty"), variantJoin.get("reservedQty")), 0));
+    }
+
+    private Map<CatalogFacet, String> selection(CatalogFilter filter) {
+        Map<CatalogFacet, String> selection = new EnumMap<>(CatalogFacet.class);
+        if (filter.getType() != null) selection.put(CatalogFacet.TYPE, filter.getType());
+        if (filter.getHarvestYear() != null) selection.put(CatalogFacet.HARVEST_YEAR, filter.getHarvestYear().toString());
+        if (filter.getSeason() != null) selection.put(CatalogFacet.SEASON, parseEnum(Season.class, "season", filter.getSeason()).name());
+        if (filter.getStorageType() != null) selection.put(CatalogFacet.STORAGE_TYPE, parseEnum(StorageType.class, "storageType", filter.getStorageType()).name());
+        if (filter.getPriceBucket() != null) selection.put(CatalogFacet.PRICE, parseEnum(PriceBucket.class, "priceBucket", filter.getPriceBucket()).name());
+        if (Boolean.TRUE.equals(filter.getInStock())) selection.put(CatalogFacet.IN_STOCK, CatalogFacets.IN_STOCK_VALUE);
+        return selection;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + name + ": " + value);
         }
+    }
 
-        query.select(root).distinct(true).where(predicates.toArray(new Predicate[0]));
-        List<Product> products = entityManager.createQuery(query).getResultList();
+    private boolean hasVariantInPriceRange(CatalogEntry entry, BigDecimal minPrice, BigDecimal maxPrice) {
+        for (CatalogVariant variant : entry.getVariants()) {
+            if (minPrice != null && variant.getPrice().compareTo(minPrice) < 0) continue;
+            if (maxPrice != null && variant.getPrice().compareTo(maxPrice) > 0) continue;
+            return true;
+        }
+        return false;
+    }
 
-        List<ProductDto> result = new ArrayList<>();
-        for (Product product : products) {
-            List<Variant> variants = variantRepository.findByProductId(product.getId());
-            StockStatus stockStatus = calculateProductStockStatus(variants);
-            BigDecimal min = variants.stream().map(Variant::getPrice).min(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
-            BigDecimal max = variants.stream().map(Variant::getPrice).max(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
-            Integer harvest = variants.stream().map(v -> v.getLot() != null ? v.getLot().getHarvestYear() : null)
-                    .filter(Objects::nonNull).findFirst().orElse(null);
-
-            // Convert StockStatus (top-level) to ProductDto.StockStatus for constructor compatibility
-            ProductDto.StockStatus productStockStatus = ProductDto.StockStatus.valueOf(stockStatus.name());
-            result.add(new ProductDto(
-                    product.getId(),
-                    product.getSlug(),
-                    product.getTitle(),
-                    product.getType(),
-                    product.getDescription(),
-                    min,
-                    max,
-                    productStockStatus,
-                    harvest,
-                    variants.size()
-            ));
+    /**
+     * Mirrors the former LEFT JOIN semantics: variant-level filters must all hold for the same variant,
+     * and products without variants only match when no variant-level filter is set.
+     */
+    private boolean hasMatchingVariant(CatalogEntry entry, CatalogFilter filter, Map<CatalogFacet, String> selection) {
+        Integer harvestYear = filter.getHarvestYear();
+        BigDecimal minPrice = filter.getMinPrice();
+        BigDecimal maxPrice = filter.getMaxPrice();
+        String season = selection.get(CatalogFacet.SEASON);
+        String storageType = selection.get(CatalogFacet.STORAGE_TYPE);
+        PriceBucket priceBucket = selection.containsKey(CatalogFacet.PRICE) ? PriceBucket.valueOf(selection.get(CatalogFacet.PRICE)) : null;
+        boolean stockFilter = selection.containsKey(CatalogFacet.IN_STOCK);
+        if (harvestYear == null && minPrice == null && maxPrice == null && season == null
+                && storageType == null && priceBucket == null && !stockFilter) {
+            return true;
         }
-        return result;
+        for (CatalogVariant variant : entry.getVariants()) {
+            if (harvestYear != null && !harvestYear.equals(variant.getHarvestYear())) continue;
+            if (season != null && (variant.getSeason() == null || !variant.getSeason().name().equals(season))) continue;
+            if (storageType != null && (variant.getStorageType() == null || !variant.getStorageType().name().equals(storageType))) continue;
+            if (priceBucket != null && !priceBucket.contains(variant.getPrice())) continue;
+            if (minPrice != null && variant.getPrice().compareTo(minPrice) < 0) continue;
+            if (maxPrice != null && variant.getPrice().compareTo(maxPrice) > 0) continue;
+            if (stockFilter && !variant.isInStock()) continue;
+            return true;
+        }
+        return false;
     }
 
+    /**
+     * Product detail page data. The static part comes from {@link ProductDetailCache}; stock is always
+     * taken live from the catalog snapshot, which is refreshed on every stock change.
+     */
     public ProductDetailDto findProductBySlug(String slug) {
-        System.out.println("[DEBUG_LOG] Looking for product with slug: " + slug);
-        Product product = productRepository.findBySlug(slug);
-        if (product == null) {
-            System.out.println("[DEBUG_LOG] Product not found for slug: " + slug);
-            return null;
+        ProductDetailTemplate template = productDetailCache.get(slug);
+        if (template == null) {
+            long generation = productDetailCache.generation();
+            Product product = productRepository.findBySlug(slug);
+            if (product == null || product.getStatus() != ProductStatus.ACTIVE) {
+                return null;
+            }
+            List<Variant> variants = variantRepository.findByProductId(product.getId());
+            template = toTemplate(product, variants, lotRepository.findByProductId(product.getId()));
+            productDetailCache.put(template, generation);
+            // Freshly loaded, so serve the stock we just read
+            Map<Long, Integer> available = new HashMap<>();
+            variants.forEach(v -> available.put(v.getId() != null ? v.getId() : 0L, v.availableQty()));
+            return template.render(id -> available.getOrDefault(id, 0));
         }
-        System.out.println("[DEBUG_LOG] Found product: " + product.getTitle() + ", status: " + product.getStatus());
-        if (product.getStatus() != ProductStatus.ACTIVE) {
-            System.out.println("[DEBUG_LOG] Product is not ACTIVE, returning null");
+
+        CatalogEntry live = catalogSnapshotService.current().findBySlug(slug);
+        if (live == null || live.getId() != template.getId()) {
+            // No longer active (or the slug moved); the admin change event will drop the entry
             return null;
         }
+        Map<Long, Integer> available = new HashMap<>();
+        live.getVariants().forEach(v -> available.put(v.getId(), v.getAvailableQty()));
+        return template.render(id -> available.getOrDefault(id, 0));
+    }
 
-        List<Variant> variants = variantRepository.findByProductId(product.getId());
-        System.out.println("[DEBUG_LOG] Found " + variants.size() + " variants for product");
-        List<VariantDto> variantDtos = new ArrayList<>();
+    private ProductDetailTemplate toTemplate(Product product, List<Variant> variants, List<Lot> lots) {
+        Map<Long, Lot> lotsById = new HashMap<>();
+        lots.forEach(lot -> lotsById.put(lot.getId(), lot));
+        List<ProductDetailTemplate.VariantInfo> variantInfos = new ArrayList<>();
+        Lot firstLot = null;
         for (Variant variant : variants) {
-            System.out.println("[DEBUG_LOG] Processing variant: " + variant.getTitle() + ", availableQty: " + variant.availableQty());
-            variantDtos.add(new VariantDto(
+            variantInfos.add(new ProductDetailTemplate.VariantInfo(
                     variant.getId() != null ? variant.getId() : 0L,
                     variant.getSku(),
                     variant.getTitle(),
                     variant.getPrice(),
-                    variant.getWeight(),
-                    calculateVariantStockStatus(variant),
-                    variant.availableQty(),
-                    variant.availableQty() > 0
+                    variant.getWeight()
             ));
+            if (firstLot == null && variant.getLotId() != null) {
+                firstLot = lotsById.get(variant.getLotId());
+            }
         }
-
-        Lot firstLot = variants.stream().map(Variant::getLot).filter(Objects::nonNull).findFirst().orElse(null);
-        System.out.println("[DEBUG_LOG] First lot found: " + (firstLot != null));
-
-        ProductDetailDto resultDto = new ProductDetailDto(
+        return new ProductDetailTemplate(
                 product.getId(),
                 product.getSlug(),
                 product.getTitle(),
                 product.getType(),
                 product.getDescription(),
-                variantDtos,
+                variantInfos,
                 firstLot != null ? firstLot.getHarvestYear() : null,
                 firstLot != null && firstLot.getSeason() != null ? firstLot.getSeason().name() : null,
                 firstLot != null && firstLot.getStorageType() != null ? firstLot.getStorageType().name() : null
         );
-        System.out.println("[DEBUG_LOG] Returning ProductDetailDto with " + resultDto.getVariants().size() + " variants");
-        return resultDto;
     }
 
     public VariantDto findVariantById(Long variantId) {
@@ -180,14 +393,6 @@ public class ProductService {
         );
     }
 
-    private StockStatus calculateProductStockStatus(List<Variant> variants) {
-        long inStockCount = variants.stream().filter(v -> v.availableQty() > 0).count();
-        long lowStockCount = variants.stream().filter(v -> v.availableQty() >= 1 && v.availableQty() <= 5).count();
-        if (inStockCount == 0) return StockStatus.OUT_OF_STOCK;
-        if (lowStockCount > 0) return StockStatus.LOW_STOCK;
-        return StockStatus.IN_STOCK;
-    }
-
     private StockStatus calculateVariantStockStatus(Variant variant) {
         int available = variant.availableQty();
         if (available <= 0) return StockStatus.OUT_OF_STOCK;
@@ -0,0 +1,200 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.SuggestionDto;
+import org.example.eshop.repository.OrderItemRepository;
+import org.example.eshop.repository.OrderItemRepository.VariantSales;
+import org.example.eshop.service.SuggestTrie.Suggestion;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typeahead over product titles, variant SKUs and product types, ranked by units sold. Titles and types
+ * are keyed by every word start ("well" finds "Dragon Well"), SKUs by their whole code. Follows the
+ * catalog snapshot like {@link ProductSearchIndex}: a full rebuild reloads everything, a product-level
+ * refresh (including the stock changes that come with every order) only re-keys the changed products.
+ */
+@Service
+public class ProductSuggestIndex {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final OrderItemRepository orderItemRepository;
+    private final int suggestionsPerPrefix;
+
+    private volatile SuggestTrie trie;
+    // What each product contributed, so it can be taken out again; guarded by this
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    private final Map<String, Set<Long>> productsByType = new HashMap<>();
+    private final Map<String, Suggestion> typeSuggestions = new HashMap<>();
+    private volatile long indexedVersion = -1;
+
+    public ProductSuggestIndex(ShopProperties shopProperties,
+                               CatalogSnapshotService catalogSnapshotService,
+                               OrderItemRepository orderItemRepository) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.orderItemRepository = orderItemRepository;
+        this.suggestionsPerPrefix = shopProperties.getSearch().getSuggestionsPerPrefix();
+    }
+
+    public int getSuggestionsPerPrefix() {
+        return suggestionsPerPrefix;
+    }
+
+    @EventListener
+    public synchronized void onSnapshotUpdated(CatalogSnapshotUpdatedEvent event) {
+        if (event.isFullRebuild()) {
+            indexAll(event.getSnapshot());
+            return;
+        }
+        if (indexedVersion < 0) {
+            // Not built yet; the first lookup indexes the then-current snapshot
+            return;
+        }
+        Set<Long> productIds = event.getChangedProductIds();
+        Map<Long, Long> unitsByVariant = productIds.isEmpty() ? Map.of() : unitsByVariant(
+                orderItemRepository.sumUnitsByVariantForProducts(productIds));
+        Set<String> touchedTypes = new HashSet<>();
+        for (Long productId : productIds) {
+            Contribution old = contributions.remove(productId);
+            if (old != null) {
+                old.keys().forEach(k -> trie.remove(k.key(), k.suggestion()));
+                untrackType(productId, old.type());
+                if (old.type() != null) touchedTypes.add(old.type());
+            }
+            CatalogEntry entry = event.getSnapshot().findById(productId);
+            if (entry != null) {
+                Contribution contribution = contribution(entry, unitsByVariant);
+                contributions.put(productId, contribution);
+                contribution.keys().forEach(k -> trie.add(k.key(), k.suggestion()));
+                trackType(productId, contribution.type());
+                if (contribution.type() != null) touchedTypes.add(contribution.type());
+            }
+        }
+        touchedTypes.forEach(type -> {
+            Suggestion old = typeSuggestions.remove(type);
+            if (old != null) keys(type).forEach(key -> trie.remove(key, old));
+            Suggestion next = typeSuggestion(type);
+            if (next != null) keys(type).forEach(key -> trie.add(key, next));
+        });
+        indexedVersion = event.getSnapshot().getVersion();
+    }
+
+    /**
+     * Top suggestions for what has been typed so far; empty for a blank prefix.
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String key = String.join(" ", SearchAnalyzer.words(prefix));
+        if (key.isEmpty()) return List.of();
+        // A trailing separator means the last word is complete
+        if (!prefix.isEmpty() && !Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1))) key += " ";
+        ensureBuilt();
+        return trie.top(key, Math.min(limit, suggestionsPerPrefix)).stream()
+                .map(s -> new SuggestionDto(s.getText(), s.getKind().name().toLowerCase(Locale.ROOT), s.getSlug()))
+                .toList();
+    }
+
+    private void ensureBuilt() {
+        if (indexedVersion >= 0) return;
+        synchronized (this) {
+            // Read under the lock, so an update applied meanwhile is never overwritten by an older snapshot
+            if (indexedVersion < 0) indexAll(catalogSnapshotService.current());
+        }
+    }
+
+    private void indexAll(CatalogSnapshot snapshot) {
+        Map<Long, Long> unitsByVariant = unitsByVariant(orderItemRepository.sumUnitsByVariant());
+        contributions.clear();
+        productsByType.clear();
+        typeSuggestions.clear();
+
+        Map<String, List<Suggestion>> suggestionsByKey = new HashMap<>();
+        for (CatalogEntry entry : snapshot.getEntries()) {
+            Contribution contribution = contribution(entry, unitsByVariant);
+            contributions.put(entry.getId(), contribution);
+            contribution.keys().forEach(k ->
+                    suggestionsByKey.computeIfAbsent(k.key(), key -> new ArrayList<>()).add(k.suggestion()));
+            trackType(entry.getId(), contribution.type());
+        }
+        for (String type : productsByType.keySet()) {
+            Suggestion suggestion = typeSuggestion(type);
+            keys(type).forEach(key -> suggestionsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(suggestion));
+        }
+
+        SuggestTrie next = new SuggestTrie(suggestionsPerPrefix);
+        next.addAll(suggestionsByKey);
+        trie = next;
+        indexedVersion = snapshot.getVersion();
+    }
+
+    private Contribution contribution(CatalogEntry entry, Map<Long, Long> unitsByVariant) {
+        List<Keyed> keys = new ArrayList<>();
+        long productUnits = 0;
+        for (CatalogVariant variant : entry.getVariants()) {
+            long units = unitsByVariant.getOrDefault(variant.getId(), 0L);
+            productUnits += units;
+            String key = String.join(" ", SearchAnalyzer.words(variant.getSku()));
+            if (!key.isEmpty()) {
+                keys.add(new Keyed(key, new Suggestion(Suggestion.Kind.SKU, variant.getSku(), entry.getSlug(), units)));
+            }
+        }
+        Suggestion title = new Suggestion(Suggestion.Kind.TITLE, entry.getTitle(), entry.getSlug(), productUnits);
+        keys(entry.getTitle()).forEach(key -> keys.add(new Keyed(key, title)));
+        return new Contribution(keys, entry.getType(), productUnits);
+    }
+
+    private void trackType(long productId, String type) {
+        if (type == null) return;
+        productsByType.computeIfAbsent(type, t -> new HashSet<>()).add(productId);
+    }
+
+    private void untrackType(long productId, String type) {
+        if (type == null) return;
+        Set<Long> products = productsByType.get(type);
+        if (products == null) return;
+        products.remove(productId);
+        if (products.isEmpty()) productsByType.remove(type);
+    }
+
+    /**
+     * Current suggestion for a type, scored by the units sold across its products; null once no product has it.
+     */
+    private Suggestion typeSuggestion(String type) {
+        Set<Long> products = productsByType.get(type);
+        if (products == null) return null;
+        long units = products.stream().mapToLong(id -> contributions.get(id).units()).sum();
+        Suggestion suggestion = new Suggestion(Suggestion.Kind.TYPE, type, null, units);
+        typeSuggestions.put(type, suggestion);
+        return suggestion;
+    }
+
+    /**
+     * Trie keys for a phrase: the normalized phrase starting at each of its words.
+     */
+    private static Set<String> keys(String text) {
+        List<String> words = SearchAnalyzer.words(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())));
+        }
+        return keys;
+    }
+
+    private static Map<Long, Long> unitsByVariant(Collection<VariantSales> sales) {
+        Map<Long, Long> units = new HashMap<>();
+        sales.forEach(s -> units.put(s.getVariantId(), s.getUnits() != null ? s.getUnits() : 0L));
+        return units;
+    }
+
+    private record Keyed(String key, Suggestion suggestion) { }
+
+    private record Contribution(List<Keyed> keys, String type, long units) { }
+}
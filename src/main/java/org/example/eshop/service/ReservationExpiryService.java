@@ -0,0 +1,155 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.ReservationExpiryStatsResponse;
+import org.example.eshop.repository.OrderItemRepository;
+import org.example.eshop.repository.OrderRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Releases stock held by unpaid orders: every {@code shop.inventory.reservation-expiry-interval-ms}, pending
+ * orders older than {@code reservation-hold-minutes} are cancelled {@code reservation-expiry-batch-size} to a
+ * transaction. Each batch releases its reservations with one update per variant, summed over the batch,
+ * then cancels the orders with one conditional update. If an order was paid or cancelled in between, the
+ * batch is rolled back and its orders are retried one at a time, so a reservation is only ever released by
+ * the transaction that cancels its order.
+ */
+@Service
+public class ReservationExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiryService.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final VariantRepository variantRepository;
+    private final InventoryEngine inventoryEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTransaction;
+    private final InventoryProperties properties;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong ordersExpired = new AtomicLong();
+    private final AtomicLong unitsReleased = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private volatile long lastRunNanos;
+    private volatile LocalDateTime lastRunAt;
+
+    public ReservationExpiryService(OrderRepository orderRepository,
+                                    OrderItemRepository orderItemRepository,
+                                    VariantRepository variantRepository,
+                                    InventoryEngine inventoryEngine,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager,
+                                    ShopProperties shopProperties) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.variantRepository = variantRepository;
+        this.inventoryEngine = inventoryEngine;
+        this.eventPublisher = eventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.properties = shopProperties.getInventory();
+    }
+
+    @Scheduled(initialDelayString = "${shop.inventory.reservation-expiry-interval-ms:300000}",
+            fixedDelayString = "${shop.inventory.reservation-expiry-interval-ms:300000}")
+    public void scheduledExpiry() {
+        if (properties.isReservationExpiryEnabled()) {
+            expire();
+        }
+    }
+
+    /**
+     * Runs one expiry pass and returns the number of orders cancelled.
+     */
+    public synchronized long expire() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusMinutes(properties.getReservationHoldMinutes());
+        int batchSize = Math.max(1, properties.getReservationExpiryBatchSize());
+        long started = System.nanoTime();
+        long orders = 0;
+        long units = 0;
+
+        while (true) {
+            List<Long> orderIds = orderRepository.findUnpaidPendingOrderIdsCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+            if (orderIds.isEmpty()) break;
+            long[] expired = expireInTransaction(orderIds, now);
+            if (expired == null) {
+                // Lost a race with payment or cancellation; the orders that are still pending go one by one
+                expired = new long[2];
+                for (Long orderId : orderIds) {
+                    long[] single = expireInTransaction(List.of(orderId), now);
+                    if (single != null) {
+                        expired[0] += single[0];
+                        expired[1] += single[1];
+                    }
+                }
+            }
+            orders += expired[0];
+            units += expired[1];
+            if (orderIds.size() < batchSize || expired[0] == 0) break;
+        }
+
+        long elapsed = System.nanoTime() - started;
+        runs.incrementAndGet();
+        ordersExpired.addAndGet(orders);
+        unitsReleased.addAndGet(units);
+        totalNanos.addAndGet(elapsed);
+        lastRunNanos = elapsed;
+        lastRunAt = now;
+        if (orders > 0) {
+            log.info("Reservation expiry cancelled {} unpaid orders and released {} units in {} ms",
+                    orders, units, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        return orders;
+    }
+
+    public ReservationExpiryStatsResponse stats() {
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+        double ordersPerSecond = totalMillis > 0 ? ordersExpired.get() * 1000.0 / totalMillis : 0.0;
+        return new ReservationExpiryStatsResponse(runs.get(), ordersExpired.get(), unitsReleased.get(), batches.get(),
+                totalMillis, TimeUnit.NANOSECONDS.toMillis(lastRunNanos), ordersPerSecond, lastRunAt);
+    }
+
+    /**
+     * Releases and cancels the given orders in one transaction. Returns {orders cancelled, units released},
+     * or null when one of them was no longer pending and the transaction was rolled back.
+     */
+    private long[] expireInTransaction(List<Long> orderIds, LocalDateTime now) {
+        batches.incrementAndGet();
+        return batchTransaction.execute(status -> {
+            Map<Long, Integer> quantities = new HashMap<>();
+            orderItemRepository.sumUnitsByVariantForOrders(orderIds)
+                    .forEach(row -> quantities.put(row.getVariantId(), row.getUnits().intValue()));
+            // Variants before orders, the same order payment and cancellation take their locks in
+            if (!quantities.isEmpty()) {
+                inventoryEngine.release(quantities);
+            }
+            int cancelled = orderRepository.cancelUnpaidPendingOrders(orderIds, now);
+            if (cancelled != orderIds.size()) {
+                status.setRollbackOnly();
+                return null;
+            }
+            if (!quantities.isEmpty()) {
+                eventPublisher.publishEvent(CatalogChangedEvent.stockChanged(new HashSet<>(variantRepository.findProductIdsByIdIn(quantities.keySet()))));
+            }
+            long units = quantities.values().stream().mapToLong(Integer::longValue).sum();
+            return new long[]{cancelled, units};
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.eshop.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizes and normalizes catalog text for the in-memory search structures. Terms are lower-cased,
+ * stripped of diacritics and split on anything that is not a letter or digit; adjacent words are also
+ * emitted joined ("pu-erh" yields "pu", "erh" and "puerh") so spelling variants meet on a common term.
+ */
+public class SearchAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, Set<String>> synonyms;
+
+    public SearchAnalyzer(Map<String, List<String>> configuredSynonyms) {
+        Map<String, Set<String>> groups = new HashMap<>();
+        configuredSynonyms.forEach((key, values) -> {
+            Set<String> group = new LinkedHashSet<>();
+            group.add(compact(key));
+            if (values != null) values.forEach(v -> group.add(compact(v)));
+            group.remove("");
+            // Merge with any group already known for one of the members so synonyms stay symmetric
+            for (String term : Set.copyOf(group)) {
+                Set<String> existing = groups.get(term);
+                if (existing != null) group.addAll(existing);
+            }
+            for (String term : group) {
+                groups.put(term, group);
+            }
+        });
+        this.synonyms = groups;
+    }
+
+    /**
+     * Splits text into normalized words.
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) return words;
+        for (String word : NON_ALPHANUMERIC.split(normalize(text))) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * Returns the index terms for a piece of text: its words plus each pair of adjacent words joined.
+     */
+    public static Set<String> terms(String text) {
+        List<String> words = words(text);
+        Set<String> terms = new LinkedHashSet<>(words);
+        for (int i = 0; i + 1 < words.size(); i++) {
+            terms.add(words.get(i) + words.get(i + 1));
+        }
+        return terms;
+    }
+
+    /**
+     * Normalizes text and removes all separators, e.g. "Pu-erh" and "pu erh" both become "puerh".
+     */
+    public static String compact(String text) {
+        if (text == null) return "";
+        return NON_ALPHANUMERIC.matcher(normalize(text)).replaceAll("");
+    }
+
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Turns a query into AND-ed clauses of alternative terms. Two adjacent words that together form a
+     * configured synonym ("pu erh") are treated as one clause.
+     */
+    public List<Set<String>> clauses(String query) {
+        List<String> words = words(query);
+        List<Set<String>> clauses = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            if (i + 1 < words.size()) {
+                String joined = words.get(i) + words.get(i + 1);
+                if (synonyms.containsKey(joined)) {
+                    clauses.add(expand(joined));
+                    i++;
+                    continue;
+                }
+            }
+            clauses.add(expand(words.get(i)));
+        }
+        return clauses;
+    }
+
+    /**
+     * Returns the term together with its configured synonyms.
+     */
+    public Set<String> expand(String term) {
+        Set<String> group = synonyms.get(term);
+        return group != null ? group : Set.of(term);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.eshop.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SearchProperties {
+    private String engine = "memory"; // memory | postgres
+    private int maxResults = 500;
+    private int suggestionsPerPrefix = 10;
+    private Map<String, List<String>> synonyms = new LinkedHashMap<>();
+
+    public SearchProperties() {
+    }
+
+    public SearchProperties(Map<String, List<String>> synonyms) {
+        this.synonyms = new LinkedHashMap<>(synonyms);
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    public int getSuggestionsPerPrefix() {
+        return suggestionsPerPrefix;
+    }
+
+    public void setSuggestionsPerPrefix(int suggestionsPerPrefix) {
+        this.suggestionsPerPrefix = suggestionsPerPrefix;
+    }
+
+    public Map<String, List<String>> getSynonyms() {
+        return synonyms;
+    }
+
+    public void setSynonyms(Map<String, List<String>> synonyms) {
+        this.synonyms = synonyms != null ? new LinkedHashMap<>(synonyms) : new LinkedHashMap<>();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchProperties{" +
+                "engine='" + engine + '\'' +
+                ", maxResults=" + maxResults +
+                ", suggestionsPerPrefix=" + suggestionsPerPrefix +
+                ", synonyms=" + synonyms +
+                '}';
+    }
+}
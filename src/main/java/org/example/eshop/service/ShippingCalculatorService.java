@@ -3,6 +3,8 @@ package org.example.eshop.service;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -13,9 +15,14 @@ import java.util.stream.Collectors;
 @Service
 public class ShippingCalculatorService {
     private final ShopProperties shopProperties;
+    // Zones compiled once from the bound properties, keyed by lower-case zone code in configuration order
+    private final Map<String, CompiledZone> compiledZones = new LinkedHashMap<>();
 
     public ShippingCalculatorService(ShopProperties shopProperties) {
         this.shopProperties = shopProperties;
+        shopProperties.getShipping().getZones().forEach((code, zone) -> {
+            if (zone != null) compiledZones.put(code.toLowerCase(Locale.ROOT), new CompiledZone(code, zone));
+        });
     }
 
     /**
@@ -24,17 +31,24 @@ public class ShippingCalculatorService {
      */
     public BigDecimal calculateShippingCost(String zone, int totalWeightGrams) {
         if (zone == null) return null;
-        ShippingZone shippingZone = shopProperties.getShipping().getZones().get(zone.toLowerCase(Locale.ROOT));
-        if (shippingZone == null) return null;
-
-        ShippingBracket bracket = shippingZone.getBrackets().stream()
-                .sorted(Comparator.comparingInt(ShippingBracket::getWeight))
-                .filter(b -> b.getWeight() >= totalWeightGrams)
-                .findFirst()
-                .orElse(null);
+        CompiledZone compiled = compiledZones.get(zone.toLowerCase(Locale.ROOT));
+        if (compiled == null) return null;
+        ShippingBracket bracket = compiled.bracketFor(totalWeightGrams);
         return bracket != null ? bracket.getCost() : null;
     }
 
+    /**
+     * Prices one weight for every configured zone, in configuration order; a zone whose brackets stop
+     * below the weight comes back with a null cost and an error.
+     */
+    public List<ShippingCalculationResult> calculateShippingForAllZones(int totalWeightGrams) {
+        List<ShippingCalculationResult> results = new ArrayList<>(compiledZones.size());
+        for (CompiledZone compiled : compiledZones.values()) {
+            results.add(compiled.calculate(totalWeightGrams));
+        }
+        return results;
+    }
+
     /**
      * Gets all available shipping zones.
      */
@@ -60,25 +74,56 @@ public class ShippingCalculatorService {
      * Calculates shipping cost with detailed breakdown.
      */
     public ShippingCalculationResult calculateShippingWithDetails(String zone, int totalWeightGrams) {
-        String normalized = zone == null ? null : zone.toLowerCase(Locale.ROOT);
-        ShippingZone shippingZone = normalized == null ? null : shopProperties.getShipping().getZones().get(normalized);
+        CompiledZone compiled = zone == null ? null : compiledZones.get(zone.toLowerCase(Locale.ROOT));
 
-        if (shippingZone == null) {
+        if (compiled == null) {
             return new ShippingCalculationResult(zone, null, totalWeightGrams, null, null,
                     "Invalid shipping zone: " + zone);
         }
 
-        ShippingBracket bracket = shippingZone.getBrackets().stream()
-                .sorted(Comparator.comparingInt(ShippingBracket::getWeight))
-                .filter(b -> b.getWeight() >= totalWeightGrams)
-                .findFirst()
-                .orElse(null);
+        ShippingCalculationResult result = compiled.calculate(totalWeightGrams);
+        return new ShippingCalculationResult(zone, result.getZoneName(), totalWeightGrams, result.getCost(),
+                result.getBracket(), result.getError());
+    }
+
+    /**
+     * A zone's brackets sorted by weight limit, with the limits in a plain array for binary search.
+     */
+    private static final class CompiledZone {
+        private final String code;
+        private final String name;
+        private final int[] maxWeights;
+        private final ShippingBracket[] brackets;
 
-        if (bracket == null) {
-            return new ShippingCalculationResult(zone, shippingZone.getName(), totalWeightGrams, null, null,
-                    "Weight " + totalWeightGrams + "g exceeds maximum shipping weight for zone " + shippingZone.getName());
+        private CompiledZone(String code, ShippingZone zone) {
+            this.code = code;
+            this.name = zone.getName();
+            this.brackets = zone.getBrackets() == null ? new ShippingBracket[0] : zone.getBrackets().stream()
+                    .sorted(Comparator.comparingInt(ShippingBracket::getWeight))
+                    .toArray(ShippingBracket[]::new);
+            this.maxWeights = Arrays.stream(brackets).mapToInt(ShippingBracket::getWeight).toArray();
         }
 
-        return new ShippingCalculationResult(zone, shippingZone.getName(), totalWeightGrams, bracket.getCost(), bracket, null);
+        /**
+         * The lightest bracket whose limit is at least the weight, or null when the weight is over every limit.
+         */
+        private ShippingBracket bracketFor(int weightGrams) {
+            int index = Arrays.binarySearch(maxWeights, weightGrams);
+            if (index < 0) {
+                index = -index - 1;
+            } else {
+                while (index > 0 && maxWeights[index - 1] == weightGrams) index--;
+            }
+            return index < brackets.length ? brackets[index] : null;
+        }
+
+        private ShippingCalculationResult calculate(int weightGrams) {
+            ShippingBracket bracket = bracketFor(weightGrams);
+            if (bracket == null) {
+                return new ShippingCalculationResult(code, name, weightGrams, null, null,
+                        "Weight " + weightGrams + "g exceeds maximum shipping weight for zone " + name);
+            }
+            return new ShippingCalculationResult(code, name, weightGrams, bracket.getCost(), bracket, null);
+        }
     }
 }
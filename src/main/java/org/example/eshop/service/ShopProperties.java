@@ -9,6 +9,12 @@ import java.util.Objects;
 public class ShopProperties {
     private BigDecimal vatRate = new BigDecimal("0.20");
     private ShippingProperties shipping = new ShippingProperties();
+    private SearchProperties search = new SearchProperties();
+    private CacheProperties cache = new CacheProperties();
+    private CartProperties cart = new CartProperties();
+    private IdempotencyProperties idempotency = new IdempotencyProperties();
+    private InventoryProperties inventory = new InventoryProperties();
+    private OrderNumberProperties orderNumber = new OrderNumberProperties();
 
     public ShopProperties() {
     }
@@ -34,11 +40,65 @@ public class ShopProperties {
         this.shipping = shipping;
     }
 
+    public SearchProperties getSearch() {
+        return search;
+    }
+
+    public void setSearch(SearchProperties search) {
+        this.search = search;
+    }
+
+    public CacheProperties getCache() {
+        return cache;
+    }
+
+    public void setCache(CacheProperties cache) {
+        this.cache = cache;
+    }
+
+    public CartProperties getCart() {
+        return cart;
+    }
+
+    public void setCart(CartProperties cart) {
+        this.cart = cart;
+    }
+
+    public IdempotencyProperties getIdempotency() {
+        return idempotency;
+    }
+
+    public void setIdempotency(IdempotencyProperties idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    public InventoryProperties getInventory() {
+        return inventory;
+    }
+
+    public void setInventory(InventoryProperties inventory) {
+        this.inventory = inventory;
+    }
+
+    public OrderNumberProperties getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(OrderNumberProperties orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
     @Override
     public String toString() {
         return "ShopProperties{" +
                 "vatRate=" + vatRate +
                 ", shipping=" + shipping +
+                ", search=" + search +
+                ", cache=" + cache +
+                ", cart=" + cart +
+                ", idempotency=" + idempotency +
+                ", inventory=" + inventory +
+                ", orderNumber=" + orderNumber +
                 '}';
     }
 }
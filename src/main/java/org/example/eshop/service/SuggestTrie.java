@@ -0,0 +1,192 @@
+package org.example.eshop.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix trie in which every node keeps the best-ranked suggestions of its subtree, so a lookup is a walk
+ * down the prefix plus a copy of at most k entries. Children live in sorted parallel arrays instead of maps
+ * to keep nodes small. Writers must be serialized by the caller; readers never lock and only ever see
+ * whole, immutable arrays.
+ */
+final class SuggestTrie {
+
+    /**
+     * One suggestion; the same instance may be stored under several keys (e.g. every word of a title).
+     * Identity is by instance, so re-scoring means removing the old instance and adding a new one.
+     */
+    static final class Suggestion {
+        enum Kind { TITLE, TYPE, SKU }
+
+        private final Kind kind;
+        private final String text;
+        private final String slug; // null for types
+        private final long score;
+
+        Suggestion(Kind kind, String text, String slug, long score) {
+            this.kind = kind;
+            this.text = text;
+            this.slug = slug;
+            this.score = score;
+        }
+
+        Kind getKind() { return kind; }
+        String getText() { return text; }
+        String getSlug() { return slug; }
+        long getScore() { return score; }
+    }
+
+    static final Comparator<Suggestion> RANKING = Comparator.comparingLong(Suggestion::getScore).reversed()
+            .thenComparing(Suggestion::getKind)
+            .thenComparingInt(s -> s.getText().length())
+            .thenComparing(Suggestion::getText);
+
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+    private final int k;
+    private final Node root = new Node();
+
+    SuggestTrie(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Best suggestions stored under keys starting with the given (already normalized) prefix.
+     */
+    List<Suggestion> top(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.edges.child(prefix.charAt(i));
+        }
+        if (node == null) return List.of();
+        Suggestion[] top = node.top;
+        return List.of(Arrays.copyOf(top, Math.min(limit, top.length)));
+    }
+
+    void add(String key, Suggestion suggestion) {
+        List<Node> path = insert(key, suggestion);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).recomputeTop(k);
+        }
+    }
+
+    /**
+     * Bulk load: inserts every key first and ranks each node once afterwards, bottom-up.
+     */
+    void addAll(Map<String, List<Suggestion>> suggestionsByKey) {
+        suggestionsByKey.forEach((key, suggestions) -> suggestions.forEach(s -> insert(key, s)));
+        recomputeSubtree(root);
+    }
+
+    private List<Node> insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            Node child = node.edges.child(c);
+            if (child == null) {
+                child = new Node();
+                node.edges = node.edges.with(c, child);
+            }
+            node = child;
+            path.add(node);
+        }
+        if (node.terminals == null) node.terminals = new LinkedHashSet<>();
+        node.terminals.add(suggestion);
+        return path;
+    }
+
+    private void recomputeSubtree(Node node) {
+        for (Node child : node.edges.nodes()) {
+            recomputeSubtree(child);
+        }
+        node.recomputeTop(k);
+    }
+
+    void remove(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.edges.child(key.charAt(i));
+            if (node == null) return;
+            path.add(node);
+        }
+        if (node.terminals == null || !node.terminals.remove(suggestion)) return;
+        if (node.terminals.isEmpty()) node.terminals = null;
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            if (i > 0 && current.terminals == null && current.edges.isEmpty()) {
+                // Prune the dead branch; the parent is recomputed next
+                Node parent = path.get(i - 1);
+                parent.edges = parent.edges.without(key.charAt(i - 1));
+            } else {
+                current.recomputeTop(k);
+            }
+        }
+    }
+
+    private static final class Node {
+        volatile Edges edges = Edges.NONE;
+        volatile Suggestion[] top = NO_SUGGESTIONS;
+        Set<Suggestion> terminals; // suggestions whose key ends here; writer-only
+
+        void recomputeTop(int k) {
+            Set<Suggestion> candidates = new HashSet<>();
+            if (terminals != null) candidates.addAll(terminals);
+            for (Node child : edges.nodes()) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            top = candidates.stream().sorted(RANKING).limit(k).toArray(Suggestion[]::new);
+        }
+    }
+
+    /**
+     * Immutable child table, replaced as a whole so readers never see labels and nodes out of step.
+     */
+    private record Edges(char[] labels, Node[] nodes) {
+        static final Edges NONE = new Edges(new char[0], new Node[0]);
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? nodes[i] : null;
+        }
+
+        boolean isEmpty() {
+            return labels.length == 0;
+        }
+
+        Edges with(char c, Node node) {
+            int at = -Arrays.binarySearch(labels, c) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newNodes = new Node[nodes.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(nodes, 0, newNodes, 0, at);
+            newLabels[at] = c;
+            newNodes[at] = node;
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(nodes, at, newNodes, at + 1, nodes.length - at);
+            return new Edges(newLabels, newNodes);
+        }
+
+        Edges without(char c) {
+            int at = Arrays.binarySearch(labels, c);
+            if (at < 0) return this;
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newNodes = new Node[nodes.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(nodes, 0, newNodes, 0, at);
+            System.arraycopy(labels, at + 1, newLabels, at, labels.length - at - 1);
+            System.arraycopy(nodes, at + 1, newNodes, at, nodes.length - at - 1);
+            return new Edges(newLabels, newNodes);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.eshop.service;
+
+import org.example.eshop.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Order numbers of the form {@code ORD-yyyyMMddHHmmss-NN-SSSS}: the UTC second, this instance's
+ * {@code shop.order-number.node-id}, and a per-second sequence. Second and sequence live in one
+ * {@link AtomicLong}, so numbers from one instance strictly increase and two instances never share one.
+ * A burst of more than 10,000 in a second carries on into the following seconds, as does a clock that
+ * steps back, so the stamp can run ahead of the wall clock but never repeats. UTC keeps daylight-saving
+ * changes from replaying an hour of stamps. The node id has no default, and on startup the generator
+ * resumes after the highest number already stored for its node, so a restart within the same second (or
+ * after running ahead of the clock) does not hand out a number again.
+ */
+@Service
+public class TimestampOrderNumberGenerator implements OrderNumberGenerator {
+
+    static final int MAX_NODE_ID = 99;
+    static final int SEQUENCE_PER_SECOND = 10_000;
+
+    private static final int SEQUENCE_BITS = 14; // 2^14 > SEQUENCE_PER_SECOND
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] PREFIX = "ORD-".toCharArray();
+    private static final int LENGTH = PREFIX.length + 14 + 1 + 2 + 1 + 4;
+
+    private final int nodeId;
+    private final LongSupplier epochSeconds;
+    private final AtomicLong state = new AtomicLong(); // second << SEQUENCE_BITS | sequence
+    private volatile Stamp stamp = new Stamp(-1, null);
+
+    @Autowired
+    public TimestampOrderNumberGenerator(ShopProperties shopProperties, OrderRepository orderRepository) {
+        this(nodeId(shopProperties), () -> System.currentTimeMillis() / 1000);
+        resumeAfter(orderRepository.findHighestNumberLike(numberPattern(nodeId)));
+    }
+
+    TimestampOrderNumberGenerator(int nodeId, LongSupplier epochSeconds) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("shop.order-number.node-id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.epochSeconds = epochSeconds;
+    }
+
+    private static int nodeId(ShopProperties shopProperties) {
+        Integer nodeId = shopProperties.getOrderNumber().getNodeId();
+        if (nodeId == null) {
+            throw new IllegalStateException("shop.order-number.node-id must be set: 0 on a single instance, "
+                    + "a different value between 0 and " + MAX_NODE_ID + " on each instance sharing the database");
+        }
+        return nodeId;
+    }
+
+    /**
+     * LIKE pattern for the numbers this node hands out.
+     */
+    static String numberPattern(int nodeId) {
+        char[] pattern = new char[LENGTH];
+        Arrays.fill(pattern, '_');
+        System.arraycopy(PREFIX, 0, pattern, 0, PREFIX.length);
+        int at = PREFIX.length + 14;
+        pattern[at++] = '-';
+        at = digits(pattern, at, nodeId, 2);
+        pattern[at] = '-';
+        return new String(pattern);
+    }
+
+    /**
+     * Moves the state past a number this node handed out earlier; a null or foreign number is ignored.
+     */
+    void resumeAfter(String number) {
+        if (number == null || number.length() != LENGTH || !number.startsWith("ORD-")
+                || Integer.parseInt(number, PREFIX.length + 15, PREFIX.length + 17, 10) != nodeId) {
+            return;
+        }
+        LocalDateTime time = LocalDateTime.of(
+                Integer.parseInt(number, 4, 8, 10), Integer.parseInt(number, 8, 10, 10),
+                Integer.parseInt(number, 10, 12, 10), Integer.parseInt(number, 12, 14, 10),
+                Integer.parseInt(number, 14, 16, 10), Integer.parseInt(number, 16, 18, 10));
+        long stored = time.toEpochSecond(ZoneOffset.UTC) << SEQUENCE_BITS | Integer.parseInt(number, 22, 26, 10);
+        state.accumulateAndGet(stored, Math::max);
+    }
+
+    @Override
+    public String next() {
+        long now = epochSeconds.getAsLong();
+        while (true) {
+            long previous = state.get();
+            long second = previous >>> SEQUENCE_BITS;
+            long next;
+            if (now > second) {
+                next = now << SEQUENCE_BITS;
+            } else if ((previous & SEQUENCE_MASK) < SEQUENCE_PER_SECOND - 1) {
+                next = previous + 1;
+            } else {
+                next = (second + 1) << SEQUENCE_BITS;
+            }
+            if (state.compareAndSet(previous, next)) {
+                return format(next >>> SEQUENCE_BITS, (int) (next & SEQUENCE_MASK));
+            }
+        }
+    }
+
+    private String format(long second, int sequence) {
+        char[] number = new char[LENGTH];
+        System.arraycopy(PREFIX, 0, number, 0, PREFIX.length);
+        System.arraycopy(stampFor(second), 0, number, PREFIX.length, 14);
+        int at = PREFIX.length + 14;
+        number[at++] = '-';
+        at = digits(number, at, nodeId, 2);
+        number[at++] = '-';
+        digits(number, at, sequence, 4);
+        return new String(number);
+    }
+
+    /**
+     * The yyyyMMddHHmmss digits of a second, worked out once per second rather than per number.
+     */
+    private char[] stampFor(long second) {
+        Stamp current = stamp;
+        if (current.second == second) {
+            return current.digits;
+        }
+        LocalDateTime time = LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC);
+        char[] digits = new char[14];
+        int at = digits(digits, 0, time.getYear(), 4);
+        at = digits(digits, at, time.getMonthValue(), 2);
+        at = digits(digits, at, time.getDayOfMonth(), 2);
+        at = digits(digits, at, time.getHour(), 2);
+        at = digits(digits, at, time.getMinute(), 2);
+        digits(digits, at, time.getSecond(), 2);
+        stamp = new Stamp(second, digits);
+        return digits;
+    }
+
+    private static int digits(char[] target, int at, int value, int width) {
+        for (int i = at + width - 1; i >= at; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return at + width;
+    }
+
+    private static final class Stamp {
+        private final long second;
+        private final char[] digits;
+
+        private Stamp(long second, char[] digits) {
+            this.second = second;
+            this.digits = digits;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package org.example.eshop.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.eshop.dto.CartSummaryDto;
+import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.CartItem;
+import org.example.eshop.repository.CartItemRepository;
+import org.example.eshop.repository.CartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps live carts on the heap and writes them back in batches. A cart is read from the database once,
+ * changed in memory under a per-cart lock, and marked dirty; every {@code shop.cart.flush-interval-ms}
+ * the dirty carts are written {@code flush-batch-size} to a transaction, so a burst of add-to-cart
+ * calls costs one write of the final state. Checkout calls {@link #flush} first, as it reads the
+ * database. Changes made since the last flush are lost if the process dies, which is the trade against
+ * the {@code strict} store.
+ * <p>
+ * The live copy is authoritative, so a cart must only ever be served by one process: use this store on a
+ * single instance only. A cart deleted from the database while live (by the purge, say) is dropped from
+ * memory at its next write-back, with a warning, rather than written to a row that no longer exists.
+ */
+@Service
+@ConditionalOnProperty(prefix = "shop.cart", name = "storage", havingValue = "write-behind")
+public class WriteBehindCartStore implements CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate writeTransaction;
+    private final int flushBatchSize;
+    private final long idleEvictionNanos;
+
+    private final ConcurrentHashMap<Long, LiveCart> carts = new ConcurrentHashMap<>();
+    // One writer at a time, so a forced flush and the scheduled one never write the same cart concurrently
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public WriteBehindCartStore(CartRepository cartRepository,
+                                CartItemRepository cartItemRepository,
+                                PlatformTransactionManager transactionManager,
+                                ShopProperties shopProperties) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushBatchSize = Math.max(1, shopProperties.getCart().getFlushBatchSize());
+        this.idleEvictionNanos = TimeUnit.MINUTES.toNanos(shopProperties.getCart().getIdleEvictionMinutes());
+    }
+
+    @Override
+    public Cart create() {
+        Cart cart = cartRepository.save(new Cart());
+        carts.put(cart.getId(), new LiveCart(copy(cart)));
+        return cart;
+    }
+
+    @Override
+    public Cart findWithItems(Long cartId) {
+        while (true) {
+            LiveCart live = live(cartId);
+            if (live == null) return null;
+            synchronized (live) {
+                if (live.evicted) continue;
+                live.touch();
+                return copy(live.cart);
+            }
+        }
+    }
+
+    @Override
+    public CartSummaryDto findSummary(Long cartId) {
+        LiveCart live = carts.get(cartId);
+        if (live != null) {
+            synchronized (live) {
+                if (!live.evicted) return CartSummaryDto.fromEntity(live.cart);
+            }
+        }
+        // Not live: the row is current, and a badge refresh should not pull the cart into memory
+        return cartRepository.findSummaryById(cartId);
+    }
+
+    @Override
+    public Cart update(Long cartId, CartChange change) {
+        while (true) {
+            LiveCart live = live(cartId);
+            if (live == null) {
+                throw new IllegalArgumentException("Cart not found with id: " + cartId);
+            }
+            synchronized (live) {
+                if (live.evicted) continue;
+                // Change a working copy so a rejected change leaves the live cart as it was
+                Cart working = copy(live.cart);
+                change.apply(working, new InMemoryLines(working));
+                working.setUpdatedAt(LocalDateTime.now());
+                live.cart = working;
+                live.dirty = true;
+                live.touch();
+                return copy(working);
+            }
+        }
+    }
+
+    @Override
+    public Set<Long> cartIdsHolding(Long variantId) {
+        Set<Long> cartIds = new HashSet<>();
+        cartItemRepository.findByVariantId(variantId).forEach(line -> cartIds.add(line.getCartId()));
+        carts.forEach((cartId, live) -> {
+            synchronized (live) {
+                if (!live.evicted && line(live.cart, variantId) != null) cartIds.add(cartId);
+            }
+        });
+        return cartIds;
+    }
+
+    @Override
+    public void flush(Long cartId) {
+        LiveCart live = carts.get(cartId);
+        if (live == null) return;
+        flushLock.lock();
+        try {
+            Cart snapshot = takeSnapshot(live);
+            if (snapshot == null) return;
+            try {
+                writeBack(List.of(snapshot));
+            } catch (RuntimeException e) {
+                markDirty(live);
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Long cartId) {
+        discard(cartId);
+        // A reader could reload the pre-commit state in between, so drop it again once the caller's transaction ends
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    discard(cartId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes every dirty cart, then lets clean carts idle past {@code idle-eviction-minutes} leave memory.
+     */
+    @Scheduled(fixedDelayString = "${shop.cart.flush-interval-ms:1000}")
+    public void flushDirty() {
+        flushLock.lock();
+        try {
+            List<Cart> snapshots = new ArrayList<>();
+            carts.forEach((cartId, live) -> {
+                Cart snapshot = takeSnapshot(live);
+                if (snapshot != null) snapshots.add(snapshot);
+            });
+            for (int from = 0; from < snapshots.size(); from += flushBatchSize) {
+                List<Cart> batch = snapshots.subList(from, Math.min(snapshots.size(), from + flushBatchSize));
+                try {
+                    writeBack(batch);
+                } catch (RuntimeException batchFailure) {
+                    // Isolate the cart that cannot be written so it does not hold back the rest of the batch
+                    for (Cart snapshot : batch) {
+                        try {
+                            writeBack(List.of(snapshot));
+                        } catch (RuntimeException e) {
+                            log.error("Dropping in-memory state of cart {}: write-back failed", snapshot.getId(), e);
+                            discard(snapshot.getId());
+                        }
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushDirty();
+    }
+
+    /**
+     * Number of carts currently held in memory.
+     */
+    public int size() {
+        return carts.size();
+    }
+
+    private LiveCart live(Long cartId) {
+        LiveCart live = carts.get(cartId);
+        if (live != null) return live;
+        // Read outside the map, so a slow query never holds a map bin that other carts' lookups hash to
+        Cart stored = writeTransaction.execute(status -> {
+            Cart cart = cartRepository.findByIdWithItems(cartId);
+            return cart != null ? copy(cart) : null;
+        });
+        if (stored == null) return null;
+        LiveCart loaded = new LiveCart(stored);
+        LiveCart raced = carts.putIfAbsent(cartId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private Cart takeSnapshot(LiveCart live) {
+        synchronized (live) {
+            if (!live.dirty || live.evicted) return null;
+            live.dirty = false;
+            return copy(live.cart);
+        }
+    }
+
+    private void markDirty(LiveCart live) {
+        synchronized (live) {
+            live.dirty = true;
+        }
+    }
+
+    private void discard(Long cartId) {
+        LiveCart live = carts.remove(cartId);
+        if (live != null) {
+            synchronized (live) {
+                live.evicted = true;
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        carts.forEach((cartId, live) -> {
+            synchronized (live) {
+                if (!live.dirty && now - live.lastAccessNanos > idleEvictionNanos) {
+                    live.evicted = true;
+                    carts.remove(cartId, live);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes the carts' totals and reconciles their lines by variant in one transaction: two reads for
+     * the whole batch, then only the rows that differ. Generated line ids are copied back to memory, and
+     * carts whose row is gone are discarded.
+     */
+    private void writeBack(List<Cart> snapshots) {
+        Map<Long, Map<Long, Long>> lineIds = writeTransaction.execute(status -> {
+            List<Long> cartIds = snapshots.stream().map(Cart::getId).toList();
+            Map<Long, Cart> stored = cartRepository.findAllById(cartIds).stream()
+                    .collect(Collectors.toMap(Cart::getId, Function.identity()));
+            Map<Long, Map<Long, CartItem>> storedLines = new HashMap<>();
+            for (CartItem line : cartItemRepository.findByCartIdIn(cartIds)) {
+                storedLines.computeIfAbsent(line.getCartId(), id -> new HashMap<>()).put(line.getVariantId(), line);
+            }
+
+            Map<Long, Map<Long, Long>> written = new HashMap<>();
+            for (Cart snapshot : snapshots) {
+                Cart cart = stored.get(snapshot.getId());
+                if (cart == null) {
+                    written.put(snapshot.getId(), null);
+                    continue;
+                }
+                cart.setSubtotal(snapshot.getSubtotal());
+                cart.setVatAmount(snapshot.getVatAmount());
+                cart.setShippingCost(snapshot.getShippingCost());
+                cart.setTotal(snapshot.getTotal());
+                cart.setShippingWeightGrams(snapshot.getShippingWeightGrams());
+                cart.setItemCount(snapshot.getItemCount());
+
+                Map<Long, CartItem> remaining = storedLines.getOrDefault(cart.getId(), new HashMap<>());
+                Map<Long, Long> ids = new HashMap<>();
+                for (CartItem line : snapshot.getItems()) {
+                    CartItem row = remaining.remove(line.getVariantId());
+                    if (row == null) {
+                        row = cartItemRepository.save(new CartItem(cart.getId(), line.getVariantId(), line.getQty(),
+                                line.getPriceSnapshot(), line.getWeightGramsSnapshot()));
+                    } else {
+                        row.setQty(line.getQty());
+                        row.setPriceSnapshot(line.getPriceSnapshot());
+                        row.setWeightGramsSnapshot(line.getWeightGramsSnapshot());
+                    }
+                    ids.put(line.getVariantId(), row.getId());
+                }
+                cartItemRepository.deleteAll(remaining.values());
+                written.put(cart.getId(), ids);
+            }
+            return written;
+        });
+
+        lineIds.forEach((cartId, ids) -> {
+            if (ids == null) {
+                log.warn("Cart {} was deleted from the database while held in memory; dropping its unsaved changes", cartId);
+                discard(cartId);
+                return;
+            }
+            LiveCart live = carts.get(cartId);
+            if (live == null) return;
+            synchronized (live) {
+                for (CartItem line : live.cart.getItems()) {
+                    if (line.getId() == null) line.setId(ids.get(line.getVariantId()));
+                }
+            }
+        });
+    }
+
+    private static CartItem line(Cart cart, Long variantId) {
+        for (CartItem line : cart.getItems()) {
+            if (line.getVariantId().equals(variantId)) return line;
+        }
+        return null;
+    }
+
+    /**
+     * Detached copy, so memory never shares objects with a persistence context or with callers.
+     */
+    private static Cart copy(Cart source) {
+        Cart cart = new Cart();
+        cart.setId(source.getId());
+        cart.setCreatedAt(source.getCreatedAt());
+        cart.setUpdatedAt(source.getUpdatedAt());
+        cart.setSubtotal(source.getSubtotal());
+        cart.setVatAmount(source.getVatAmount());
+        cart.setShippingCost(source.getShippingCost());
+        cart.setTotal(source.getTotal());
+        cart.setShippingWeightGrams(source.getShippingWeightGrams());
+        cart.setItemCount(source.getItemCount());
+        source.getItems().forEach(line -> cart.addItem(copy(line)));
+        return cart;
+    }
+
+    private static CartItem copy(CartItem source) {
+        CartItem line = new CartItem(source.getCartId(), source.getVariantId(), source.getQty(),
+                source.getPriceSnapshot(), source.getWeightGramsSnapshot());
+        line.setId(source.getId());
+        return line;
+    }
+
+    private static final class LiveCart {
+        private Cart cart;
+        private boolean dirty;
+        private boolean evicted;
+        private long lastAccessNanos = System.nanoTime();
+
+        private LiveCart(Cart cart) {
+            this.cart = cart;
+        }
+
+        private void touch() {
+            lastAccessNanos = System.nanoTime();
+        }
+    }
+
+    private static final class InMemoryLines implements Lines {
+        private final Cart cart;
+
+        private InMemoryLines(Cart cart) {
+            this.cart = cart;
+        }
+
+        @Override
+        public CartItem find(Long variantId) {
+            return line(cart, variantId);
+        }
+
+        @Override
+        public Map<Long, CartItem> findAll(Collection<Long> variantIds) {
+            Map<Long, CartItem> found = new HashMap<>();
+            for (CartItem line : cart.getItems()) {
+                if (variantIds.contains(line.getVariantId())) found.put(line.getVariantId(), line);
+            }
+            return found;
+        }
+
+        @Override
+        public void save(CartItem line) {
+            if (cart.getItems().stream().noneMatch(existing -> existing == line)) {
+                cart.addItem(line);
+            }
+        }
+
+        @Override
+        public void saveAll(Collection<CartItem> lines) {
+            lines.forEach(this::save);
+        }
+
+        @Override
+        public void delete(CartItem line) {
+            cart.getItems().removeIf(existing -> existing == line);
+        }
+
+        @Override
+        public void deleteAll() {
+            cart.clearItems();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Product search indexes (V2)
+--
+-- Backs the database search engine (shop.search.engine=postgres):
+--   * search_vector: generated tsvector over title, type and description, ranked with ts_rank.
+--     The title is indexed twice: stemmed, and with punctuation removed so that "Pu-erh" also
+--     yields the compact lexeme "puerh" that configured synonyms are normalized to.
+--   * pg_trgm index on title for typo-tolerant similarity matches (title % :text).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', regexp_replace(coalesce(title, ''), '[^[:alnum:][:space:]]', '', 'g')), 'A') ||
+        setweight(to_tsvector('english', coalesce(type, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_products_title_trgm ON products USING GIN (title gin_trgm_ops);
@@ -0,0 +1,15 @@
+-- Cart running totals (V3)
+--
+-- Carts keep their subtotal and shipping weight up to date by applying the delta of the one line that
+-- changed. Each line records the unit shipping weight it was added with (like price_snapshot), so
+-- removing it subtracts exactly what was added even if the variant's weight was edited in between.
+
+ALTER TABLE cart_items ADD COLUMN IF NOT EXISTS weight_grams_snapshot INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS shipping_weight_grams INTEGER NOT NULL DEFAULT 0;
+
+UPDATE cart_items ci
+SET weight_grams_snapshot = (SELECT ROUND(v.shipping_weight * 1000) FROM variants v WHERE v.id = ci.variant_id);
+
+UPDATE carts c
+SET subtotal = COALESCE((SELECT SUM(ci.price_snapshot * ci.qty) FROM cart_items ci WHERE ci.cart_id = c.id), 0),
+    shipping_weight_grams = COALESCE((SELECT SUM(ci.weight_grams_snapshot * ci.qty) FROM cart_items ci WHERE ci.cart_id = c.id), 0);
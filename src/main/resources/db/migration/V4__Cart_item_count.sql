@@ -0,0 +1,9 @@
+-- Cart item count (V4)
+--
+-- The header badge shows how many items a cart holds. Like the running totals from V3, the count is kept
+-- on the cart row by the same line deltas, so the badge reads one narrow row instead of every cart_items line.
+
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS item_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE carts c
+SET item_count = COALESCE((SELECT SUM(ci.qty) FROM cart_items ci WHERE ci.cart_id = c.id), 0);
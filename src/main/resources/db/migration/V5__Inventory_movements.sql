@@ -0,0 +1,20 @@
+-- Inventory movement journal (V5)
+--
+-- With shop.inventory.engine=ledger, reservations are taken against in-memory counters and every change
+-- is journalled here in the transaction that made it. Batches later apply the summed deltas to
+-- variants.stock_qty and variants.reserved_qty and set applied on the rows they wrote, so movements
+-- committed before a crash are applied on the next flush instead of being lost. Apart from that flag,
+-- rows are never updated.
+
+CREATE TABLE IF NOT EXISTS inventory_movements (
+    id BIGSERIAL PRIMARY KEY,
+    variant_id BIGINT NOT NULL,
+    stock_delta INTEGER NOT NULL,
+    reserved_delta INTEGER NOT NULL,
+    reason VARCHAR(16) NOT NULL,
+    applied BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_variant_id ON inventory_movements(variant_id);
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_pending ON inventory_movements(id) WHERE applied = FALSE;
@@ -0,0 +1,11 @@
+-- Pooled sequence ids for carts, cart_items, orders and order_items (V6)
+--
+-- These entities now take their ids from the BIGSERIAL sequences with Hibernate's pooled optimizer:
+-- one nextval reserves a block of 50 ids, so inserts no longer need the generated key back and
+-- Hibernate can send them as JDBC batches. The increment must match allocationSize on the entities.
+-- Column defaults still use nextval, so a plain SQL insert takes a block end no pool will hand out.
+
+ALTER SEQUENCE carts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE cart_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
@@ -0,0 +1,7 @@
+-- Cart version (V7)
+--
+-- Carts keep running totals that every line change moves by a delta, so two changes that both read the
+-- old totals would lose one delta. Cart updates now lock the row, and the version column lets Hibernate
+-- reject any write made from a stale copy.
+
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
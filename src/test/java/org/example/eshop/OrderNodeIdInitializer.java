@@ -0,0 +1,28 @@
+package org.example.eshop;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gives every test application context its own {@code shop.order-number.node-id}. Cached contexts share one
+ * in-memory database and are alive at the same time, just like instances of a deployment, so two of them on
+ * the same node id would hand out the same order numbers.
+ */
+public class OrderNodeIdInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        int nodeId = NEXT.getAndIncrement();
+        if (nodeId > 99) {
+            throw new IllegalStateException("More than 100 test contexts; order node ids would repeat");
+        }
+        context.getEnvironment().getPropertySources().addFirst(
+                new MapPropertySource("orderNodeId", Map.of("shop.order-number.node-id", nodeId)));
+    }
+}
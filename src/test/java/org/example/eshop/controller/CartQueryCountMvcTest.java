@@ -0,0 +1,114 @@
+package org.example.eshop.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.example.eshop.service.CartService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class CartQueryCountMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Cart endpoint issues the same number of statements for one line as for twenty")
+    void getCart_shouldNotIssueQueriesPerLine() throws Exception {
+        Product product = productRepository.save(new Product("qc-oolong", "Oolong", "Oolong Tea", null, ProductStatus.ACTIVE));
+        Cart small = cartService.createCart();
+        Cart large = cartService.createCart();
+        for (int i = 0; i < 20; i++) {
+            Variant variant = new Variant(product.getId(), "QC-" + i, i + "g", new BigDecimal("5.00"), new BigDecimal("0.010"), new BigDecimal("0.020"));
+            variant.setStockQty(10);
+            variant = variantRepository.save(variant);
+            if (i == 0) {
+                cartService.addItemToCart(small.getId(), variant.getId(), 1);
+            }
+            cartService.addItemToCart(large.getId(), variant.getId(), 1);
+        }
+
+        long smallStatements = statementsFor(small.getId(), 1);
+        long largeStatements = statementsFor(large.getId(), 20);
+
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    @DisplayName("Cart summary and shipping quotes read one row and no lines")
+    void getCartSummary_shouldReadOnlyTheCartRow() throws Exception {
+        Product product = productRepository.save(new Product("qc-sencha", "Sencha", "Green Tea", null, ProductStatus.ACTIVE));
+        Cart cart = cartService.createCart();
+        for (int i = 0; i < 3; i++) {
+            Variant variant = new Variant(product.getId(), "QS-" + i, i + "g", new BigDecimal("4.00"), new BigDecimal("0.010"), new BigDecimal("0.020"));
+            variant.setStockQty(10);
+            variant = variantRepository.save(variant);
+            cartService.addItemToCart(cart.getId(), variant.getId(), i + 1);
+            if (i == 2) {
+                cartService.updateItemQuantity(cart.getId(), variant.getId(), 1);
+            }
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/cart/{cartId}/summary", cart.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemCount").value(4))
+                .andExpect(jsonPath("$.subtotal").value(16.00));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/cart/{cartId}/shipping-quotes", cart.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shippingWeightGrams").value(80))
+                .andExpect(jsonPath("$.quotes.length()").value(1))
+                .andExpect(jsonPath("$.quotes[0].zone").value("domestic"))
+                .andExpect(jsonPath("$.quotes[0].cost").value(5.00));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private long statementsFor(Long cartId, int lines) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/cart/{cartId}", cartId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cart.items.length()").value(lines))
+                .andExpect(jsonPath("$.cart.items[0].variant.productTitle").value("Oolong"));
+        return statistics.getPrepareStatementCount();
+    }
+}
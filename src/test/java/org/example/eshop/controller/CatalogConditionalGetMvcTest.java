@@ -0,0 +1,68 @@
+package org.example.eshop.controller;
+
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.service.CatalogSnapshotService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogConditionalGetMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Test
+    @DisplayName("Catalog endpoints answer 304 for a current ETag, also after a rebuild, and 200 with a new one after a catalog change")
+    void catalogEndpoints_shouldSupportConditionalGet() throws Exception {
+        Product product = productRepository.save(new Product("etag-sencha", "Sencha", "Green Tea", null, ProductStatus.ACTIVE));
+        catalogSnapshotService.rebuild();
+
+        for (String url : new String[]{"/api/products", "/api/products/etag-sencha", "/catalog"}) {
+            String etag = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(etag);
+
+            mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        String before = mockMvc.perform(get("/api/products")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // Derived from content, so a rebuild of the same catalog (as on a restart or another instance) keeps it
+        catalogSnapshotService.rebuild();
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isNotModified());
+
+        product.setTitle("Sencha Superior");
+        productRepository.save(product);
+        catalogSnapshotService.refreshProducts(Set.of(product.getId()));
+        String after = mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(before, after);
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.eshop.controller;
+
+import jakarta.servlet.http.Cookie;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.CartRepository;
+import org.example.eshop.repository.OrderRepository;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.example.eshop.service.CatalogSnapshotService;
+import org.example.eshop.service.CookieCartService;
+import org.example.eshop.service.ShopProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "shop.cart.cookie-carts=true",
+        "shop.cart.cookie-secret=test-secret",
+        "shop.cart.cookie-max-lines=2"
+})
+@AutoConfigureMockMvc
+class CookieCartMvcTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+    @Autowired private CatalogSnapshotService catalogSnapshotService;
+
+    private static final String CHECKOUT_BODY = """
+            {"fullName":"Ada Buyer","email":"ada@example.com","street1":"1 Tea Street","city":"Teatown",
+             "region":"Leaf","postalCode":"12345","country":"UK"}""";
+
+    private final long[] variantIds = new long[3];
+
+    @BeforeEach
+    void setUp() {
+        Product product = productRepository.save(new Product("cookie-" + System.nanoTime(), "Gyokuro", "Green Tea", null, ProductStatus.ACTIVE));
+        for (int i = 0; i < variantIds.length; i++) {
+            Variant variant = new Variant(product.getId(), product.getSlug() + "-" + i, (i + 1) * 25 + "g",
+                    new BigDecimal("10.00"), new BigDecimal("0.100"), new BigDecimal("0.150"));
+            variant.setStockQty(5);
+            variantIds[i] = variantRepository.save(variant).getId();
+        }
+        catalogSnapshotService.rebuild();
+    }
+
+    @Test
+    @DisplayName("Anonymous carts stay in the signed cookie until they outgrow it")
+    void cookieCart_shouldAvoidCartRowsUntilTheLineLimit() throws Exception {
+        long rows = cartRepository.count();
+
+        Cookie cart = mockMvc.perform(post("/api/cart"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.cart.id").value(0))
+                .andReturn().getResponse().getCookie("cart");
+        assertNotNull(cart);
+
+        cart = addItem(cart, variantIds[0], 2).getResponse().getCookie("cart");
+        cart = addItem(cart, variantIds[1], 1).getResponse().getCookie("cart");
+        mockMvc.perform(get("/api/cart/0").cookie(cart))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cart.items.length()").value(2))
+                .andExpect(jsonPath("$.cart.subtotal").value(30.00))
+                .andExpect(jsonPath("$.cart.items[0].variant.productTitle").value("Gyokuro"));
+        assertEquals(rows, cartRepository.count());
+
+        Cookie tampered = new Cookie("cart", cart.getValue().replaceFirst("^.", cart.getValue().startsWith("A") ? "B" : "A"));
+        mockMvc.perform(get("/api/cart/0").cookie(tampered))
+                .andExpect(jsonPath("$.cart.items.length()").value(0));
+
+        MvcResult saved = addItem(cart, variantIds[2], 1);
+        Cookie cartId = saved.getResponse().getCookie("cartId");
+        assertNotNull(cartId);
+        assertEquals(rows + 1, cartRepository.count());
+        mockMvc.perform(get("/api/cart/{cartId}", cartId.getValue()))
+                .andExpect(jsonPath("$.cart.items.length()").value(3))
+                .andExpect(jsonPath("$.cart.subtotal").value(40.00));
+    }
+
+    @Test
+    @DisplayName("Cookie carts are checked against cached stock")
+    void cookieCart_shouldRejectQuantitiesAboveStock() throws Exception {
+        mockMvc.perform(post("/api/cart/0/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"variantId\":" + variantIds[0] + ",\"quantity\":6}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("A cookie cart can be checked out directly; it is saved and its cookie swapped for the cart id")
+    void cookieCart_shouldCheckOutThroughTheCookieCartId() throws Exception {
+        long orders = orderRepository.count();
+        Cookie cart = addItem(null, variantIds[0], 2).getResponse().getCookie("cart");
+
+        MvcResult placed = mockMvc.perform(post("/api/checkout/0/submit")
+                        .cookie(cart)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CHECKOUT_BODY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subtotal").value(20.00))
+                .andReturn();
+
+        assertEquals(orders + 1, orderRepository.count());
+        assertNotNull(placed.getResponse().getCookie("cartId"));
+        assertEquals(0, placed.getResponse().getCookie("cart").getMaxAge());
+
+        mockMvc.perform(post("/api/checkout/0/submit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CHECKOUT_BODY))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Cookie carts refuse to start without a configured secret")
+    void cookieCarts_shouldRequireASecret() {
+        ShopProperties properties = new ShopProperties();
+        properties.getCart().setCookieCarts(true);
+        properties.getCart().setCookieSecret(" ");
+        assertThrows(IllegalStateException.class, () -> new CookieCartService(null, null, null, null, properties));
+    }
+
+    private MvcResult addItem(Cookie cart, long variantId, int quantity) throws Exception {
+        var request = post("/api/cart/0/items");
+        if (cart != null) request.cookie(cart);
+        return mockMvc.perform(request
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"variantId\":" + variantId + ",\"quantity\":" + quantity + "}"))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.eshop.controller;
+
+import jakarta.servlet.http.Cookie;
+import org.example.eshop.config.IdempotencyFilter;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.CartItemRepository;
+import org.example.eshop.repository.OrderRepository;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.example.eshop.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyMvcTest {
+
+    private static final String CHECKOUT_BODY = """
+            {"fullName":"Ada Buyer","email":"ada@example.com","street1":"1 Tea Street","city":"Teatown",
+             "region":"Leaf","postalCode":"12345","country":"UK"}""";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CartService cartService;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+
+    private Variant variant;
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        Product product = productRepository.save(new Product("idem-" + System.nanoTime(), "Dian Hong", "Black Tea", null, ProductStatus.ACTIVE));
+        variant = new Variant(product.getId(), product.getSlug() + "-50g", "50g", new BigDecimal("12.00"),
+                new BigDecimal("0.050"), new BigDecimal("0.100"));
+        variant.setStockQty(10);
+        variant = variantRepository.save(variant);
+        cartId = cartService.createCart().getId();
+    }
+
+    @Test
+    @DisplayName("A retried add-to-cart is replayed instead of adding the item again")
+    void retriedAddToCart_shouldBeReplayed() throws Exception {
+        MvcResult first = addItem("add-1", 2)
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn();
+        MvcResult retry = addItem("add-1", 2)
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn();
+
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+        assertEquals(2, cartItemRepository.findByCartId(cartId).get(0).getQty());
+
+        addItem("add-2", 1).andExpect(status().isOk());
+        assertEquals(3, cartItemRepository.findByCartId(cartId).get(0).getQty());
+    }
+
+    @Test
+    @DisplayName("A key reused for a different request is rejected")
+    void reusedKeyWithDifferentBody_shouldBeRejected() throws Exception {
+        addItem("add-3", 1).andExpect(status().isOk());
+        addItem("add-3", 4).andExpect(status().isUnprocessableEntity());
+        assertEquals(1, cartItemRepository.findByCartId(cartId).get(0).getQty());
+    }
+
+    @Test
+    @DisplayName("A retried checkout returns the first order and reserves stock once")
+    void retriedCheckout_shouldCreateOneOrder() throws Exception {
+        addItem("add-4", 3).andExpect(status().isOk());
+        long orders = orderRepository.count();
+
+        String first = submit("checkout-1").andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String retry = submit("checkout-1")
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retry);
+        assertEquals(orders + 1, orderRepository.count());
+        assertEquals(3, variantRepository.findById(variant.getId()).orElseThrow().getReservedQty());
+    }
+
+    @Test
+    @DisplayName("The same key from different callers is not replayed across them, and cookies are never replayed")
+    void sameKeyFromDifferentCallers_shouldNotShareResponses() throws Exception {
+        mockMvc.perform(post("/api/cart").cookie(new Cookie("cartId", "visitor-a"))
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "new-cart"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/cart").cookie(new Cookie("cartId", "visitor-b"))
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "new-cart"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        mockMvc.perform(post("/api/cart").cookie(new Cookie("cartId", "visitor-a"))
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "new-cart"))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(header().doesNotExist(HttpHeaders.SET_COOKIE));
+        mockMvc.perform(post("/api/cart").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "new-cart"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("A request body over the limit is rejected before it is read in full")
+    void oversizedBody_shouldBeRejected() throws Exception {
+        mockMvc.perform(post("/api/cart/{cartId}/items", cartId)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "too-big")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(" ".repeat(65_537)))
+                .andExpect(status().isPayloadTooLarge());
+        assertTrue(cartItemRepository.findByCartId(cartId).isEmpty());
+    }
+
+    private ResultActions addItem(String key, int quantity) throws Exception {
+        return mockMvc.perform(post("/api/cart/{cartId}/items", cartId)
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"variantId\":" + variant.getId() + ",\"quantity\":" + quantity + "}"));
+    }
+
+    private ResultActions submit(String key) throws Exception {
+        return mockMvc.perform(post("/api/checkout/{cartId}/submit", cartId)
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(CHECKOUT_BODY));
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.eshop.repository;
+
+import org.example.eshop.dto.ProductDto;
+import org.example.eshop.dto.ProductListingRow;
+import org.example.eshop.dto.VariantListingRow;
+import org.example.eshop.entity.Lot;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Season;
+import org.example.eshop.entity.StorageType;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.service.CatalogEntry;
+import org.example.eshop.service.CatalogVariant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ProductListingProjectionTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductListingProjectionTest.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private LotRepository lotRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Aggregated listing rows match the summaries computed from entities")
+    void findListingRows_shouldMatchEntityAggregates() {
+        Product sencha = productRepository.save(new Product("sencha", "Sencha", "green", "steamed", ProductStatus.ACTIVE));
+        Lot old = lotRepository.save(new Lot(sencha.getId(), 2022, Season.SPRING, StorageType.DRY));
+        Lot fresh = lotRepository.save(new Lot(sencha.getId(), 2024, Season.SPRING, StorageType.DRY));
+        variant(sencha, "SEN-50", "9.50", 3, 0, fresh);
+        variant(sencha, "SEN-100", "17.00", 20, 2, old);
+
+        Product pot = productRepository.save(new Product("pot", "Pot", "teaware", null, ProductStatus.ACTIVE));
+        variant(pot, "POT-1", "45.00", 2, 2, null);
+
+        productRepository.save(new Product("empty", "Empty", "tea", null, ProductStatus.ACTIVE));
+        Product draft = productRepository.save(new Product("draft", "Draft", "tea", null, ProductStatus.DRAFT));
+        variant(draft, "DRAFT-1", "1.00", 1, 0, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ProductDto> projected = projectionPath(null);
+        List<ProductDto> hydrated = entityPath();
+
+        assertThat(projected).extracting(ProductDto::getSlug).containsExactly("sencha", "pot", "empty");
+        assertThat(projected).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(hydrated);
+
+        ProductDto senchaSummary = projected.get(0);
+        assertThat(senchaSummary.getMinPrice()).isEqualByComparingTo("9.50");
+        assertThat(senchaSummary.getMaxPrice()).isEqualByComparingTo("17.00");
+        assertThat(senchaSummary.getStockStatus()).isEqualTo(ProductDto.StockStatus.LOW_STOCK);
+        assertThat(senchaSummary.getHarvestYear()).isEqualTo(2024); // the first variant's lot, not the earliest
+        assertThat(projected.get(1).getStockStatus()).isEqualTo(ProductDto.StockStatus.OUT_OF_STOCK);
+        assertThat(projected.get(2).getVariantCount()).isZero();
+
+        assertThat(projectionPath(Set.of(pot.getId(), draft.getId())))
+                .extracting(ProductDto::getSlug).containsExactly("pot");
+    }
+
+    /**
+     * Compares latency and heap allocation of the entity path against the projection path.
+     * Run with {@code gradle test -Dbenchmark=true --tests '*ProductListingProjectionTest'}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_entityHydrationVersusProjection() {
+        for (int i = 0; i < 2000; i++) {
+            Product product = productRepository.save(new Product("bench-" + i, "Bench " + i, "tea", "generated", ProductStatus.ACTIVE));
+            Lot lot = lotRepository.save(new Lot(product.getId(), 2015 + i % 10, Season.values()[i % 4], StorageType.DRY));
+            for (int v = 0; v < 3; v++) {
+                variant(product, "B-" + i + "-" + v, (5 + v * 10) + ".00", i % 7, 0, lot);
+            }
+        }
+        entityManager.flush();
+
+        for (int warmup = 0; warmup < 5; warmup++) {
+            entityPath();
+            projectionPath(null);
+        }
+        log.info(measure("entities", this::entityPath));
+        log.info(measure("projection", () -> projectionPath(null)));
+    }
+
+    private List<ProductDto> entityPath() {
+        entityManager.clear();
+        List<Product> products = productRepository.findByStatusAndOptionalType(ProductStatus.ACTIVE, null);
+        Set<Long> ids = products.stream().map(Product::getId).collect(Collectors.toSet());
+        Map<Long, List<Variant>> variants = variantRepository.findAll().stream()
+                .filter(v -> ids.contains(v.getProductId()))
+                .collect(Collectors.groupingBy(Variant::getProductId));
+        Map<Long, Lot> lots = lotRepository.findAll().stream().collect(Collectors.toMap(Lot::getId, Function.identity()));
+        return products.stream()
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .map(p -> CatalogEntry.of(p, variants.getOrDefault(p.getId(), List.of()), lots).getSummary())
+                .toList();
+    }
+
+    private List<ProductDto> projectionPath(Set<Long> ids) {
+        entityManager.clear();
+        List<ProductListingRow> products = ids == null
+                ? productRepository.findListingRows(ProductStatus.ACTIVE)
+                : productRepository.findListingRowsByIdIn(ProductStatus.ACTIVE, ids);
+        List<VariantListingRow> variants = ids == null
+                ? variantRepository.findListingRows(ProductStatus.ACTIVE)
+                : variantRepository.findListingRowsByProductIdIn(ProductStatus.ACTIVE, ids);
+        Map<Long, List<CatalogVariant>> byProduct = variants.stream()
+                .collect(Collectors.groupingBy(VariantListingRow::getProductId,
+                        Collectors.mapping(CatalogVariant::of, Collectors.toList())));
+        return products.stream()
+                .map(row -> CatalogEntry.of(row, byProduct.getOrDefault(row.getId(), List.of())).getSummary())
+                .toList();
+    }
+
+    private String measure(String label, Supplier<List<ProductDto>> path) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        List<Long> nanos = new ArrayList<>();
+        long bytes = 0;
+        int runs = 20;
+        for (int i = 0; i < runs; i++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            path.get();
+            nanos.add(System.nanoTime() - start);
+            bytes += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        nanos.sort(Long::compare);
+        return String.format("%-10s p50=%.2fms p95=%.2fms alloc=%dKiB/run",
+                label, nanos.get(runs / 2) / 1e6, nanos.get(runs * 95 / 100) / 1e6, bytes / runs / 1024);
+    }
+
+    private void variant(Product product, String sku, String price, int stock, int reserved, Lot lot) {
+        Variant variant = new Variant(product.getId(), sku, sku, new BigDecimal(price), new BigDecimal("0.100"), new BigDecimal("0.150"));
+        variant.setStockQty(stock);
+        variant.setReservedQty(reserved);
+        variant.setLotId(lot != null ? lot.getId() : null);
+        variantRepository.save(variant);
+    }
+}
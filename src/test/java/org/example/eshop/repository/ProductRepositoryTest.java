@@ -38,14 +38,4 @@ class ProductRepositoryTest {
         List<Product> allActive = productRepository.findByStatusAndOptionalType(ProductStatus.ACTIVE, null);
         assertThat(allActive).extracting(Product::getSlug).containsExactlyInAnyOrder("black-tea", "teapot");
     }
-
-    @Test
-    void findByKeyword_shouldReturnMatchesInTitleOrDescription() {
-        productRepository.save(new Product("gyokuro", "Gyokuro", "tea", "shaded green tea", ProductStatus.ACTIVE));
-        productRepository.save(new Product("sencha", "Sencha", "tea", "Japanese green tea", ProductStatus.ACTIVE));
-        productRepository.save(new Product("gaiwan", "Gaiwan", "accessory", "porcelain brewing cup", ProductStatus.ACTIVE));
-
-        List<Product> results = productRepository.findByKeyword("green");
-        assertThat(results).extracting(Product::getSlug).containsExactlyInAnyOrder("gyokuro", "sencha");
-    }
 }
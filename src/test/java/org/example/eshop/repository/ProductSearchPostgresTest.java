@@ -0,0 +1,103 @@
+package org.example.eshop.repository;
+
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.service.PostgresProductSearchEngine;
+import org.example.eshop.service.ShopProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the database search engine against a real PostgreSQL with the Flyway schema.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductSearchPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private PostgresProductSearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ShopProperties shopProperties = new ShopProperties();
+        shopProperties.getSearch().setSynonyms(Map.of(
+                "puer", List.of("pu-erh", "pu erh", "puerh")));
+        engine = new PostgresProductSearchEngine(productRepository, shopProperties);
+
+        jdbcTemplate.update("""
+                INSERT INTO products (slug, title, type, description, status)
+                SELECT 'filler-' || g, 'Filler item ' || g, 'accessory', 'generated catalog row', 'ACTIVE'
+                FROM generate_series(1, 100000) g
+                """);
+    }
+
+    @Test
+    @DisplayName("Synonyms and stemming match across title and description, title hits rank first")
+    void search_shouldRankTitleMatchesAboveDescriptionMatches() {
+        Product title = productRepository.save(new Product("aged-pu-erh", "Aged Pu-erh", "tea", "earthy cake", ProductStatus.ACTIVE));
+        Product description = productRepository.save(new Product("yixing-pot", "Yixing Pot", "teaware", "ideal for brewing puer", ProductStatus.ACTIVE));
+        productRepository.save(new Product("draft-puer", "Puer Draft", "tea", null, ProductStatus.DRAFT));
+        productRepository.flush();
+
+        assertThat(engine.search("puer")).containsExactly(title.getId(), description.getId());
+        assertThat(engine.search("pu-erh cake")).containsExactly(title.getId());
+    }
+
+    @Test
+    @DisplayName("Misspelled titles are still found through trigram similarity")
+    void search_shouldTolerateTypos() {
+        Product gyokuro = productRepository.save(new Product("gyokuro", "Gyokuro", "tea", "shaded green tea", ProductStatus.ACTIVE));
+        productRepository.flush();
+
+        assertThat(engine.search("gyokuru")).containsExactly(gyokuro.getId());
+    }
+
+    @Test
+    @DisplayName("Search query is served by the GIN indexes, not a sequential scan")
+    void search_shouldUseGinIndexes() {
+        productRepository.save(new Product("aged-pu-erh", "Aged Pu-erh", "tea", "earthy cake", ProductStatus.ACTIVE));
+        productRepository.flush();
+        jdbcTemplate.execute("ANALYZE products");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+                EXPLAIN SELECT p.id FROM products p
+                WHERE p.status = 'ACTIVE'
+                AND (p.search_vector @@ to_tsquery('english', '(puer:* | puerh:*)') OR p.title % 'puer')
+                ORDER BY ts_rank(p.search_vector, to_tsquery('english', '(puer:* | puerh:*)')) + similarity(p.title, 'puer') DESC, p.id
+                LIMIT 500
+                """, String.class));
+
+        assertThat(plan).contains("idx_products_search_vector");
+        assertThat(plan).contains("idx_products_title_trgm");
+        assertThat(plan).doesNotContain("Seq Scan on products");
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.CartPurgeStatsResponse;
+import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.CartItem;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.CartItemRepository;
+import org.example.eshop.repository.CartRepository;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "shop.cart.purge-chunk-size=2",
+        "shop.cart.purge-pause-ms=0"
+})
+@DisplayName("Cart Purge Service Tests")
+class CartPurgeServiceTest {
+
+    @Autowired private CartPurgeService cartPurgeService;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+
+    @Test
+    @DisplayName("Should delete expired empty and abandoned carts in chunks, keeping live ones")
+    void purge_shouldDeleteExpiredCartsInChunks() {
+        Product product = productRepository.save(new Product("purge-tea", "Purge Tea", "Green Tea", null, ProductStatus.ACTIVE));
+        Variant variant = variantRepository.save(new Variant(product.getId(), "PURGE-25G", "25g", new BigDecimal("5.00"),
+                new BigDecimal("0.025"), new BigDecimal("0.050")));
+        LocalDateTime now = LocalDateTime.now();
+
+        Long freshEmpty = cart(now.minusHours(1), now.minusHours(1), null).getId();
+        Long activeWithLine = cart(now.minusDays(60), now.minusDays(1), variant).getId();
+        for (int i = 0; i < 3; i++) {
+            cart(now.minusDays(2), now.minusDays(2), null);
+        }
+        Long abandoned = cart(now.minusDays(45), now.minusDays(40), variant).getId();
+        long before = cartRepository.count();
+
+        long deleted = cartPurgeService.purge();
+
+        assertEquals(4, deleted);
+        assertEquals(before - 4, cartRepository.count());
+        assertTrue(cartRepository.existsById(freshEmpty));
+        assertTrue(cartRepository.existsById(activeWithLine));
+        assertFalse(cartRepository.existsById(abandoned));
+        assertTrue(cartItemRepository.findByCartId(abandoned).isEmpty());
+        assertEquals(1, cartItemRepository.findByCartId(activeWithLine).size());
+
+        CartPurgeStatsResponse stats = cartPurgeService.stats();
+        assertEquals(3, stats.getEmptyCartsDeleted());
+        assertEquals(1, stats.getAbandonedCartsDeleted());
+        assertEquals(3, stats.getChunks()); // 2 + 1 empty, then 1 abandoned
+        assertNotNull(stats.getLastRunAt());
+    }
+
+    private Cart cart(LocalDateTime createdAt, LocalDateTime updatedAt, Variant variant) {
+        Cart cart = new Cart();
+        cart.setCreatedAt(createdAt);
+        cart.setUpdatedAt(updatedAt);
+        cart = cartRepository.save(cart);
+        if (variant != null) {
+            cartItemRepository.save(new CartItem(cart.getId(), variant.getId(), 1, variant.getPrice()));
+        }
+        return cart;
+    }
+}
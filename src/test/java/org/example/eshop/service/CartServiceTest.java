@@ -0,0 +1,163 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.CartItem;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.CartItemRepository;
+import org.example.eshop.repository.CartRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CartServiceTest {
+
+    @Mock private CartRepository cartRepository;
+    @Mock private CartItemRepository cartItemRepository;
+    @Mock private VariantRepository variantRepository;
+
+    private CartService cartService;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Map<String, ShippingZone> zones = new LinkedHashMap<>();
+        zones.put("domestic", new ShippingZone("Domestic", List.of(
+                new ShippingBracket(500, new BigDecimal("5.00")),
+                new ShippingBracket(1000, new BigDecimal("7.50")))));
+        ShopProperties shopProperties = new ShopProperties(new BigDecimal("0.20"), new ShippingProperties(zones));
+        cartService = new CartService(new JpaCartStore(cartRepository, cartItemRepository), variantRepository,
+                new VatCalculatorService(shopProperties), new ShippingCalculatorService(shopProperties));
+
+        // Running totals of a cart already holding 2 x 10.00 at 100 g each
+        cart = new Cart();
+        cart.setSubtotal(new BigDecimal("20.00"));
+        cart.setShippingWeightGrams(200);
+        cart.setItemCount(2);
+        when(cartRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(cart));
+        when(cartRepository.save(ArgumentMatchers.any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void addItemToCart_shouldApplyOnlyTheChangedLinesDelta() {
+        Variant variant = new Variant(5L, "DW-100G", "100g", new BigDecimal("39.99"), new BigDecimal("0.100"), new BigDecimal("0.150"));
+        variant.setStockQty(10);
+        when(variantRepository.findById(50L)).thenReturn(Optional.of(variant));
+
+        Cart result = cartService.addItemToCart(1L, 50L, 2);
+
+        assertEquals(new BigDecimal("99.98"), result.getSubtotal());
+        assertEquals(500, result.getShippingWeightGrams());
+        assertEquals(4, result.getItemCount());
+        assertEquals(new BigDecimal("5.00"), result.getShippingCost());
+        assertEquals(new BigDecimal("16.66"), result.getVatAmount());
+        assertEquals(new BigDecimal("104.98"), result.getTotal());
+
+        // Constant work per mutation: no other line or variant is read
+        verify(variantRepository, times(1)).findById(ArgumentMatchers.anyLong());
+        verify(cartItemRepository, never()).findByCartId(ArgumentMatchers.anyLong());
+        verify(cartRepository, never()).findByIdWithItems(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void updateAndRemove_shouldUseTheLinesSnapshottedPriceAndWeight() {
+        CartItem line = new CartItem(1L, 50L, 3, new BigDecimal("8.00"), 200);
+        cart.setSubtotal(cart.getSubtotal().add(new BigDecimal("24.00")));
+        cart.setShippingWeightGrams(cart.getShippingWeightGrams() + 600);
+        when(cartItemRepository.findByCartIdAndVariantId(1L, 50L)).thenReturn(line);
+        // The variant's price and weight have been edited since the line was added
+        Variant variant = new Variant(5L, "SKU", "Edited", new BigDecimal("99.00"), new BigDecimal("1.000"), new BigDecimal("1.500"));
+        variant.setStockQty(10);
+        when(variantRepository.findById(50L)).thenReturn(Optional.of(variant));
+
+        Cart result = cartService.updateItemQuantity(1L, 50L, 1);
+        assertEquals(new BigDecimal("28.00"), result.getSubtotal());
+        assertEquals(400, result.getShippingWeightGrams());
+
+        result = cartService.removeItemFromCart(1L, 50L);
+        assertEquals(new BigDecimal("20.00"), result.getSubtotal());
+        assertEquals(200, result.getShippingWeightGrams());
+        assertEquals(new BigDecimal("25.00"), result.getTotal());
+        verify(cartItemRepository).delete(line);
+        verify(cartItemRepository, never()).findByCartId(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void upsertItem_shouldSetTheQuantityReadingLineAndVariantOnce() {
+        CartItem line = new CartItem(1L, 50L, 3, new BigDecimal("8.00"), 200);
+        cart.setSubtotal(cart.getSubtotal().add(new BigDecimal("24.00")));
+        cart.setShippingWeightGrams(cart.getShippingWeightGrams() + 600);
+        when(cartItemRepository.findByCartIdAndVariantId(1L, 50L)).thenReturn(line);
+        Variant held = new Variant(5L, "SKU", "Held", new BigDecimal("8.00"), new BigDecimal("0.200"), new BigDecimal("0.200"));
+        held.setStockQty(10);
+        when(variantRepository.findById(50L)).thenReturn(Optional.of(held));
+        Variant fresh = new Variant(5L, "SKU-2", "Fresh", new BigDecimal("5.00"), new BigDecimal("0.050"), new BigDecimal("0.050"));
+        fresh.setStockQty(10);
+        when(variantRepository.findById(51L)).thenReturn(Optional.of(fresh));
+
+        Cart result = cartService.upsertItem(1L, 50L, 5);
+        assertEquals(5, line.getQty());
+        assertEquals(new BigDecimal("60.00"), result.getSubtotal());
+        assertEquals(1200, result.getShippingWeightGrams());
+        verify(cartItemRepository, times(1)).findByCartIdAndVariantId(1L, 50L);
+        verify(variantRepository, times(1)).findById(50L);
+
+        result = cartService.upsertItem(1L, 51L, 2);
+        assertEquals(new BigDecimal("70.00"), result.getSubtotal());
+        verify(cartItemRepository).save(ArgumentMatchers.argThat(saved -> saved.getVariantId() == 51L && saved.getQty() == 2));
+
+        assertThrows(IllegalArgumentException.class, () -> cartService.upsertItem(1L, 50L, 11));
+        assertEquals(5, line.getQty());
+    }
+
+    @Test
+    void addItemsToCart_shouldValidateAllLinesFirstAndWriteThemTogether() {
+        Variant held = new Variant(5L, "DW-100G", "100g", new BigDecimal("10.00"), new BigDecimal("0.100"), new BigDecimal("0.100"));
+        held.setId(50L);
+        held.setStockQty(10);
+        Variant fresh = new Variant(5L, "DW-25G", "25g", new BigDecimal("4.00"), new BigDecimal("0.025"), new BigDecimal("0.050"));
+        fresh.setId(51L);
+        fresh.setStockQty(3);
+        CartItem line = new CartItem(1L, 50L, 2, new BigDecimal("10.00"), 100);
+        when(variantRepository.findAllById(ArgumentMatchers.anyIterable())).thenReturn(List.of(held, fresh));
+        when(cartItemRepository.findByCartIdAndVariantIdIn(ArgumentMatchers.eq(1L), ArgumentMatchers.anyCollection())).thenReturn(List.of(line));
+
+        Map<Long, Integer> tooMany = new LinkedHashMap<>();
+        tooMany.put(50L, 1);
+        tooMany.put(51L, 4);
+        assertThrows(IllegalArgumentException.class, () -> cartService.addItemsToCart(1L, tooMany));
+        assertEquals(2, line.getQty());
+        verify(cartItemRepository, never()).saveAll(ArgumentMatchers.anyIterable());
+
+        Map<Long, Integer> bundle = new LinkedHashMap<>();
+        bundle.put(50L, 1);
+        bundle.put(51L, 2);
+        Cart result = cartService.addItemsToCart(1L, bundle);
+
+        assertEquals(3, line.getQty());
+        assertEquals(new BigDecimal("38.00"), result.getSubtotal());
+        assertEquals(400, result.getShippingWeightGrams());
+        assertEquals(new BigDecimal("43.00"), result.getTotal());
+        verify(cartItemRepository, times(1)).saveAll(ArgumentMatchers.anyIterable());
+        verify(cartItemRepository, never()).save(ArgumentMatchers.any(CartItem.class));
+        verify(variantRepository, never()).findById(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void shippingWeightGrams_shouldConvertKilogramsToWholeGrams() {
+        Variant variant = new Variant(1L, "X", "X", BigDecimal.ONE, BigDecimal.ONE, new BigDecimal("0.0505"));
+        assertEquals(51, CartService.shippingWeightGrams(variant));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.CartRepository;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:carttotals;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@DisplayName("Cart Totals Concurrency Tests")
+class CartTotalsConcurrencyTest {
+
+    private static final int SHOPPERS = 8;
+    private static final int ADDS_EACH = 5;
+
+    @Autowired private CartService cartService;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+
+    @Test
+    @DisplayName("Concurrent changes to one cart keep every delta in its running totals")
+    void concurrentAdds_shouldNotLoseTotals() throws Exception {
+        Product product = productRepository.save(new Product("busy-" + System.nanoTime(), "Jin Jun Mei", "Black Tea", null, ProductStatus.ACTIVE));
+        List<Long> variantIds = new ArrayList<>();
+        for (int i = 0; i < SHOPPERS; i++) {
+            Variant variant = new Variant(product.getId(), product.getSlug() + "-" + i, "25g", new BigDecimal("4.00"),
+                    new BigDecimal("0.025"), new BigDecimal("0.050"));
+            variant.setStockQty(100);
+            variantIds.add(variantRepository.save(variant).getId());
+        }
+        Long cartId = cartService.createCart().getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(SHOPPERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> adds = new ArrayList<>();
+        try {
+            for (Long variantId : variantIds) {
+                adds.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS_EACH; i++) {
+                        cartService.addItemToCart(cartId, variantId, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> add : adds) {
+                add.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Cart cart = cartRepository.findById(cartId).orElseThrow();
+        assertEquals(SHOPPERS * ADDS_EACH, cart.getItemCount());
+        assertEquals(0, new BigDecimal("4.00").multiply(BigDecimal.valueOf(SHOPPERS * ADDS_EACH)).compareTo(cart.getSubtotal()));
+        assertEquals(SHOPPERS * ADDS_EACH * 50, cart.getShippingWeightGrams());
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("Catalog Snapshot Service Tests")
+class CatalogSnapshotServiceTest {
+
+    @Autowired private CatalogSnapshotService catalogSnapshotService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("A stock-only refresh replaces the entry and the in-stock facet, and shares everything else")
+    void refreshStock_shouldOnlyTouchStock() {
+        Variant variant = createVariant("stock-only", 3);
+        CatalogSnapshot before = catalogSnapshotService.rebuild();
+        int ordinal = before.ordinalOf(variant.getProductId());
+        assertTrue(before.getFacets().matching(CatalogFacet.IN_STOCK, CatalogFacets.IN_STOCK_VALUE).get(ordinal));
+
+        variant.setStockQty(0);
+        variantRepository.save(variant);
+        CatalogSnapshot after = catalogSnapshotService.refreshStock(Set.of(variant.getProductId()));
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(0, after.findVariant(variant.getId()).getAvailableQty());
+        assertFalse(after.getFacets().matching(CatalogFacet.IN_STOCK, CatalogFacets.IN_STOCK_VALUE).get(ordinal));
+        assertSame(before.getFilterOptions(), after.getFilterOptions());
+        assertSame(before.getFacets().values(CatalogFacet.TYPE), after.getFacets().values(CatalogFacet.TYPE));
+        assertNotEquals(before.getContentHash(), after.getContentHash());
+        assertEquals(catalogSnapshotService.rebuild().getContentHash(), after.getContentHash());
+    }
+
+    @Test
+    @DisplayName("A stock-only refresh falls back to a product refresh when more than stock changed")
+    void refreshStock_shouldFallBackWhenContentChanged() {
+        Variant variant = createVariant("not-only-stock", 3);
+        CatalogSnapshot before = catalogSnapshotService.rebuild();
+
+        variant.setPrice(new BigDecimal("99.00"));
+        variantRepository.save(variant);
+        CatalogSnapshot after = catalogSnapshotService.refreshStock(Set.of(variant.getProductId()));
+
+        assertEquals(0, new BigDecimal("99.00").compareTo(after.findVariant(variant.getId()).getPrice()));
+        assertNotSame(before.getFilterOptions(), after.getFilterOptions());
+    }
+
+    @Test
+    @DisplayName("Changes made behind this process's back are picked up by the fingerprint check")
+    void refreshIfChanged_shouldRebuildWhenTheTablesChanged() {
+        Variant variant = createVariant("elsewhere", 3);
+        CatalogSnapshot built = catalogSnapshotService.rebuild();
+
+        catalogSnapshotService.refreshIfChanged();
+        assertSame(built, catalogSnapshotService.current());
+
+        jdbcTemplate.update("UPDATE variants SET stock_qty = 7, version = version + 1 WHERE id = ?", variant.getId());
+        catalogSnapshotService.refreshIfChanged();
+
+        assertEquals(7, catalogSnapshotService.current().findVariant(variant.getId()).getAvailableQty());
+    }
+
+    private Variant createVariant(String slug, int stock) {
+        Product product = productRepository.save(new Product(slug + "-" + System.nanoTime(), "Long Jing", "Green Tea", null, ProductStatus.ACTIVE));
+        Variant variant = new Variant(product.getId(), product.getSlug() + "-50g", "50g", new BigDecimal("14.00"),
+                new BigDecimal("0.050"), new BigDecimal("0.100"));
+        variant.setStockQty(stock);
+        return variantRepository.save(variant);
+    }
+}
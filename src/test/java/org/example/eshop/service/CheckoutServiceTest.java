@@ -7,11 +7,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,23 +26,31 @@ class CheckoutServiceTest {
 
     @Mock private CartRepository cartRepository;
     @Mock private CartItemRepository cartItemRepository;
+    @Mock private CartStore cartStore;
     @Mock private OrderRepository orderRepository;
     @Mock private OrderItemRepository orderItemRepository;
     @Mock private VariantRepository variantRepository;
     @Mock private NotificationService notificationService;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     private CheckoutService checkoutService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ShopProperties shopProperties = new ShopProperties();
+        shopProperties.getOrderNumber().setNodeId(0);
         checkoutService = new CheckoutService(
                 cartRepository,
                 cartItemRepository,
+                cartStore,
                 orderRepository,
                 orderItemRepository,
                 variantRepository,
-                notificationService
+                new DatabaseInventoryEngine(variantRepository),
+                notificationService,
+                eventPublisher,
+                new TimestampOrderNumberGenerator(shopProperties, orderRepository)
         );
     }
 
@@ -52,6 +64,7 @@ class CheckoutServiceTest {
         variant.setStockQty(10);
         variant.setReservedQty(0);
         variant.setLotId(1L);
+        variant.setId(1L);
 
         CartItem cartItem = new CartItem(cartId, 1L, 2, new BigDecimal("25.00"));
 
@@ -66,27 +79,32 @@ class CheckoutServiceTest {
         savedOrder.setId(1L);
 
         when(cartRepository.findByIdWithItems(cartId)).thenReturn(cart);
-        when(variantRepository.findById(1L)).thenReturn(Optional.of(variant));
+        when(variantRepository.findAllById(Set.of(1L))).thenReturn(List.of(variant));
         when(orderRepository.save(ArgumentMatchers.any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(ArgumentMatchers.any(OrderItem.class))).thenReturn(
-                new OrderItem(savedOrder.getId(), 1L, variant.getTitle(), 2, new BigDecimal("25.00"))
-        );
 
         Order result = checkoutService.submitCheckout(cartId, email, address);
 
         assertNotNull(result);
         assertEquals(email, result.getEmail());
         assertEquals(address, result.getAddress());
-        assertEquals(cart.getSubtotal(), result.getSubtotal());
-        assertEquals(cart.getVatAmount(), result.getTax());
-        assertEquals(cart.getShippingCost(), result.getShipping());
-        assertEquals(cart.getTotal(), result.getTotal());
+        assertEquals(new BigDecimal("50.00"), result.getSubtotal());
+        assertEquals(new BigDecimal("10.00"), result.getTax());
+        assertEquals(new BigDecimal("5.00"), result.getShipping());
+        assertEquals(new BigDecimal("65.00"), result.getTotal());
         assertEquals(PaymentStatus.PENDING, result.getPaymentStatus());
+        // The emptied cart starts its running totals over
+        assertTrue(cart.getItems().isEmpty());
+        assertEquals(BigDecimal.ZERO, cart.getTotal());
 
         verify(cartRepository).findByIdWithItems(cartId);
-        verify(variantRepository, times(2)).findById(1L);
+        // Reserved with one conditional batch; the variants are read once, together, for the order lines' titles
+        verify(variantRepository).reserveStock(Map.of(1L, 2));
+        verify(variantRepository, times(1)).findAllById(Set.of(1L));
+        verify(variantRepository, never()).findById(1L);
+        verify(variantRepository, never()).save(ArgumentMatchers.any(Variant.class));
         verify(orderRepository).save(ArgumentMatchers.any(Order.class));
-        verify(orderItemRepository).save(ArgumentMatchers.any(OrderItem.class));
+        verify(orderItemRepository).saveAll(ArgumentMatchers.<List<OrderItem>>argThat(items -> items.size() == 1));
+        verify(orderItemRepository, never()).save(ArgumentMatchers.any(OrderItem.class));
         verify(notificationService).logOrderReceived(result);
     }
 
@@ -171,12 +189,14 @@ class CheckoutServiceTest {
         cart.getItems().add(cartItem);
 
         when(cartRepository.findByIdWithItems(cartId)).thenReturn(cart);
+        when(variantRepository.reserveStock(Map.of(1L, 5))).thenReturn(List.of(1L));
         when(variantRepository.findById(1L)).thenReturn(Optional.of(variant));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
                 checkoutService.submitCheckout(cartId, email, address)
         );
         assertTrue(ex.getMessage().contains("Insufficient stock"));
+        verify(orderRepository, never()).save(ArgumentMatchers.any(Order.class));
     }
 
     @Test
@@ -0,0 +1,66 @@
+package org.example.eshop.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.eshop.entity.Order;
+import org.example.eshop.entity.OrderItem;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.OrderItemRepository;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Checkout Statement Count Tests")
+class CheckoutStatementCountTest {
+
+    @Autowired private CartService cartService;
+    @Autowired private CheckoutService checkoutService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Checkout writes its order lines in one batch, whatever the number of lines")
+    void submitCheckout_shouldBatchOrderLineInserts() {
+        Product product = productRepository.save(new Product("batch-" + System.nanoTime(), "Bai Mu Dan", "White Tea", null, ProductStatus.ACTIVE));
+        Long small = cartService.createCart().getId();
+        Long large = cartService.createCart().getId();
+        for (int i = 0; i < 10; i++) {
+            Variant variant = new Variant(product.getId(), product.getSlug() + "-" + i, i + "g", new BigDecimal("6.00"),
+                    new BigDecimal("0.010"), new BigDecimal("0.020"));
+            variant.setStockQty(10);
+            variant = variantRepository.save(variant);
+            if (i == 0) {
+                cartService.addItemToCart(small, variant.getId(), 1);
+            }
+            cartService.addItemToCart(large, variant.getId(), 1);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        checkoutService.submitCheckout(small, "batch@example.com", "1 Tea Street, Teatown 12345");
+        long smallStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        Order order = checkoutService.submitCheckout(large, "batch@example.com", "1 Tea Street, Teatown 12345");
+        long largeStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(10, statistics.getEntityStatistics(OrderItem.class.getName()).getInsertCount());
+        assertEquals(10, orderItemRepository.findByOrderId(order.getId()).size());
+        // Either checkout may start a new block of pooled ids, which costs one sequence call per entity type
+        assertTrue(largeStatements - smallStatements <= 2,
+                "one line took " + smallStatements + " statements, ten lines took " + largeStatements);
+    }
+}
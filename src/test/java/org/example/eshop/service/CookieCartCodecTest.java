@@ -0,0 +1,42 @@
+package org.example.eshop.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Cookie Cart Codec Tests")
+class CookieCartCodecTest {
+
+    private final CookieCartCodec codec = new CookieCartCodec("test-secret".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    @DisplayName("Should round-trip lines in a compact, cookie-safe value")
+    void shouldRoundTrip() {
+        Map<Long, Integer> lines = Map.of(1042L, 2, 17L, 1, 1050L, 12);
+
+        String value = codec.encode(lines);
+
+        assertEquals(lines, codec.decode(value));
+        assertTrue(value.matches("[A-Za-z0-9_\\-]*\\.[A-Za-z0-9_\\-]+"), value);
+        assertTrue(value.length() < 40, value);
+        assertEquals(Map.of(), codec.decode(codec.encode(Map.of())));
+    }
+
+    @Test
+    @DisplayName("Should reject altered, foreign and malformed values")
+    void shouldRejectUnverifiedValues() {
+        String value = codec.encode(Map.of(7L, 1));
+        String payload = value.substring(0, value.indexOf('.'));
+        String forged = new CookieCartCodec("other-secret".getBytes(StandardCharsets.UTF_8)).encode(Map.of(7L, 99));
+
+        assertNull(codec.decode(forged));
+        assertNull(codec.decode(forged.substring(0, forged.indexOf('.')) + value.substring(value.indexOf('.'))));
+        assertNull(codec.decode(payload));
+        assertNull(codec.decode(payload + ".!!"));
+        assertNull(codec.decode(null));
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.eshop.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Idempotency Store Tests")
+class IdempotencyStoreTest {
+
+    @Test
+    @DisplayName("The key bound drops the oldest completed keys and never a claim still running")
+    void trim_shouldKeepClaimsStillRunning() {
+        ShopProperties shopProperties = new ShopProperties();
+        shopProperties.getIdempotency().setMaxKeys(2);
+        IdempotencyStore store = new IdempotencyStore(shopProperties);
+        IdempotencyStore.RecordedResponse ok = new IdempotencyStore.RecordedResponse(200, Map.of(), new byte[0]);
+
+        assertEquals(IdempotencyStore.Outcome.CLAIMED, store.claim("running", "a").getOutcome());
+        assertEquals(IdempotencyStore.Outcome.CLAIMED, store.claim("done", "b").getOutcome());
+        store.complete("done", ok);
+        assertEquals(IdempotencyStore.Outcome.CLAIMED, store.claim("next", "c").getOutcome());
+        assertEquals(IdempotencyStore.Outcome.CLAIMED, store.claim("last", "d").getOutcome());
+
+        assertEquals(IdempotencyStore.Outcome.IN_PROGRESS, store.claim("running", "a").getOutcome());
+        assertEquals(IdempotencyStore.Outcome.CLAIMED, store.claim("done", "b").getOutcome());
+    }
+}
@@ -0,0 +1,224 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.InventoryMovement;
+import org.example.eshop.entity.Order;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.InventoryMovementRepository;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "shop.inventory.engine=ledger",
+        "shop.inventory.journal-flush-interval-ms=3600000",
+        "shop.inventory.reconcile-interval-ms=3600000"
+})
+@DisplayName("Ledger Inventory Engine Tests")
+class LedgerInventoryEngineTest {
+
+    private static final int STOCK = 5;
+    private static final int BUYERS = 12;
+
+    @Autowired private LedgerInventoryEngine ledger;
+    @Autowired private CartService cartService;
+    @Autowired private CheckoutService checkoutService;
+    @Autowired private AdminOrderService adminOrderService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+    @Autowired private InventoryMovementRepository inventoryMovementRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private ShopProperties shopProperties;
+
+    @Test
+    @DisplayName("Concurrent checkouts reserve exactly the stock in memory, and the flush writes it to the variant and journal")
+    void concurrentCheckouts_shouldNeverOversellAndFlushToVariants() throws Exception {
+        Long variantId = createVariant(STOCK);
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Long cartId = cartService.createCart().getId();
+            cartService.addItemToCart(cartId, variantId, 1);
+            cartIds.add(cartId);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+        try {
+            for (Long cartId : cartIds) {
+                outcomes.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        checkoutService.submitCheckout(cartId, "buyer" + cartId + "@example.com", "1 Tea Street, Teatown 12345");
+                        return true;
+                    } catch (IllegalArgumentException insufficientStock) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int placed = 0;
+            for (Future<Boolean> outcome : outcomes) {
+                if (outcome.get(30, TimeUnit.SECONDS)) placed++;
+            }
+            assertEquals(STOCK, placed);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(0, variantRepository.findById(variantId).orElseThrow().getReservedQty());
+        assertEquals(STOCK, ledger.pendingMovements());
+        assertTrue(inventoryMovementRepository.findByVariantIdOrderByIdAsc(variantId).stream().noneMatch(InventoryMovement::getApplied));
+
+        ledger.flush();
+
+        Variant stored = variantRepository.findById(variantId).orElseThrow();
+        assertEquals(STOCK, stored.getReservedQty());
+        assertEquals(STOCK, stored.getStockQty());
+        List<InventoryMovement> movements = inventoryMovementRepository.findByVariantIdOrderByIdAsc(variantId);
+        assertEquals(STOCK, movements.size());
+        assertTrue(movements.stream().allMatch(m -> InventoryMovement.RESERVE.equals(m.getReason()) && m.getReservedDelta() == 1));
+        assertEquals(0, ledger.reconcile());
+    }
+
+    @Test
+    @DisplayName("Paying and cancelling orders move the counters and are journaled")
+    void payAndCancel_shouldCommitAndReleaseReservations() {
+        Long variantId = createVariant(10);
+        Order paid = checkout(variantId, 3);
+        Order cancelled = checkout(variantId, 2);
+
+        adminOrderService.markOrderAsPaid(paid.getId());
+        adminOrderService.cancelOrder(cancelled.getId());
+        ledger.flush();
+
+        Variant stored = variantRepository.findById(variantId).orElseThrow();
+        assertEquals(7, stored.getStockQty());
+        assertEquals(0, stored.getReservedQty());
+        assertEquals(List.of(InventoryMovement.RESERVE, InventoryMovement.RESERVE, InventoryMovement.COMMIT, InventoryMovement.RELEASE),
+                inventoryMovementRepository.findByVariantIdOrderByIdAsc(variantId).stream().map(InventoryMovement::getReason).toList());
+
+        assertThrows(IllegalStateException.class, () -> ledger.commit(Map.of(variantId, 1)));
+    }
+
+    @Test
+    @DisplayName("A reservation in a transaction that rolls back is given back and never journaled")
+    void rolledBackReservation_shouldBeUndone() {
+        Long variantId = createVariant(4);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            assertTrue(ledger.reserve(Map.of(variantId, 4)).isEmpty());
+            assertEquals(List.of(variantId), ledger.reserve(Map.of(variantId, 1)));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(4, ledger.available(variantRepository.findById(variantId).orElseThrow()));
+        ledger.flush();
+        assertTrue(inventoryMovementRepository.findByVariantIdOrderByIdAsc(variantId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Units a release frees are not sold before it commits, so a rolled-back release cannot oversell")
+    void rolledBackRelease_shouldNeverHaveFreedItsUnits() throws Exception {
+        Long variantId = createVariant(3);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> assertTrue(ledger.reserve(Map.of(variantId, 3)).isEmpty()));
+        ExecutorService other = Executors.newSingleThreadExecutor();
+
+        try {
+            transaction.executeWithoutResult(status -> {
+                ledger.release(Map.of(variantId, 3));
+                // Another buyer tries to take the released units while the release is still uncommitted
+                List<Long> failed = assertDoesNotThrow(() -> other.submit(() -> transaction.execute(
+                        s -> ledger.reserve(Map.of(variantId, 3)))).get(30, TimeUnit.SECONDS));
+                assertEquals(List.of(variantId), failed);
+                assertThrows(IllegalStateException.class, () -> ledger.commit(Map.of(variantId, 1)));
+                status.setRollbackOnly();
+            });
+
+            Variant variant = variantRepository.findById(variantId).orElseThrow();
+            assertEquals(0, ledger.available(variant));
+            ledger.flush();
+            assertEquals(3, variantRepository.findById(variantId).orElseThrow().getReservedQty());
+            assertEquals(0, ledger.reconcile());
+
+            transaction.executeWithoutResult(status -> ledger.release(Map.of(variantId, 3)));
+            assertEquals(3, ledger.available(variant));
+            assertTrue(other.submit(() -> transaction.execute(s -> ledger.reserve(Map.of(variantId, 3))))
+                    .get(30, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            other.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Stock edited on the variant row is picked up by the reconciler")
+    void reconcile_shouldCorrectDriftFromTheVariantRow() {
+        Long variantId = createVariant(5);
+        checkout(variantId, 2);
+        ledger.flush();
+
+        Variant edited = variantRepository.findById(variantId).orElseThrow();
+        edited.setStockQty(9);
+        variantRepository.save(edited);
+        assertEquals(3, ledger.available(edited));
+
+        assertEquals(1, ledger.reconcile());
+        assertEquals(7, ledger.available(edited));
+        assertEquals(0, ledger.reconcile());
+    }
+
+    @Test
+    @DisplayName("Movements journaled by a process that stopped before flushing are applied on startup")
+    void startup_shouldApplyMovementsLeftPending() {
+        Long variantId = createVariant(6);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> variantRepository.journalMovements(List.of(
+                new InventoryMovement(variantId, 0, 2, InventoryMovement.RESERVE),
+                new InventoryMovement(variantId, -1, -1, InventoryMovement.COMMIT))));
+
+        new LedgerInventoryEngine(variantRepository, inventoryMovementRepository, eventPublisher, transactionManager, shopProperties)
+                .applyLeftovers();
+
+        Variant stored = variantRepository.findById(variantId).orElseThrow();
+        assertEquals(5, stored.getStockQty());
+        assertEquals(1, stored.getReservedQty());
+        assertTrue(inventoryMovementRepository.findByVariantIdOrderByIdAsc(variantId).stream().allMatch(InventoryMovement::getApplied));
+    }
+
+    private Long createVariant(int stock) {
+        Product product = productRepository.save(new Product("ledger-" + System.nanoTime(), "Tie Guan Yin", "Oolong Tea", null, ProductStatus.ACTIVE));
+        Variant variant = new Variant(product.getId(), product.getSlug() + "-50g", "50g", new BigDecimal("18.00"),
+                new BigDecimal("0.050"), new BigDecimal("0.100"));
+        variant.setStockQty(stock);
+        return variantRepository.save(variant).getId();
+    }
+
+    private Order checkout(Long variantId, int quantity) {
+        Long cartId = cartService.createCart().getId();
+        cartService.addItemToCart(cartId, variantId, quantity);
+        return checkoutService.submitCheckout(cartId, "ledger@example.com", "1 Tea Street, Teatown 12345");
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Product Search Index Tests")
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, List<String>> synonyms = new LinkedHashMap<>();
+        synonyms.put("puer", List.of("pu-erh", "pu erh", "puerh"));
+        synonyms.put("pu-erh", List.of("puer", "pu erh", "puerh"));
+        ShopProperties shopProperties = new ShopProperties();
+        shopProperties.setSearch(new SearchProperties(synonyms));
+
+        snapshot = new CatalogSnapshot(1L, List.of(
+                entry(1L, "pu-erh-aged-tea", "Aged Pu-erh Tea", "Pu-erh Tea", "Earthy dark tea from Yunnan", "PU-357G-2020"),
+                entry(2L, "dragon-well", "Dragon Well Green Tea", "Green Tea", "Classic Chinese green tea", "DW-25G-2024"),
+                entry(3L, "ceramic-gaiwan", "Traditional Ceramic Gaiwan", "Teaware", "Porcelain gaiwan for green tea", "GW-150ML")
+        ));
+        CatalogSnapshotService snapshotService = mock(CatalogSnapshotService.class);
+        when(snapshotService.current()).thenReturn(snapshot);
+        index = new ProductSearchIndex(shopProperties, snapshotService);
+    }
+
+    @Test
+    @DisplayName("Should match spelling variants through configured synonyms")
+    void shouldMatchSynonyms() {
+        assertEquals(List.of(1L), index.search("puer"));
+        assertEquals(List.of(1L), index.search("pu-erh"));
+        assertEquals(List.of(1L), index.search("Pu Erh"));
+        assertEquals(List.of(1L), index.search("puerh"));
+    }
+
+    @Test
+    @DisplayName("Should require every query word and rank title matches first")
+    void shouldIntersectAndRank() {
+        assertEquals(List.of(2L, 3L), index.search("green"));
+        assertEquals(List.of(3L), index.search("green gaiwan"));
+        assertTrue(index.search("green yunnan").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should match SKUs and word prefixes")
+    void shouldMatchSkuAndPrefix() {
+        assertEquals(List.of(2L), index.search("dw-25g"));
+        assertEquals(List.of(3L), index.search("porcel"));
+    }
+
+    @Test
+    @DisplayName("Should re-index only the changed product on an incremental update")
+    void shouldApplyIncrementalUpdates() {
+        assertEquals(List.of(3L), index.search("gaiwan"));
+
+        CatalogSnapshot next = snapshot.with(2L,
+                List.of(entry(3L, "ceramic-gaiwan", "Traditional Ceramic Teacup", "Teaware", "Porcelain cup", "GW-150ML")),
+                Set.of());
+        index.onSnapshotUpdated(new CatalogSnapshotUpdatedEvent(next, Set.of(3L), false));
+
+        assertTrue(index.search("gaiwan").isEmpty());
+        assertEquals(List.of(3L), index.search("teacup"));
+
+        index.onSnapshotUpdated(new CatalogSnapshotUpdatedEvent(next.with(3L, List.of(), Set.of(3L)), Set.of(3L), false));
+        assertTrue(index.search("teacup").isEmpty());
+    }
+
+    private static CatalogEntry entry(long id, String slug, String title, String type, String description, String sku) {
+        Product product = new Product(slug, title, type, description, ProductStatus.ACTIVE);
+        product.setId(id);
+        Variant variant = new Variant(id, sku, title + " variant", new BigDecimal("10.00"), new BigDecimal("0.100"), new BigDecimal("0.150"));
+        variant.setId(id * 100);
+        return CatalogEntry.of(product, List.of(variant), Map.of());
+    }
+}
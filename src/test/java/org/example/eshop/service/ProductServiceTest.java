@@ -1,10 +1,8 @@
 package org.example.eshop.service;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Root;
+import org.example.eshop.dto.FacetValueDto;
+import org.example.eshop.dto.FilterOptionsDto;
+import org.example.eshop.dto.ProductDto;
 import org.example.eshop.dto.StockStatus;
 import org.example.eshop.entity.*;
 import org.example.eshop.repository.LotRepository;
@@ -18,7 +16,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,24 +29,18 @@ class ProductServiceTest {
     @Mock private ProductRepository productRepository;
     @Mock private VariantRepository variantRepository;
     @Mock private LotRepository lotRepository;
-    @Mock private EntityManager entityManager;
-    @Mock private CriteriaBuilder criteriaBuilder;
-    @Mock private CriteriaQuery<Product> criteriaQuery;
-    @Mock private Root<Product> root;
-    @Mock private TypedQuery<Product> typedQuery;
+    @Mock private CatalogSnapshotService catalogSnapshotService;
+    @Mock private ProductSearchEngine productSearchEngine;
 
+    private ProductDetailCache productDetailCache;
     private ProductService productService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        productService = new ProductService(productRepository, variantRepository, lotRepository, entityManager);
-        // Minimal stubbing for criteria path when methods get past validation in other tests (not needed here but safe)
-        when(entityManager.getCriteriaBuilder()).thenReturn(criteriaBuilder);
-        when(criteriaBuilder.createQuery(Product.class)).thenReturn(criteriaQuery);
-        when(criteriaQuery.from(Product.class)).thenReturn(root);
-        when(entityManager.createQuery(criteriaQuery)).thenReturn(typedQuery);
-        when(typedQuery.getResultList()).thenReturn(List.of());
+        productDetailCache = new ProductDetailCache(new ShopProperties());
+        productService = new ProductService(productRepository, variantRepository, lotRepository, catalogSnapshotService, productSearchEngine, productDetailCache);
+        when(catalogSnapshotService.current()).thenReturn(new CatalogSnapshot(1L, List.of()));
     }
 
     @Test
@@ -74,11 +68,169 @@ class ProductServiceTest {
     }
 
     @Test
-    void findProducts_shouldValidateInvalidHarvestYear() {
-        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
-                productService.findProducts(null, null, 1800, null, null, null)
-        );
-        assertEquals("harvestYear must be between 1900 and 2030", ex.getMessage());
+    void findProducts_shouldTreatHarvestYearsOutsideTheCatalogAsNoMatch() {
+        Lot lot = new Lot(1L, 1895, Season.AUTUMN, StorageType.TRADITIONAL);
+        lot.setId(10L);
+        Product aged = new Product("aged-puerh", "Aged Puerh", "Puerh", null, ProductStatus.ACTIVE);
+        aged.setId(1L);
+        Variant cake = new Variant(1L, "AP-357", "357g", new BigDecimal("950.00"), new BigDecimal("0.357"), new BigDecimal("0.400"));
+        cake.setId(100L);
+        cake.setLotId(10L);
+        when(catalogSnapshotService.current()).thenReturn(new CatalogSnapshot(1L, List.of(
+                CatalogEntry.of(aged, List.of(cake), Map.of(10L, lot)))));
+
+        assertTrue(productService.findProducts(null, null, 1800, null, null, null).isEmpty());
+        assertEquals(1, productService.findProducts(null, null, 1895, null, null, null).size());
+
+        FilterOptionsDto options = productService.filterOptions();
+        assertEquals(List.of("Puerh"), options.getTypes());
+        assertEquals(List.of(1895), options.getHarvestYears());
+        assertEquals(List.of("AUTUMN"), options.getSeasons());
+        assertEquals(List.of("TRADITIONAL"), options.getStorageTypes());
+    }
+
+    @Test
+    void findProducts_shouldAnswerFromSnapshotWithPrecomputedAggregates() {
+        Product dragonWell = new Product("dragon-well", "Dragon Well", "Green Tea", null, ProductStatus.ACTIVE);
+        dragonWell.setId(1L);
+        Lot lot = new Lot(1L, 2024, Season.SPRING, StorageType.DRY);
+        lot.setId(10L);
+        Variant small = new Variant(1L, "DW-25G", "25g", new BigDecimal("12.99"), new BigDecimal("0.025"), new BigDecimal("0.050"));
+        small.setId(100L);
+        small.setStockQty(3);
+        small.setLotId(10L);
+        Variant large = new Variant(1L, "DW-100G", "100g", new BigDecimal("39.99"), new BigDecimal("0.100"), new BigDecimal("0.150"));
+        large.setId(101L);
+        large.setStockQty(0);
+        large.setLotId(10L);
+
+        Product gaiwan = new Product("gaiwan", "Gaiwan", "Teaware", null, ProductStatus.ACTIVE);
+        gaiwan.setId(2L);
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(1L, List.of(
+                CatalogEntry.of(dragonWell, List.of(small, large), Map.of(10L, lot)),
+                CatalogEntry.of(gaiwan, List.of(), Map.of())
+        ));
+        when(catalogSnapshotService.current()).thenReturn(snapshot);
+
+        List<ProductDto> all = productService.findProducts(null, null, null, null, null, null);
+        assertEquals(2, all.size());
+        ProductDto summary = all.get(0);
+        assertEquals(new BigDecimal("12.99"), summary.getMinPrice());
+        assertEquals(new BigDecimal("39.99"), summary.getMaxPrice());
+        assertEquals(ProductDto.StockStatus.LOW_STOCK, summary.getStockStatus());
+        assertEquals(2024, summary.getHarvestYear());
+        assertEquals(2, summary.getVariantCount());
+
+        // Price and stock filters must hold for the same variant
+        assertTrue(productService.findProducts(null, null, null, new BigDecimal("20.00"), null, true).isEmpty());
+        assertEquals(1, productService.findProducts(null, null, 2024, new BigDecimal("20.00"), null, null).size());
+        assertEquals(List.of("gaiwan"), productService.findProducts("Teaware", null, null, null, null, null)
+                .stream().map(ProductDto::getSlug).toList());
+
+        verifyNoInteractions(productRepository, variantRepository, lotRepository);
+
+        // Keyword results keep the search ranking and still honour the filters
+        when(productSearchEngine.search("tea")).thenReturn(List.of(2L, 1L));
+        assertEquals(List.of("gaiwan", "dragon-well"), productService.findProducts("tea", null, null, null, null, null, null)
+                .stream().map(ProductDto::getSlug).toList());
+        assertEquals(List.of("dragon-well"), productService.findProducts("tea", "Green Tea", null, null, null, null, null)
+                .stream().map(ProductDto::getSlug).toList());
+    }
+
+    @Test
+    void browse_shouldIntersectFacetBitsetsAndCountOtherSelections() {
+        Lot springDry = new Lot(1L, 2024, Season.SPRING, StorageType.DRY);
+        springDry.setId(10L);
+        Lot autumnWet = new Lot(2L, 2019, Season.AUTUMN, StorageType.WET);
+        autumnWet.setId(20L);
+
+        Product dragonWell = new Product("dragon-well", "Dragon Well", "Green Tea", null, ProductStatus.ACTIVE);
+        dragonWell.setId(1L);
+        Variant dw = new Variant(1L, "DW-50G", "50g", new BigDecimal("18.00"), new BigDecimal("0.050"), new BigDecimal("0.080"));
+        dw.setId(100L);
+        dw.setStockQty(10);
+        dw.setLotId(10L);
+
+        Product shou = new Product("shou", "Shou Pu-erh", "Pu-erh Tea", null, ProductStatus.ACTIVE);
+        shou.setId(2L);
+        Variant cake = new Variant(2L, "SH-357G", "357g cake", new BigDecimal("65.00"), new BigDecimal("0.357"), new BigDecimal("0.400"));
+        cake.setId(200L);
+        cake.setStockQty(0);
+        cake.setLotId(20L);
+
+        Product sencha = new Product("sencha", "Sencha", "Green Tea", null, ProductStatus.ACTIVE);
+        sencha.setId(3L);
+        Variant sv = new Variant(3L, "SE-100G", "100g", new BigDecimal("9.50"), new BigDecimal("0.100"), new BigDecimal("0.130"));
+        sv.setId(300L);
+        sv.setStockQty(4);
+
+        when(catalogSnapshotService.current()).thenReturn(new CatalogSnapshot(1L, List.of(
+                CatalogEntry.of(dragonWell, List.of(dw), Map.of(10L, springDry)),
+                CatalogEntry.of(shou, List.of(cake), Map.of(20L, autumnWet)),
+                CatalogEntry.of(sencha, List.of(sv), Map.of())
+        )));
+
+        CatalogPage page = productService.browse(new CatalogFilter(
+                null, "Green Tea", null, null, null, null, null, null, null, true));
+
+        assertEquals(List.of("dragon-well", "sencha"), page.getProducts().stream().map(ProductDto::getSlug).toList());
+        // The type facet ignores its own selection so the alternatives keep their counts
+        assertEquals(Map.of("Green Tea", 2, "Pu-erh Tea", 0), counts(page, "type"));
+        assertEquals(Map.of("true", 2), counts(page, "inStock"));
+        assertEquals(Map.of("SPRING", 1, "AUTUMN", 0), counts(page, "season"));
+        assertEquals(Map.of("UNDER_10", 1, "FROM_10_TO_25", 1, "FROM_50_TO_100", 0), counts(page, "priceBucket"));
+        assertTrue(page.getFacet("type").getValues().stream().filter(v -> v.getValue().equals("Green Tea")).findFirst().orElseThrow().isSelected());
+
+        CatalogPage bySeason = productService.browse(new CatalogFilter(
+                null, null, null, null, "autumn", null, null, null, null, null));
+        assertEquals(List.of("shou"), bySeason.getProducts().stream().map(ProductDto::getSlug).toList());
+        assertEquals(List.of(2019), bySeason.getFacet("harvestYear").getValues().stream()
+                .filter(v -> v.getCount() > 0).map(v -> Integer.valueOf(v.getValue())).toList());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> productService.browse(
+                new CatalogFilter(null, null, null, null, "monsoon", null, null, null, null, null)));
+        assertEquals("Unknown season: monsoon", ex.getMessage());
+        verifyNoInteractions(productRepository, variantRepository, lotRepository);
+    }
+
+    @Test
+    void browse_shouldPageWithKeysetTokensThatSurviveSnapshotChanges() {
+        List<CatalogEntry> entries = new java.util.ArrayList<>();
+        String[] prices = {"30.00", "10.00", "20.00", "10.00", "40.00"};
+        for (int i = 0; i < prices.length; i++) {
+            long id = i + 1;
+            Product product = new Product("p" + id, "Tea " + id, "Green Tea", null, ProductStatus.ACTIVE);
+            product.setId(id);
+            Variant variant = new Variant(id, "SKU-" + id, "50g", new BigDecimal(prices[i]), new BigDecimal("0.050"), new BigDecimal("0.080"));
+            variant.setId(100L + id);
+            variant.setStockQty(10);
+            entries.add(CatalogEntry.of(product, List.of(variant), Map.of()));
+        }
+        CatalogSnapshot snapshot = new CatalogSnapshot(1L, entries);
+        when(catalogSnapshotService.current()).thenReturn(snapshot);
+        CatalogFilter all = new CatalogFilter(null, null, null, null, null, null, null, null, null, null);
+
+        CatalogPage first = productService.browse(all, CatalogSort.PRICE_ASC, null, 2);
+        assertEquals(List.of("p2", "p4"), first.getProducts().stream().map(ProductDto::getSlug).toList());
+        assertTrue(first.hasNextPage());
+
+        // p3 disappears between requests; the token still resumes after (10.00, id 4)
+        when(catalogSnapshotService.current()).thenReturn(snapshot.with(2L, List.of(), java.util.Set.of(3L)));
+        CatalogPage second = productService.browse(all, CatalogSort.PRICE_ASC, first.getNextPageToken(), 2);
+        assertEquals(List.of("p1", "p5"), second.getProducts().stream().map(ProductDto::getSlug).toList());
+        assertFalse(second.hasNextPage());
+
+        CatalogPage byPriceDesc = productService.browse(all, CatalogSort.PRICE_DESC, null, 10);
+        assertEquals(List.of("p5", "p1", "p2", "p4"), byPriceDesc.getProducts().stream().map(ProductDto::getSlug).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> productService.browse(all, CatalogSort.TITLE, first.getNextPageToken(), 2));
+        assertThrows(IllegalArgumentException.class, () -> productService.browse(all, CatalogSort.PRICE_ASC, "not-a-token", 2));
+    }
+
+    private static Map<String, Integer> counts(CatalogPage page, String facet) {
+        return page.getFacet(facet).getValues().stream()
+                .collect(Collectors.toMap(FacetValueDto::getValue, FacetValueDto::getCount));
     }
 
     @Test
@@ -108,10 +260,10 @@ class ProductServiceTest {
         variant.setStockQty(50);
         variant.setReservedQty(0);
         variant.setLotId(1L);
-        variant.setLot(lot);
 
         when(productRepository.findBySlug("dragon-well")).thenReturn(product);
         when(variantRepository.findByProductId(1L)).thenReturn(List.of(variant));
+        when(lotRepository.findByProductId(1L)).thenReturn(List.of(lot));
 
         var result = productService.findProductBySlug("dragon-well");
         assertNotNull(result);
@@ -123,6 +275,41 @@ class ProductServiceTest {
         assertEquals("DRY", result.getStorageType());
     }
 
+    @Test
+    void findProductBySlug_shouldServeCachedDetailWithLiveStockUntilAdminChange() {
+        Product product = new Product("dragon-well", "Dragon Well Green Tea", "Green Tea", null, ProductStatus.ACTIVE);
+        product.setId(1L);
+        Variant variant = new Variant(1L, "DW-25G", "25g", new BigDecimal("12.99"), new BigDecimal("0.025"), new BigDecimal("0.050"));
+        variant.setId(7L);
+        variant.setStockQty(50);
+        when(productRepository.findBySlug("dragon-well")).thenReturn(product);
+        when(variantRepository.findByProductId(1L)).thenReturn(List.of(variant));
+
+        assertEquals(50, productService.findProductBySlug("dragon-well").getVariants().get(0).getAvailableQty());
+
+        // Stock moves: the cached page picks it up from the snapshot without touching the database
+        variant.setStockQty(2);
+        when(catalogSnapshotService.current()).thenReturn(new CatalogSnapshot(2L, List.of(
+                CatalogEntry.of(product, List.of(variant), Map.of()))));
+        productDetailCache.onCatalogChanged(CatalogChangedEvent.stockChanged(java.util.Set.of(1L)));
+        var hit = productService.findProductBySlug("dragon-well");
+        assertEquals(2, hit.getVariants().get(0).getAvailableQty());
+        assertEquals(StockStatus.LOW_STOCK, hit.getVariants().get(0).getStockStatus());
+        verify(productRepository, times(1)).findBySlug("dragon-well");
+
+        // An admin edit drops the entry, so the next request reloads
+        product.setTitle("Dragon Well Reserve");
+        productDetailCache.onCatalogChanged(CatalogChangedEvent.forProduct(1L));
+        assertEquals("Dragon Well Reserve", productService.findProductBySlug("dragon-well").getTitle());
+        verify(productRepository, times(2)).findBySlug("dragon-well");
+
+        var stats = productDetailCache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getInvalidations());
+        assertEquals(1, stats.getEntries());
+    }
+
     @Test
     void findVariantById_shouldReturnNullForNonExistentVariant() {
         when(variantRepository.findById(999L)).thenReturn(Optional.empty());
@@ -0,0 +1,102 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.SuggestionDto;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.OrderItemRepository;
+import org.example.eshop.repository.OrderItemRepository.VariantSales;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Product Suggest Index Tests")
+class ProductSuggestIndexTest {
+
+    private ProductSuggestIndex index;
+    private OrderItemRepository orderItemRepository;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new CatalogSnapshot(1L, List.of(
+                entry(1L, "dragon-well", "Dragon Well", "Green Tea", "DW-25G"),
+                entry(2L, "dian-hong", "Dian Hong", "Black Tea", "DH-50G"),
+                entry(3L, "gaiwan", "Ceramic Gaiwan", "Teaware", "GW-150ML")
+        ));
+        CatalogSnapshotService snapshotService = mock(CatalogSnapshotService.class);
+        when(snapshotService.current()).thenReturn(snapshot);
+        orderItemRepository = mock(OrderItemRepository.class);
+        when(orderItemRepository.sumUnitsByVariant()).thenReturn(List.of(sales(200L, 5L), sales(100L, 2L)));
+        index = new ProductSuggestIndex(new ShopProperties(), snapshotService, orderItemRepository);
+    }
+
+    @Test
+    @DisplayName("Should rank titles by units sold and match any word start")
+    void shouldRankByPopularity() {
+        assertEquals(List.of("Dian Hong", "Dragon Well"), texts(index.suggest("d", 10), "title"));
+        assertEquals(List.of("Dragon Well"), texts(index.suggest("wel", 10), "title"));
+        assertEquals(List.of("Dragon Well"), texts(index.suggest("Dragon W", 10), "title"));
+        assertTrue(index.suggest("dragon x", 10).isEmpty());
+        assertEquals(1, index.suggest("d", 1).size());
+    }
+
+    @Test
+    @DisplayName("Should suggest SKUs and types, with type popularity summed over its products")
+    void shouldSuggestSkusAndTypes() {
+        SuggestionDto sku = index.suggest("dw-2", 10).get(0);
+        assertEquals("DW-25G", sku.getText());
+        assertEquals("sku", sku.getKind());
+        assertEquals("dragon-well", sku.getSlug());
+
+        List<SuggestionDto> teas = index.suggest("tea", 10);
+        assertEquals(List.of("Black Tea", "Green Tea", "Teaware"), texts(teas, "type"));
+        assertNull(teas.get(0).getSlug());
+    }
+
+    @Test
+    @DisplayName("Should re-key only the changed product and follow its sales on an incremental update")
+    void shouldApplyIncrementalUpdates() {
+        assertEquals(List.of("Ceramic Gaiwan"), texts(index.suggest("gai", 10), "title"));
+
+        when(orderItemRepository.sumUnitsByVariantForProducts(anyCollection())).thenReturn(List.of(sales(300L, 9L)));
+        CatalogSnapshot next = snapshot.with(2L,
+                List.of(entry(3L, "gaiwan", "Ceramic Dragon Cup", "Teaware", "GW-150ML")),
+                Set.of(1L));
+        index.onSnapshotUpdated(new CatalogSnapshotUpdatedEvent(next, Set.of(1L, 3L), false));
+
+        assertTrue(index.suggest("gai", 10).isEmpty());
+        assertEquals(List.of("Ceramic Dragon Cup", "Dian Hong"), texts(index.suggest("d", 10), "title"));
+        assertTrue(index.suggest("dw", 10).isEmpty());
+        assertTrue(texts(index.suggest("green", 10), "type").isEmpty());
+        assertEquals(List.of("Teaware", "Black Tea"), texts(index.suggest("t", 10), "type"));
+    }
+
+    private static List<String> texts(List<SuggestionDto> suggestions, String kind) {
+        return suggestions.stream().filter(s -> s.getKind().equals(kind)).map(SuggestionDto::getText).toList();
+    }
+
+    private static VariantSales sales(long variantId, long units) {
+        return new VariantSales() {
+            @Override public Long getVariantId() { return variantId; }
+            @Override public Long getUnits() { return units; }
+        };
+    }
+
+    private static CatalogEntry entry(long id, String slug, String title, String type, String sku) {
+        Product product = new Product(slug, title, type, null, ProductStatus.ACTIVE);
+        product.setId(id);
+        Variant variant = new Variant(id, sku, title, new BigDecimal("10.00"), new BigDecimal("0.100"), new BigDecimal("0.150"));
+        variant.setId(id * 100);
+        return CatalogEntry.of(product, List.of(variant), Map.of());
+    }
+}
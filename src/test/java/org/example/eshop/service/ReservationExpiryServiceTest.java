@@ -0,0 +1,86 @@
+package org.example.eshop.service;
+
+import org.example.eshop.dto.ReservationExpiryStatsResponse;
+import org.example.eshop.entity.Order;
+import org.example.eshop.entity.OrderStatus;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.OrderRepository;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:expiry;DB_CLOSE_DELAY=-1",
+        "shop.inventory.reservation-hold-minutes=60",
+        "shop.inventory.reservation-expiry-batch-size=1"
+})
+@DisplayName("Reservation Expiry Service Tests")
+class ReservationExpiryServiceTest {
+
+    @Autowired private ReservationExpiryService reservationExpiryService;
+    @Autowired private CartService cartService;
+    @Autowired private CheckoutService checkoutService;
+    @Autowired private AdminOrderService adminOrderService;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should cancel unpaid orders past the hold time in batches and release their stock")
+    void expire_shouldCancelStaleUnpaidOrdersAndReleaseStock() {
+        Product product = productRepository.save(new Product("expiry-tea", "Expiry Tea", "Black Tea", null, ProductStatus.ACTIVE));
+        Variant variant = new Variant(product.getId(), "EXPIRY-50G", "50g", new BigDecimal("9.00"),
+                new BigDecimal("0.050"), new BigDecimal("0.100"));
+        variant.setStockQty(10);
+        Long variantId = variantRepository.save(variant).getId();
+
+        Order staleSmall = checkout(variantId, 2);
+        Order staleLarge = checkout(variantId, 1);
+        Order stalePaid = checkout(variantId, 3);
+        adminOrderService.markOrderAsPaid(stalePaid.getId());
+        Order fresh = checkout(variantId, 1);
+        LocalDateTime twoDaysAgo = LocalDateTime.now().minusDays(2);
+        for (Order order : new Order[]{staleSmall, staleLarge, stalePaid}) {
+            jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", Timestamp.valueOf(twoDaysAgo), order.getId());
+        }
+
+        assertEquals(2, reservationExpiryService.expire());
+
+        Variant stored = variantRepository.findById(variantId).orElseThrow();
+        assertEquals(7, stored.getStockQty());
+        assertEquals(1, stored.getReservedQty());
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(staleSmall.getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(staleLarge.getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.CONFIRMED, orderRepository.findById(stalePaid.getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(fresh.getId()).orElseThrow().getStatus());
+        assertThrows(IllegalStateException.class, () -> adminOrderService.markOrderAsPaid(staleSmall.getId()));
+
+        assertEquals(0, reservationExpiryService.expire());
+
+        ReservationExpiryStatsResponse stats = reservationExpiryService.stats();
+        assertEquals(2, stats.getRuns());
+        assertEquals(2, stats.getOrdersExpired());
+        assertEquals(3, stats.getUnitsReleased());
+        assertEquals(2, stats.getBatches());
+        assertNotNull(stats.getLastRunAt());
+    }
+
+    private Order checkout(Long variantId, int quantity) {
+        Long cartId = cartService.createCart().getId();
+        cartService.addItemToCart(cartId, variantId, quantity);
+        return checkoutService.submitCheckout(cartId, "expiry@example.com", "1 Tea Street, Teatown 12345");
+    }
+}
@@ -246,4 +246,19 @@ class ShippingCalculatorServiceTest {
         assertTrue(rowCost.compareTo(euCost) > 0);
         assertTrue(euCost.compareTo(domesticCost) > 0);
     }
+
+    @Test
+    @DisplayName("Should quote every zone in configuration order in one call")
+    void testShippingForAllZones() {
+        List<ShippingCalculationResult> quotes = shippingCalculatorService.calculateShippingForAllZones(1000);
+
+        assertEquals(List.of("domestic", "eu", "row"), quotes.stream().map(ShippingCalculationResult::getZone).toList());
+        assertEquals(new BigDecimal("7.50"), quotes.get(0).getCost());
+        assertEquals(new BigDecimal("18.00"), quotes.get(1).getCost());
+        assertEquals(new BigDecimal("30.00"), quotes.get(2).getCost());
+
+        List<ShippingCalculationResult> tooHeavy = shippingCalculatorService.calculateShippingForAllZones(2001);
+        assertTrue(tooHeavy.stream().noneMatch(ShippingCalculationResult::isValid));
+        assertEquals("Rest of World", tooHeavy.get(2).getZoneName());
+    }
 }
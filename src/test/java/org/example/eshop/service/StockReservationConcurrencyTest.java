@@ -0,0 +1,82 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:reservation;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@DisplayName("Stock Reservation Concurrency Tests")
+class StockReservationConcurrencyTest {
+
+    private static final int STOCK = 5;
+    private static final int BUYERS = 12;
+
+    @Autowired private CartService cartService;
+    @Autowired private CheckoutService checkoutService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+
+    @Test
+    @DisplayName("Concurrent checkouts of a scarce variant reserve exactly the stock and never more")
+    void concurrentCheckouts_shouldNeverOversell() throws Exception {
+        Product product = productRepository.save(new Product("hot-" + System.nanoTime(), "Da Hong Pao", "Oolong Tea", null, ProductStatus.ACTIVE));
+        Variant variant = new Variant(product.getId(), product.getSlug() + "-50g", "50g", new BigDecimal("30.00"),
+                new BigDecimal("0.050"), new BigDecimal("0.100"));
+        variant.setStockQty(STOCK);
+        Long variantId = variantRepository.save(variant).getId();
+
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Long cartId = cartService.createCart().getId();
+            cartService.addItemToCart(cartId, variantId, 1);
+            cartIds.add(cartId);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+        try {
+            for (Long cartId : cartIds) {
+                outcomes.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        checkoutService.submitCheckout(cartId, "buyer" + cartId + "@example.com", "1 Tea Street, Teatown 12345");
+                        return true;
+                    } catch (IllegalArgumentException insufficientStock) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int placed = 0;
+            for (Future<Boolean> outcome : outcomes) {
+                if (outcome.get(30, TimeUnit.SECONDS)) placed++;
+            }
+
+            assertEquals(STOCK, placed);
+            Variant stored = variantRepository.findById(variantId).orElseThrow();
+            assertEquals(STOCK, stored.getReservedQty());
+            assertEquals(STOCK, stored.getStockQty());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.eshop.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Timestamp Order Number Generator Tests")
+class TimestampOrderNumberGeneratorTest {
+
+    private static final long SECOND = LocalDateTime.of(2026, 10, 17, 5, 15, 37).toEpochSecond(ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Should format the UTC second, node id and per-second sequence")
+    void next_shouldFormatSecondNodeAndSequence() {
+        TimestampOrderNumberGenerator generator = new TimestampOrderNumberGenerator(3, () -> SECOND);
+
+        assertEquals("ORD-20261017051537-03-0000", generator.next());
+        assertEquals("ORD-20261017051537-03-0001", generator.next());
+        assertNotEquals(new TimestampOrderNumberGenerator(4, () -> SECOND).next(),
+                new TimestampOrderNumberGenerator(3, () -> SECOND).next());
+    }
+
+    @Test
+    @DisplayName("Should carry on into the next second when a second's sequence runs out")
+    void next_shouldBorrowTheNextSecondWhenTheSequenceIsExhausted() {
+        TimestampOrderNumberGenerator generator = new TimestampOrderNumberGenerator(0, () -> SECOND);
+
+        String last = null;
+        for (int i = 0; i < TimestampOrderNumberGenerator.SEQUENCE_PER_SECOND; i++) {
+            last = generator.next();
+        }
+        assertEquals("ORD-20261017051537-00-9999", last);
+        assertEquals("ORD-20261017051538-00-0000", generator.next());
+    }
+
+    @Test
+    @DisplayName("Should keep increasing when the clock steps back")
+    void next_shouldStayMonotonicWhenTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(SECOND);
+        TimestampOrderNumberGenerator generator = new TimestampOrderNumberGenerator(1, clock::get);
+
+        String before = generator.next();
+        clock.set(SECOND - 60);
+        String after = generator.next();
+        clock.set(SECOND + 1);
+        String later = generator.next();
+
+        assertEquals("ORD-20261017051537-01-0001", after);
+        assertTrue(before.compareTo(after) < 0);
+        assertEquals("ORD-20261017051538-01-0000", later);
+    }
+
+    @Test
+    @DisplayName("Should resume after the highest number stored for its node")
+    void resumeAfter_shouldContinueFromTheStoredNumber() {
+        TimestampOrderNumberGenerator generator = new TimestampOrderNumberGenerator(3, () -> SECOND);
+
+        generator.resumeAfter("ORD-20261017051537-04-0500");
+        generator.resumeAfter("ORD-20231201-1234");
+        generator.resumeAfter(null);
+        assertEquals("ORD-20261017051537-03-0000", generator.next());
+
+        generator.resumeAfter("ORD-20261017051539-03-0041");
+        assertEquals("ORD-20261017051539-03-0042", generator.next());
+        generator.resumeAfter("ORD-20261017051500-03-0007");
+        assertEquals("ORD-20261017051539-03-0043", generator.next());
+    }
+
+    @Test
+    @DisplayName("Should match only the numbers of its own node")
+    void numberPattern_shouldFixTheNodeId() {
+        assertEquals("ORD-______________-07-____", TimestampOrderNumberGenerator.numberPattern(7));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start without an explicit node id")
+    void constructor_shouldRequireANodeId() {
+        assertThrows(IllegalStateException.class, () -> new TimestampOrderNumberGenerator(new ShopProperties(), null));
+    }
+
+    @Test
+    @DisplayName("Should reject node ids outside 0-99")
+    void constructor_shouldRejectNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new TimestampOrderNumberGenerator(100, () -> SECOND));
+        assertThrows(IllegalArgumentException.class, () -> new TimestampOrderNumberGenerator(-1, () -> SECOND));
+    }
+
+    @Test
+    @DisplayName("Should hand out two million numbers across threads without a duplicate")
+    void next_shouldNeverRepeatUnderContention() throws Exception {
+        int threads = 8;
+        int perThread = 250_000;
+        TimestampOrderNumberGenerator generator = new TimestampOrderNumberGenerator(7, () -> System.currentTimeMillis() / 1000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    long[] keys = new long[perThread];
+                    String previous = null;
+                    for (int i = 0; i < perThread; i++) {
+                        String number = generator.next();
+                        if (previous != null && previous.compareTo(number) >= 0) {
+                            throw new AssertionError(previous + " was followed by " + number);
+                        }
+                        keys[i] = key(number);
+                        previous = number;
+                    }
+                    return keys;
+                }));
+            }
+            start.countDown();
+
+            long[] all = new long[threads * perThread];
+            for (int t = 0; t < threads; t++) {
+                System.arraycopy(results.get(t).get(60, TimeUnit.SECONDS), 0, all, t * perThread, perThread);
+            }
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertNotEquals(all[i - 1], all[i], "duplicate order number");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Second stamp and sequence as one number; the node id is fixed within the test.
+     */
+    private static long key(String number) {
+        assertEquals(26, number.length());
+        return Long.parseLong(number, 4, 18, 10) * 10_000 + Integer.parseInt(number, 22, 26, 10);
+    }
+}
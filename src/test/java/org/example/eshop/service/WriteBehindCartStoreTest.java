@@ -0,0 +1,135 @@
+package org.example.eshop.service;
+
+import org.example.eshop.entity.Cart;
+import org.example.eshop.entity.CartItem;
+import org.example.eshop.entity.Order;
+import org.example.eshop.entity.Product;
+import org.example.eshop.entity.ProductStatus;
+import org.example.eshop.entity.Variant;
+import org.example.eshop.repository.CartItemRepository;
+import org.example.eshop.repository.CartRepository;
+import org.example.eshop.repository.OrderItemRepository;
+import org.example.eshop.repository.ProductRepository;
+import org.example.eshop.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "shop.cart.storage=write-behind",
+        "shop.cart.flush-interval-ms=3600000" // flushed explicitly below
+})
+@DisplayName("Write-behind Cart Store Tests")
+class WriteBehindCartStoreTest {
+
+    @Autowired private CartService cartService;
+    @Autowired private CheckoutService checkoutService;
+    @Autowired private WriteBehindCartStore cartStore;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private VariantRepository variantRepository;
+
+    private Variant small;
+    private Variant large;
+
+    @BeforeEach
+    void setUp() {
+        Product product = productRepository.save(new Product("wb-" + System.nanoTime(), "Bai Mu Dan", "White Tea", null, ProductStatus.ACTIVE));
+        small = variant(product, "25g", "10.00");
+        large = variant(product, "100g", "30.00");
+    }
+
+    @Test
+    @DisplayName("Should keep changes in memory until flushed, then reconcile lines and totals")
+    void shouldCoalesceChangesUntilFlush() {
+        Long cartId = cartService.createCart().getId();
+        cartService.addItemToCart(cartId, small.getId(), 1);
+        cartService.addItemToCart(cartId, small.getId(), 2);
+        cartService.addItemToCart(cartId, large.getId(), 1);
+
+        assertTrue(cartItemRepository.findByCartId(cartId).isEmpty());
+        assertEquals(0, BigDecimal.ZERO.compareTo(cartRepository.findById(cartId).orElseThrow().getSubtotal()));
+        Cart live = cartService.getCartWithItems(cartId);
+        assertEquals(2, live.getItems().size());
+        assertEquals(new BigDecimal("60.00"), live.getSubtotal());
+
+        cartStore.flushDirty();
+        assertEquals(List.of(3, 1), quantities(cartId));
+        assertEquals(0, new BigDecimal("60.00").compareTo(cartRepository.findById(cartId).orElseThrow().getSubtotal()));
+        assertTrue(cartService.getCartWithItems(cartId).getItems().stream().allMatch(line -> line.getId() != null));
+
+        cartService.updateItemQuantity(cartId, small.getId(), 1);
+        cartService.removeItemFromCart(cartId, large.getId());
+        cartStore.flushDirty();
+        assertEquals(List.of(1), quantities(cartId));
+        Cart stored = cartRepository.findById(cartId).orElseThrow();
+        assertEquals(0, new BigDecimal("10.00").compareTo(stored.getSubtotal()));
+        assertEquals(0, new BigDecimal("15.00").compareTo(stored.getTotal()));
+    }
+
+    @Test
+    @DisplayName("Should leave the live cart untouched when a change is rejected")
+    void shouldDiscardRejectedChanges() {
+        Long cartId = cartService.createCart().getId();
+        cartService.addItemToCart(cartId, small.getId(), 2);
+
+        assertThrows(IllegalArgumentException.class, () -> cartService.addItemToCart(cartId, small.getId(), 50));
+
+        Cart live = cartService.getCartWithItems(cartId);
+        assertEquals(2, live.getItems().get(0).getQty());
+        assertEquals(new BigDecimal("20.00"), live.getSubtotal());
+    }
+
+    @Test
+    @DisplayName("Should flush the cart before checkout reads it and start from the cleared cart afterwards")
+    void shouldFlushBeforeCheckout() {
+        Long cartId = cartService.createCart().getId();
+        cartService.addItemToCart(cartId, large.getId(), 2);
+
+        Order order = checkoutService.submitCheckout(cartId, "buyer@example.com", "1 Tea Street, Teatown 12345");
+
+        assertEquals(0, new BigDecimal("60.00").compareTo(order.getSubtotal()));
+        assertEquals(1, orderItemRepository.findByOrderId(order.getId()).size());
+        assertTrue(cartService.getCartWithItems(cartId).getItems().isEmpty());
+        assertTrue(cartItemRepository.findByCartId(cartId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop a live cart whose row was deleted instead of silently keeping it")
+    void shouldDiscardCartDeletedWhileLive() {
+        Long cartId = cartService.createCart().getId();
+        cartService.addItemToCart(cartId, small.getId(), 1);
+        cartStore.flushDirty();
+        cartService.addItemToCart(cartId, small.getId(), 1);
+
+        cartRepository.deleteById(cartId);
+        cartStore.flushDirty();
+
+        assertNull(cartService.getCartWithItemsOrNull(cartId));
+        assertThrows(IllegalArgumentException.class, () -> cartService.addItemToCart(cartId, small.getId(), 1));
+    }
+
+    private List<Integer> quantities(Long cartId) {
+        return cartItemRepository.findByCartId(cartId).stream()
+                .sorted(Comparator.comparing(CartItem::getVariantId))
+                .map(CartItem::getQty)
+                .toList();
+    }
+
+    private Variant variant(Product product, String title, String price) {
+        Variant variant = new Variant(product.getId(), product.getSlug() + "-" + title, title, new BigDecimal(price),
+                new BigDecimal("0.100"), new BigDecimal("0.150"));
+        variant.setStockQty(10);
+        return variantRepository.save(variant);
+    }
+}